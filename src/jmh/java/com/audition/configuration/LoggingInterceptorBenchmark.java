@@ -0,0 +1,84 @@
+package com.audition.configuration;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.mock.http.client.MockClientHttpRequest;
+import org.springframework.mock.http.client.MockClientHttpResponse;
+
+//cost the logging interceptor adds to every upstream call, the execution itself is a stub, log entries are written
+//by the interceptor's background writer and dropped when it falls behind
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class LoggingInterceptorBenchmark {
+
+    @Param({"INFO", "DEBUG"})
+    public String level;
+
+    @Param({"1", "100"})
+    public int posts;
+
+    @Param({"10", "100"})
+    public int samplePercent;
+
+    private RestTemplateLoggingInterceptor interceptor;
+    private MockClientHttpRequest request;
+    private ClientHttpRequestExecution execution;
+    private Level previousLevel;
+
+    @Setup
+    public void setup() {
+        previousLevel = logger().getLevel();
+        logger().setLevel(Level.toLevel(level));
+        final IntegrationClientProperties.Logging properties = new IntegrationClientProperties.Logging();
+        properties.setSamplePercent(samplePercent);
+        interceptor = new RestTemplateLoggingInterceptor(properties, new SimpleMeterRegistry());
+        request = new MockClientHttpRequest(HttpMethod.GET, URI.create("https://jsonplaceholder.typicode.com/posts"));
+
+        final StringBuilder json = new StringBuilder(posts * 64).append('[');
+        for (int i = 1; i <= posts; i++) {
+            json.append(i == 1 ? "" : ",").append("{\"userId\":1,\"id\":").append(i)
+                .append(",\"title\":\"title ").append(i).append("\",\"body\":\"body ").append(i).append("\"}");
+        }
+        final byte[] body = json.append(']').toString().getBytes(StandardCharsets.UTF_8);
+        //a fresh response per call, the interceptor copies a body prefix of the sampled calls at DEBUG
+        execution = (httpRequest, requestBody) -> new MockClientHttpResponse(body, HttpStatus.OK);
+    }
+
+    @TearDown
+    public void restoreLevel() {
+        interceptor.destroy();
+        logger().setLevel(previousLevel);
+    }
+
+    //the body is read and the response closed as RestTemplate would, sampled responses are logged on close
+    @Benchmark
+    public byte[] intercept() throws IOException {
+        try (ClientHttpResponse response = interceptor.intercept(request, new byte[0], execution)) {
+            return response.getBody().readAllBytes();
+        }
+    }
+
+    private static Logger logger() {
+        return (Logger) LoggerFactory.getLogger(RestTemplateLoggingInterceptor.class);
+    }
+}
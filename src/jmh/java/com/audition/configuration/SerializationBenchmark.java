@@ -0,0 +1,82 @@
+package com.audition.configuration;
+
+import com.audition.model.AuditionComment;
+import com.audition.model.AuditionPost;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+//Jackson round trips of upstream sized payloads with the application ObjectMapper settings
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SerializationBenchmark {
+
+    @Param({"1", "100"})
+    public int posts;
+
+    private ObjectWriter postsWriter;
+    private ObjectReader postsReader;
+    private ObjectWriter commentsWriter;
+    private ObjectReader commentsReader;
+    private List<AuditionPost> postList;
+    private List<AuditionComment> commentList;
+    private byte[] postsJson;
+    private byte[] commentsJson;
+
+    @Setup
+    public void setup() throws IOException {
+        final ObjectMapper objectMapper = new WebServiceConfiguration().objectMapper();
+        postsWriter = objectMapper.writerFor(new TypeReference<List<AuditionPost>>() { });
+        postsReader = objectMapper.readerFor(new TypeReference<List<AuditionPost>>() { });
+        commentsWriter = objectMapper.writerFor(new TypeReference<List<AuditionComment>>() { });
+        commentsReader = objectMapper.readerFor(new TypeReference<List<AuditionComment>>() { });
+
+        postList = new ArrayList<>(posts);
+        //upstream posts carry five comments each
+        commentList = new ArrayList<>(posts * 5);
+        for (int i = 1; i <= posts; i++) {
+            postList.add(new AuditionPost(i % 10 + 1, i, "sunt aut facere repellat provident " + i,
+                "quia et suscipit suscipit recusandae consequuntur expedita et cum reprehenderit " + i, null));
+            for (int j = 0; j < 5; j++) {
+                commentList.add(new AuditionComment(i, i * 5 + j, "id labore ex et quam laborum " + j,
+                    "Eliseo@gardner.biz", "laudantium enim quasi est quidem magnam voluptate ipsam eos " + j));
+            }
+        }
+        postsJson = postsWriter.writeValueAsBytes(postList);
+        commentsJson = commentsWriter.writeValueAsBytes(commentList);
+    }
+
+    @Benchmark
+    public byte[] serializePosts() throws IOException {
+        return postsWriter.writeValueAsBytes(postList);
+    }
+
+    @Benchmark
+    public List<AuditionPost> deserializePosts() throws IOException {
+        return postsReader.readValue(postsJson);
+    }
+
+    @Benchmark
+    public byte[] serializeComments() throws IOException {
+        return commentsWriter.writeValueAsBytes(commentList);
+    }
+
+    @Benchmark
+    public List<AuditionComment> deserializeComments() throws IOException {
+        return commentsReader.readValue(commentsJson);
+    }
+}
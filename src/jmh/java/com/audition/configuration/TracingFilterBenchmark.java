@@ -0,0 +1,103 @@
+package com.audition.configuration;
+
+import brave.Tracing;
+import brave.handler.MutableSpan;
+import brave.handler.SpanHandler;
+import brave.propagation.TraceContext;
+import brave.sampler.Sampler;
+import io.micrometer.tracing.Span;
+import io.micrometer.tracing.Tracer;
+import io.micrometer.tracing.brave.bridge.BraveBaggageManager;
+import io.micrometer.tracing.brave.bridge.BraveCurrentTraceContext;
+import io.micrometer.tracing.brave.bridge.BraveTracer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+//cost of a traced request through ResponseHeaderInjector per sampling setting, the server span is started and ended
+//as the observation filter would and a reporting span handler stands in for an exporter, run with -prof gc to see
+//the allocation per request
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class TracingFilterBenchmark {
+
+    private static final FilterChain CHAIN = (request, response) -> {
+    };
+
+    @Param({"ALWAYS", "PROBABILITY", "RATE_LIMITED", "NEVER"})
+    public String sampling;
+
+    @Param({"false", "true"})
+    public boolean tail;
+
+    private final AtomicLong reported = new AtomicLong();
+    private Tracing tracing;
+    private Tracer tracer;
+    private ResponseHeaderInjector filter;
+
+    @Setup
+    public void setup() {
+        final TracingSamplingProperties properties = new TracingSamplingProperties();
+        final SpanHandler reporter = new SpanHandler() {
+            @Override
+            public boolean end(final TraceContext context, final MutableSpan span, final Cause cause) {
+                reported.incrementAndGet();
+                return true;
+            }
+        };
+        final Tracing.Builder builder = Tracing.newBuilder().sampler(sampler(properties));
+        if (tail) {
+            builder.alwaysSampleLocal().addSpanHandler(new TailSamplingSpanHandler(properties.getTail(),
+                new StaticListableBeanFactory(Map.of("reporter", reporter)).getBeanProvider(SpanHandler.class)));
+        }
+        tracing = builder.addSpanHandler(reporter).build();
+        tracer = new BraveTracer(tracing.tracer(), new BraveCurrentTraceContext(tracing.currentTraceContext()),
+            new BraveBaggageManager());
+        filter = new ResponseHeaderInjector(new StaticListableBeanFactory(Map.of("tracer", tracer))
+            .getBeanProvider(Tracer.class));
+    }
+
+    @TearDown
+    public void close() {
+        tracing.close();
+    }
+
+    @Benchmark
+    public MockHttpServletResponse request() throws ServletException, IOException {
+        final Span span = tracer.nextSpan().name("http get /posts/{id}").start();
+        try (Tracer.SpanInScope scope = tracer.withSpan(span)) {
+            final MockHttpServletResponse response = new MockHttpServletResponse();
+            filter.doFilter(new MockHttpServletRequest("GET", "/posts/1"), response, CHAIN);
+            return response;
+        } finally {
+            span.end();
+        }
+    }
+
+    private Sampler sampler(final TracingSamplingProperties properties) {
+        return switch (sampling) {
+            case "ALWAYS" -> Sampler.ALWAYS_SAMPLE;
+            case "NEVER" -> Sampler.NEVER_SAMPLE;
+            default -> {
+                properties.setHead(TracingSamplingProperties.Head.valueOf(sampling));
+                yield TracingConfiguration.headSampler(properties);
+            }
+        };
+    }
+}
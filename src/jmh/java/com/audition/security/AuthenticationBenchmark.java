@@ -0,0 +1,62 @@
+package com.audition.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.crypto.factory.PasswordEncoderFactories;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.provisioning.InMemoryUserDetailsManager;
+
+//authenticated requests per second a single thread can admit, the stored password is bcrypt as it is after the
+//first login, basic checks it on every request, cached checks it once per ttl and token verifies a signature
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class AuthenticationBenchmark {
+
+    private static final String USERNAME = "benchmark";
+    private static final String PASSWORD = "benchmark";
+
+    @Param({"BASIC", "CACHED", "TOKEN"})
+    public String mode;
+
+    private AuthenticationProvider provider;
+    private AuthenticationTokens tokens;
+    private String token;
+
+    @Setup
+    public void setup() {
+        final PasswordEncoder encoder = PasswordEncoderFactories.createDelegatingPasswordEncoder();
+        final InMemoryUserDetailsManager users = new InMemoryUserDetailsManager(User.withUsername(USERNAME)
+            .password(encoder.encode(PASSWORD))
+            .roles("USER")
+            .build());
+        final DaoAuthenticationProvider dao = new DaoAuthenticationProvider(encoder);
+        dao.setUserDetailsService(users);
+        final AuthenticationCache cache = new AuthenticationCache(new AuthenticationProperties.Cache(),
+            new SimpleMeterRegistry());
+        provider = "CACHED".equals(mode) ? new CachingAuthenticationProvider(dao, cache) : dao;
+        tokens = new AuthenticationTokens(new AuthenticationProperties.Token(), users);
+        token = tokens.issue(USERNAME).orElseThrow();
+    }
+
+    @Benchmark
+    public Authentication authenticate() {
+        if ("TOKEN".equals(mode)) {
+            return tokens.verify(token).orElseThrow();
+        }
+        return provider.authenticate(UsernamePasswordAuthenticationToken.unauthenticated(USERNAME, PASSWORD));
+    }
+}
@@ -0,0 +1,52 @@
+package com.audition.service;
+
+import com.audition.model.AuditionPost;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+//pages the cached post list the way AuditionService.getPosts does, the page is walked as the serializer would
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class PaginationBenchmark {
+
+    @Param({"100", "10000"})
+    public int posts;
+
+    @Param({"10", "100", "500"})
+    public int limit;
+
+    private List<AuditionPost> cached;
+    private int lastOffset;
+
+    @Setup
+    public void setup() {
+        cached = new ArrayList<>(posts);
+        for (int i = 1; i <= posts; i++) {
+            cached.add(new AuditionPost(i % 10 + 1, i, "title " + i, "body " + i, null));
+        }
+        lastOffset = Math.max(0, posts - limit);
+    }
+
+    @Benchmark
+    public List<AuditionPost> firstPage() {
+        return AuditionService.page(cached, 0, limit);
+    }
+
+    @Benchmark
+    public void lastPageWalked(final Blackhole blackhole) {
+        for (final AuditionPost post : AuditionService.page(cached, lastOffset, limit)) {
+            blackhole.consume(post);
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.audition.web.advice;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import com.audition.common.exception.SystemException;
+import com.audition.common.logging.AuditionLogger;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ProblemDetail;
+import org.springframework.web.client.HttpClientErrorException;
+
+//error path cost of createProblemDetail, OFF isolates building the ProblemDetail from logging the stack trace
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ProblemDetailBenchmark {
+
+    @Param({"ERROR", "OFF"})
+    public String level;
+
+    private ExceptionControllerAdvice advice;
+    private SystemException notFound;
+    private SystemException unmappedStatus;
+    private HttpClientErrorException clientError;
+    private Level previousLevel;
+
+    @Setup
+    public void setup() {
+        previousLevel = logger().getLevel();
+        logger().setLevel(Level.toLevel(level));
+        advice = new ExceptionControllerAdvice(new AuditionLogger());
+        notFound = new SystemException("Cannot find a Post with id 1", SystemException.RESOURCE_NOT_FOUND_STR, 404);
+        unmappedStatus = new SystemException("Upstream returned an unknown status", 999);
+        clientError = HttpClientErrorException.create(HttpStatus.BAD_REQUEST, "Bad Request",
+            null, new byte[0], null);
+    }
+
+    @TearDown
+    public void restoreLevel() {
+        logger().setLevel(previousLevel);
+    }
+
+    @Benchmark
+    public ProblemDetail systemException() {
+        return advice.handleSystemException(notFound);
+    }
+
+    @Benchmark
+    public ProblemDetail unmappedSystemException() {
+        return advice.handleSystemException(unmappedStatus);
+    }
+
+    @Benchmark
+    public ProblemDetail httpClientErrorException() {
+        return advice.handleHttpClientException(clientError);
+    }
+
+    private static Logger logger() {
+        return (Logger) LoggerFactory.getLogger(ExceptionControllerAdvice.class);
+    }
+}
@@ -0,0 +1,130 @@
+package com.audition.configuration;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.util.StreamUtils;
+
+//revalidates upstream GETs with the validators of the last response, a 304 is answered from the stored body, so a
+//response carrying validators is read into memory whole before it is deserialized and kept until evicted
+public class ConditionalRequestInterceptor implements ClientHttpRequestInterceptor {
+
+    private static final String METRIC_NAME = "audition.upstream.revalidations";
+    private static final String RESULT_TAG = "result";
+
+    private final transient Cache<String, StoredResponse> responses;
+    private final transient Counter notModified;
+    private final transient Counter modified;
+
+    public ConditionalRequestInterceptor(final IntegrationClientProperties.Revalidation properties,
+        final MeterRegistry meterRegistry) {
+        this.responses = Caffeine.newBuilder()
+            .maximumSize(properties.getMaximumSize())
+            .build();
+        this.notModified = Counter.builder(METRIC_NAME)
+            .description("Conditional upstream requests answered with 304 Not Modified")
+            .tag(RESULT_TAG, "not_modified")
+            .register(meterRegistry);
+        this.modified = Counter.builder(METRIC_NAME)
+            .description("Conditional upstream requests answered with a new body")
+            .tag(RESULT_TAG, "modified")
+            .register(meterRegistry);
+    }
+
+    @Override
+    public ClientHttpResponse intercept(final HttpRequest request, final byte[] body,
+        final ClientHttpRequestExecution execution) throws IOException {
+        if (!HttpMethod.GET.equals(request.getMethod())) {
+            return execution.execute(request, body);
+        }
+
+        final String key = request.getURI().toString();
+        final StoredResponse stored = responses.getIfPresent(key);
+        if (stored != null) {
+            stored.addValidators(request.getHeaders());
+        }
+
+        final ClientHttpResponse response = execution.execute(request, body);
+        if (stored != null && response.getStatusCode().isSameCodeAs(HttpStatus.NOT_MODIFIED)) {
+            response.close();
+            notModified.increment();
+            return stored.toResponse();
+        }
+        if (stored != null) {
+            modified.increment();
+        }
+
+        final HttpHeaders headers = response.getHeaders();
+        if (!response.getStatusCode().is2xxSuccessful()
+            || headers.getETag() == null && headers.getLastModified() < 0) {
+            return response;
+        }
+
+        try (response) {
+            final StoredResponse fresh = new StoredResponse(response.getStatusCode(), headers,
+                StreamUtils.copyToByteArray(response.getBody()));
+            responses.put(key, fresh);
+            return fresh.toResponse();
+        }
+    }
+
+    private record StoredResponse(HttpStatusCode statusCode, HttpHeaders headers, byte[] body) {
+
+        private StoredResponse(final HttpStatusCode statusCode, final HttpHeaders headers, final byte[] body) {
+            this.statusCode = statusCode;
+            this.headers = new HttpHeaders();
+            this.headers.putAll(headers);
+            this.body = body;
+        }
+
+        void addValidators(final HttpHeaders requestHeaders) {
+            if (headers.getETag() != null) {
+                requestHeaders.setIfNoneMatch(headers.getETag());
+            }
+            if (headers.getLastModified() >= 0) {
+                requestHeaders.setIfModifiedSince(headers.getLastModified());
+            }
+        }
+
+        ClientHttpResponse toResponse() {
+            return new ClientHttpResponse() {
+                @Override
+                public HttpStatusCode getStatusCode() {
+                    return statusCode;
+                }
+
+                @Override
+                public String getStatusText() {
+                    return "";
+                }
+
+                @Override
+                public HttpHeaders getHeaders() {
+                    return headers;
+                }
+
+                @Override
+                public InputStream getBody() {
+                    return new ByteArrayInputStream(body);
+                }
+
+                @Override
+                public void close() {
+                    //nothing to release, the body is held in memory
+                }
+            };
+        }
+    }
+}
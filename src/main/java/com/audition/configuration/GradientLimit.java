@@ -0,0 +1,57 @@
+package com.audition.configuration;
+
+//gradient style concurrency limit, it follows the ratio of the long term to the short term request latency, so it
+//shrinks as soon as requests start queueing and grows back while latency stays flat under load
+final class GradientLimit {
+
+    private static final double MIN_GRADIENT = 0.5;
+    private static final double MAX_GRADIENT = 1.0;
+    //a long term latency this far above the short term one is left over from an overload that has passed
+    private static final double DRIFT_RATIO = 2.0;
+    private static final double DRIFT_DECAY = 0.95;
+
+    private final transient Object lock = new Object();
+    private final transient InboundLimiterProperties properties;
+    private final transient double shortAlpha;
+    private final transient double longAlpha;
+    private transient double shortLatency;
+    private transient double longLatency;
+    //read without the lock on every request
+    private transient volatile double limit;
+
+    GradientLimit(final InboundLimiterProperties properties) {
+        this.properties = properties;
+        this.shortAlpha = 2.0 / (properties.getShortWindow() + 1);
+        this.longAlpha = 2.0 / (properties.getLongWindow() + 1);
+        this.limit = properties.getInitialLimit();
+    }
+
+    int getLimit() {
+        return (int) limit;
+    }
+
+    void onSample(final long latencyNanos, final int inFlight) {
+        synchronized (lock) {
+            if (longLatency == 0) {
+                shortLatency = latencyNanos;
+                longLatency = latencyNanos;
+                return;
+            }
+            shortLatency += shortAlpha * (latencyNanos - shortLatency);
+            longLatency += longAlpha * (latencyNanos - longLatency);
+            if (longLatency / shortLatency > DRIFT_RATIO) {
+                longLatency *= DRIFT_DECAY;
+            }
+            //a node that uses less than half of its limit tells nothing about how far the limit could go
+            if (inFlight < limit / 2) {
+                return;
+            }
+            final double gradient = Math.max(MIN_GRADIENT,
+                Math.min(MAX_GRADIENT, properties.getTolerance() * longLatency / shortLatency));
+            //the square root leaves room for a few queued requests, so the limit can grow while latency is flat
+            final double estimate = limit * gradient + Math.sqrt(limit);
+            final double smoothed = limit * (1 - properties.getSmoothing()) + estimate * properties.getSmoothing();
+            limit = Math.max(properties.getMinLimit(), Math.min(properties.getMaxLimit(), smoothed));
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.audition.configuration;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import java.util.function.ToDoubleFunction;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.core5.pool.PoolStats;
+
+public class HttpClientPoolMetrics implements MeterBinder {
+
+    private static final String METRIC_PREFIX = "audition.http.client.pool.";
+    private static final String POOL_TAG = "pool";
+    private static final String POOL_NAME = "integration";
+
+    private final transient PoolingHttpClientConnectionManager connectionManager;
+
+    public HttpClientPoolMetrics(final PoolingHttpClientConnectionManager connectionManager) {
+        this.connectionManager = connectionManager;
+    }
+
+    @Override
+    public void bindTo(final MeterRegistry registry) {
+        registerGauge(registry, "leased", "Connections currently leased to in-flight requests", PoolStats::getLeased);
+        registerGauge(registry, "available", "Idle keep-alive connections ready for reuse", PoolStats::getAvailable);
+        registerGauge(registry, "pending", "Requests waiting to acquire a connection", PoolStats::getPending);
+        registerGauge(registry, "max", "Maximum number of pooled connections", PoolStats::getMax);
+    }
+
+    private void registerGauge(final MeterRegistry registry, final String name, final String description,
+        final ToDoubleFunction<PoolStats> statistic) {
+        Gauge.builder(METRIC_PREFIX + name, connectionManager,
+                manager -> statistic.applyAsDouble(manager.getTotalStats()))
+            .description(description)
+            .tag(POOL_TAG, POOL_NAME)
+            .register(registry);
+    }
+}
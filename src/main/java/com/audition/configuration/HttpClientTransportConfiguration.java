@@ -0,0 +1,125 @@
+package com.audition.configuration;
+
+import com.audition.integration.resilience.AbortableAttempt;
+import java.net.URI;
+import java.net.http.HttpClient;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.concurrent.Cancellable;
+import org.apache.hc.core5.http.ClassicHttpRequest;
+import org.apache.hc.core5.http.io.SocketConfig;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+
+@Configuration(proxyBeanMethods = false)
+public class HttpClientTransportConfiguration {
+
+    private static final String PREFIX = "integration.client";
+    private static final String TRANSPORT = "transport";
+    private static final String EXECUTION = "execution";
+
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnProperty(prefix = PREFIX, name = TRANSPORT, havingValue = "pooled", matchIfMissing = true)
+    static class PooledTransportConfiguration {
+
+        @Bean
+        public PoolingHttpClientConnectionManager integrationConnectionManager(
+            final IntegrationClientProperties properties) {
+            final IntegrationClientProperties.ConnectionPool pool = properties.getPool();
+            return PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(pool.getMaxTotal())
+                .setMaxConnPerRoute(pool.getMaxPerRoute())
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                    .setConnectTimeout(Timeout.ofMilliseconds(properties.getConnectTimeout().toMillis()))
+                    .setSocketTimeout(Timeout.ofMilliseconds(properties.getReadTimeout().toMillis()))
+                    .setTimeToLive(TimeValue.ofMilliseconds(pool.getTimeToLive().toMillis()))
+                    .build())
+                .setDefaultSocketConfig(SocketConfig.custom()
+                    .setSoKeepAlive(true)
+                    .build())
+                .build();
+        }
+
+        @Bean
+        public ClientHttpRequestFactory integrationClientHttpRequestFactory(
+            final PoolingHttpClientConnectionManager integrationConnectionManager,
+            final IntegrationClientProperties properties) {
+            final RequestConfig requestConfig = RequestConfig.custom()
+                .setConnectionRequestTimeout(Timeout.ofMilliseconds(properties.getPoolAcquireTimeout().toMillis()))
+                .setResponseTimeout(Timeout.ofMilliseconds(properties.getReadTimeout().toMillis()))
+                .build();
+
+            final CloseableHttpClient httpClient = HttpClients.custom()
+                .setConnectionManager(integrationConnectionManager)
+                .setDefaultRequestConfig(requestConfig)
+                .evictExpiredConnections()
+                .evictIdleConnections(TimeValue.ofMilliseconds(properties.getPool().getIdleEviction().toMillis()))
+                .build();
+
+            return new AbortableRequestFactory(httpClient);
+        }
+
+        @Bean
+        public HttpClientPoolMetrics httpClientPoolMetrics(
+            final PoolingHttpClientConnectionManager integrationConnectionManager) {
+            return new HttpClientPoolMetrics(integrationConnectionManager);
+        }
+    }
+
+    //an exchange can be aborted from another thread, which is how the losing attempt of a hedged call is stopped
+    static class AbortableRequestFactory extends HttpComponentsClientHttpRequestFactory {
+
+        AbortableRequestFactory(final CloseableHttpClient httpClient) {
+            super(httpClient);
+        }
+
+        @Override
+        protected ClassicHttpRequest createHttpUriRequest(final HttpMethod httpMethod, final URI uri) {
+            final ClassicHttpRequest request = super.createHttpUriRequest(httpMethod, uri);
+            if (request instanceof Cancellable cancellable) {
+                AbortableAttempt.register(cancellable::cancel);
+            }
+            return request;
+        }
+    }
+
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnProperty(prefix = PREFIX, name = TRANSPORT, havingValue = "simple")
+    static class SimpleTransportConfiguration {
+
+        @Bean
+        public ClientHttpRequestFactory integrationClientHttpRequestFactory(
+            final IntegrationClientProperties properties) {
+            final SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+            requestFactory.setOutputStreaming(false);
+            requestFactory.setConnectTimeout((int) properties.getConnectTimeout().toMillis());
+            requestFactory.setReadTimeout((int) properties.getReadTimeout().toMillis());
+            return requestFactory;
+        }
+    }
+
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnProperty(prefix = PREFIX, name = EXECUTION, havingValue = "non-blocking")
+    static class NonBlockingTransportConfiguration {
+
+        //multiplexes in-flight calls over its selector thread instead of holding a thread per upstream call
+        @Bean
+        public HttpClient integrationHttpClient(final IntegrationClientProperties properties) {
+            return HttpClient.newBuilder()
+                .connectTimeout(properties.getConnectTimeout())
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .build();
+        }
+    }
+}
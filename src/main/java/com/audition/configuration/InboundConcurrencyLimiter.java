@@ -0,0 +1,143 @@
+package com.audition.configuration;
+
+import com.audition.web.advice.ExceptionControllerAdvice;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.net.URI;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
+import org.springframework.http.ProblemDetail;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+//requests beyond an adaptive concurrency limit are answered at once with a ProblemDetail, so that an overloaded node
+//keeps serving at its best throughput instead of queueing without bound in Tomcat
+public class InboundConcurrencyLimiter extends OncePerRequestFilter {
+
+    private static final String METRIC_PREFIX = "audition.inbound.";
+    private static final String REJECTED_DETAIL = "Too many requests in flight, please retry later.";
+
+    private final transient InboundLimiterProperties properties;
+    private final transient GradientLimit limit;
+    private final transient AtomicInteger inFlight = new AtomicInteger();
+    private final transient ObjectMapper objectMapper;
+    private final transient Counter rejected;
+
+    public InboundConcurrencyLimiter(final InboundLimiterProperties properties, final ObjectMapper objectMapper,
+        final MeterRegistry meterRegistry) {
+        super();
+        this.properties = properties;
+        this.limit = new GradientLimit(properties);
+        this.objectMapper = objectMapper;
+        Gauge.builder(METRIC_PREFIX + "limit", limit, GradientLimit::getLimit)
+            .description("Requests currently allowed in flight")
+            .register(meterRegistry);
+        Gauge.builder(METRIC_PREFIX + "in.flight", inFlight, AtomicInteger::get)
+            .description("Requests currently in flight")
+            .register(meterRegistry);
+        this.rejected = Counter.builder(METRIC_PREFIX + "rejected")
+            .description("Requests rejected over the concurrency limit")
+            .register(meterRegistry);
+    }
+
+    @Override
+    protected void doFilterInternal(final HttpServletRequest request, final HttpServletResponse response,
+        final FilterChain filterChain) throws ServletException, IOException {
+        if (!tryAcquire()) {
+            rejected.increment();
+            reject(request, response);
+            return;
+        }
+
+        final long start = System.nanoTime();
+        boolean asyncStarted = false;
+        try {
+            filterChain.doFilter(request, response);
+            asyncStarted = request.isAsyncStarted();
+        } finally {
+            if (asyncStarted) {
+                //non-blocking handlers hold their permit until the response is completed
+                request.getAsyncContext().addListener(new Release(start));
+            } else {
+                release(start);
+            }
+        }
+    }
+
+    private boolean tryAcquire() {
+        int current = inFlight.get();
+        while (current < limit.getLimit()) {
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+            current = inFlight.get();
+        }
+        return false;
+    }
+
+    private void release(final long start) {
+        limit.onSample(System.nanoTime() - start, inFlight.getAndDecrement());
+    }
+
+    private void reject(final HttpServletRequest request, final HttpServletResponse response) throws IOException {
+        final ProblemDetail problemDetail = ProblemDetail.forStatusAndDetail(
+            HttpStatusCode.valueOf(properties.getRejectionStatus()), REJECTED_DETAIL);
+        problemDetail.setTitle(ExceptionControllerAdvice.DEFAULT_TITLE);
+        problemDetail.setInstance(URI.create(request.getRequestURI()));
+
+        response.setStatus(properties.getRejectionStatus());
+        response.setHeader(HttpHeaders.RETRY_AFTER,
+            String.valueOf(Math.max(1, properties.getRetryAfter().toSeconds())));
+        response.setContentType(MediaType.APPLICATION_PROBLEM_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), problemDetail);
+    }
+
+    //completion, timeout and error may each be reported for the same request, the permit is released once
+    private final class Release implements AsyncListener {
+
+        private final AtomicBoolean released = new AtomicBoolean();
+        private final long start;
+
+        private Release(final long start) {
+            this.start = start;
+        }
+
+        @Override
+        public void onComplete(final AsyncEvent event) {
+            releaseOnce();
+        }
+
+        @Override
+        public void onTimeout(final AsyncEvent event) {
+            releaseOnce();
+        }
+
+        @Override
+        public void onError(final AsyncEvent event) {
+            releaseOnce();
+        }
+
+        @Override
+        public void onStartAsync(final AsyncEvent event) {
+            //a redispatched request keeps its permit until it completes
+            event.getAsyncContext().addListener(this);
+        }
+
+        private void releaseOnce() {
+            if (released.compareAndSet(false, true)) {
+                release(start);
+            }
+        }
+    }
+}
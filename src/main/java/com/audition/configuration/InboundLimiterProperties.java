@@ -0,0 +1,28 @@
+package com.audition.configuration;
+
+import java.time.Duration;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "inbound.limiter")
+public class InboundLimiterProperties {
+
+    //requests in flight beyond the current limit are rejected at once instead of queueing for a Tomcat thread
+    private boolean enabled = true;
+    private int initialLimit = 50;
+    private int minLimit = 10;
+    private int maxLimit = 200;
+    //how far the short term latency may rise above the long term one before the limit shrinks
+    private double tolerance = 1.5;
+    //weight of each new limit estimate, lower values react slower but oscillate less
+    private double smoothing = 0.2;
+    //samples averaged by the short and long term latencies
+    private int shortWindow = 10;
+    private int longWindow = 600;
+    //429 or 503
+    private int rejectionStatus = 503;
+    private Duration retryAfter = Duration.ofSeconds(1);
+}
@@ -0,0 +1,70 @@
+package com.audition.configuration;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "integration.cache")
+public class IntegrationCacheProperties {
+
+    private boolean enabled = true;
+    private Map<String, Region> regions = new ConcurrentHashMap<>();
+    private final Snapshot snapshot = new Snapshot();
+    private final Stale stale = new Stale();
+    private final Loader loader = new Loader();
+
+    public Region getRegion(final String name) {
+        return regions.getOrDefault(name, new Region());
+    }
+
+    @Getter
+    @Setter
+    public static class Region {
+
+        private long maximumSize = 1000;
+        private Duration ttl = Duration.ofMinutes(5);
+        //refresh entries in the background once they are this old, must be shorter than the ttl to take effect
+        private Duration refreshAhead;
+    }
+
+    @Getter
+    @Setter
+    public static class Snapshot {
+
+        //cached posts and comments are written to a local file and restored from it on startup
+        private boolean enabled = true;
+        private Path path = Path.of(System.getProperty("java.io.tmpdir"), "audition-api", "upstream.snapshot");
+        private Duration interval = Duration.ofMinutes(5);
+        //an older snapshot is ignored on startup
+        private Duration maxAge = Duration.ofHours(1);
+    }
+
+    @Getter
+    @Setter
+    public static class Stale {
+
+        //an expired entry is answered with its last known good value while the upstream fails or is slower than the
+        //latency budget, the reload carries on in the background
+        private boolean enabled = true;
+        private Duration latencyBudget = Duration.ofMillis(500);
+        //an older value is never served, the upstream failure surfaces instead
+        private Duration maxAge = Duration.ofHours(1);
+    }
+
+    @Getter
+    @Setter
+    public static class Loader {
+
+        //loads that leave the calling thread (refresh ahead, a reload behind a stale value) run on a pool of their
+        //own, with the pool and its queue full a stale value answers right away and any other load runs on the
+        //thread that triggered it
+        private int threads = 8;
+        private int queueCapacity = 100;
+    }
+}
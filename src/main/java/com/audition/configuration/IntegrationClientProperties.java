@@ -0,0 +1,162 @@
+package com.audition.configuration;
+
+import java.time.Duration;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "integration.client")
+public class IntegrationClientProperties {
+
+    private Transport transport = Transport.POOLED;
+    private Execution execution = Execution.BLOCKING;
+    private Duration connectTimeout = Duration.ofSeconds(2);
+    private Duration readTimeout = Duration.ofSeconds(5);
+    private Duration poolAcquireTimeout = Duration.ofSeconds(1);
+    //concurrent identical upstream calls share a single request, regardless of caching
+    private boolean coalescing = true;
+    //comment lookups are answered from an index of every upstream post and comment, only used while caching is enabled
+    private boolean commentIndex = true;
+    private final ConnectionPool pool = new ConnectionPool();
+    private final Revalidation revalidation = new Revalidation();
+    private final Pagination pagination = new Pagination();
+    private final Batch batch = new Batch();
+    private final CircuitBreaker circuitBreaker = new CircuitBreaker();
+    private final Bulkhead bulkhead = new Bulkhead();
+    private final Hedging hedging = new Hedging();
+    private final Retry retry = new Retry();
+    private final Logging logging = new Logging();
+
+    public enum Transport {
+        POOLED,
+        SIMPLE
+    }
+
+    public enum Execution {
+        //RestTemplate calls on the request thread
+        BLOCKING,
+        //CompletableFuture based client and handlers, the request thread is released while upstream calls are in flight
+        NON_BLOCKING
+    }
+
+    @Getter
+    @Setter
+    public static class ConnectionPool {
+
+        private int maxTotal = 200;
+        private int maxPerRoute = 50;
+        private Duration idleEviction = Duration.ofSeconds(30);
+        private Duration timeToLive = Duration.ofMinutes(5);
+    }
+
+    @Getter
+    @Setter
+    public static class Revalidation {
+
+        //send If-None-Match / If-Modified-Since upstream using the validators of the last response per url, off by
+        //default: a 304 is answered from the stored body, so every validated body is copied and kept up to maximumSize
+        private boolean enabled;
+        private long maximumSize = 2000;
+    }
+
+    @Getter
+    @Setter
+    public static class Pagination {
+
+        //ask the upstream for a single page instead of fetching the whole collection and slicing it locally
+        private boolean pushdown = true;
+        private String startParameter = "_start";
+        private String limitParameter = "_limit";
+    }
+
+    @Getter
+    @Setter
+    public static class Batch {
+
+        //upstream lookups in flight for a single batch request
+        private int parallelism = 8;
+    }
+
+    @Getter
+    @Setter
+    public static class CircuitBreaker {
+
+        //each upstream call type (posts, post, comments) has its own breaker over the outcomes of its last calls
+        private boolean enabled = true;
+        private int windowSize = 50;
+        private int minimumCalls = 20;
+        //percentages of the calls in the window, server errors, I/O errors and 429 count as failures
+        private int failureRateThreshold = 50;
+        private int slowCallRateThreshold = 80;
+        private Duration slowCallDuration = Duration.ofSeconds(2);
+        //calls are rejected for this long once open, then half-open-calls probes decide whether to close again
+        private Duration openDuration = Duration.ofSeconds(10);
+        private int halfOpenCalls = 5;
+    }
+
+    @Getter
+    @Setter
+    public static class Bulkhead {
+
+        //upstream calls in flight across all call types, a call beyond that waits at most max-wait and is rejected
+        private boolean enabled = true;
+        //for blocking execution, where every call in flight holds a thread and a pooled connection
+        private int maxConcurrent = 50;
+        //for non-blocking execution, where a call in flight holds neither, only a runaway fan-out is capped
+        private int nonBlockingMaxConcurrent = 1000;
+        private Duration maxWait = Duration.ZERO;
+
+        public int getMaxConcurrent(final Execution execution) {
+            return execution == Execution.NON_BLOCKING ? nonBlockingMaxConcurrent : maxConcurrent;
+        }
+    }
+
+    @Getter
+    @Setter
+    public static class Hedging {
+
+        //single post and per post comment lookups that have not answered within the percentile of their recent
+        //latencies get a second attempt, the first answer wins and the other attempt is cancelled
+        private boolean enabled = false;
+        private int percentile = 95;
+        private int windowSize = 200;
+        //latencies recorded before a call type is hedged at all
+        private int minimumSamples = 20;
+        private Duration minimumDelay = Duration.ofMillis(10);
+        //second attempts as a percentage of hedgeable calls, so hedging adds at most this much upstream load
+        private int budgetPercent = 10;
+        //hedges of blocking calls in flight, each on a thread of its own, a hedge beyond that is not sent
+        private int maxConcurrent = 16;
+    }
+
+    @Getter
+    @Setter
+    public static class Retry {
+
+        //upstream GETs failing with a server error, an I/O error or 429 are retried after a jittered exponential
+        //backoff, calls rejected by a circuit breaker or the bulkhead are not
+        private boolean enabled = true;
+        private int maxAttempts = 3;
+        private Duration initialBackoff = Duration.ofMillis(50);
+        private Duration maxBackoff = Duration.ofSeconds(1);
+        //retries as a percentage of upstream calls, so that a failing upstream does not face a retry storm
+        private int budgetPercent = 20;
+        //measured from the arrival of the inbound request, no retry is started unless its backoff and a whole attempt
+        //up to the read timeout fit into it
+        private Duration deadline = Duration.ofSeconds(10);
+    }
+
+    @Getter
+    @Setter
+    public static class Logging {
+
+        //upstream exchanges logged at DEBUG, as a percentage of the calls, with bodies cut to max-body-size
+        private int samplePercent = 10;
+        private DataSize maxBodySize = DataSize.ofKilobytes(2);
+        //entries waiting for the background log writer, entries beyond that are dropped
+        private int queueCapacity = 1000;
+    }
+}
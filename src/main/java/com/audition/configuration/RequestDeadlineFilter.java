@@ -0,0 +1,28 @@
+package com.audition.configuration;
+
+import com.audition.integration.resilience.RequestDeadline;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.time.Duration;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+//starts the deadline of an inbound request on arrival, upstream retries made on its behalf must fit into it
+public class RequestDeadlineFilter extends OncePerRequestFilter {
+
+    private final transient Duration deadline;
+
+    public RequestDeadlineFilter(final Duration deadline) {
+        super();
+        this.deadline = deadline;
+    }
+
+    @Override
+    protected void doFilterInternal(final HttpServletRequest request, final HttpServletResponse response,
+        final FilterChain filterChain) throws ServletException, IOException {
+        RequestDeadline.start(request, deadline);
+        filterChain.doFilter(request, response);
+    }
+}
@@ -8,30 +8,58 @@ import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import java.io.IOException;
-import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 @Component
 public class ResponseHeaderInjector extends OncePerRequestFilter {
 
-    @Autowired
-    private transient Tracer tracer;
+    private static final String TRACE_ID_HEADER = "X-Trace-Id";
+    private static final String SPAN_ID_HEADER = "X-Span-Id";
+    //OncePerRequestFilter would concatenate the attribute name on every request
+    private static final String ALREADY_FILTERED_ATTRIBUTE = ResponseHeaderInjector.class.getName()
+        + ALREADY_FILTERED_SUFFIX;
+
+    private final transient ObjectProvider<Tracer> tracerProvider;
+    //resolved on the first request rather than looked up in the bean factory on every one
+    private transient volatile Tracer tracer;
+
+    public ResponseHeaderInjector(final ObjectProvider<Tracer> tracer) {
+        super();
+        this.tracerProvider = tracer;
+    }
+
+    @Override
+    protected String getAlreadyFilteredAttributeName() {
+        return ALREADY_FILTERED_ATTRIBUTE;
+    }
 
     @Override
     protected void doFilterInternal(final HttpServletRequest request, final HttpServletResponse response,
         final FilterChain filterChain)
         throws ServletException, IOException {
 
-        final Span currentSpan = tracer.currentSpan();
+        final Span currentSpan = tracer().currentSpan();
         if (currentSpan != null) {
+            //the id strings are cached by the trace context, unsampled requests still carry ids for their logs
             final TraceContext context = currentSpan.context();
 
-            response.addHeader("X-Trace-Id", context.traceId());
-            response.addHeader("X-Span-Id", context.spanId());
+            response.setHeader(TRACE_ID_HEADER, context.traceId());
+            response.setHeader(SPAN_ID_HEADER, context.spanId());
+        }
 
-            filterChain.doFilter(request, response);
+        filterChain.doFilter(request, response);
+    }
 
+    private Tracer tracer() {
+        Tracer current = tracer;
+        if (current == null) {
+            //tracing is not auto-configured in every context (e.g. test slices), requests must still be served
+            //without it
+            current = tracerProvider.getIfAvailable(() -> Tracer.NOOP);
+            tracer = current;
         }
+        return current;
     }
 }
@@ -1,22 +1,60 @@
 package com.audition.configuration;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.io.FilterInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
 import lombok.extern.slf4j.Slf4j;
+import org.slf4j.MDC;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpRequest;
+import org.springframework.http.HttpStatusCode;
 import org.springframework.http.client.ClientHttpRequestExecution;
 import org.springframework.http.client.ClientHttpRequestInterceptor;
 import org.springframework.http.client.ClientHttpResponse;
-import org.springframework.util.StreamUtils;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
+//logs a sample of the upstream exchanges at DEBUG, bodies are cut to a prefix and written by a single background
+//thread, entries beyond its queue are dropped so that logging never holds up an upstream call, entries still queued
+//on shutdown are written before the writer stops
 @Slf4j
-public class RestTemplateLoggingInterceptor implements ClientHttpRequestInterceptor {
+public class RestTemplateLoggingInterceptor implements ClientHttpRequestInterceptor, DisposableBean {
 
-    private final transient ObjectMapper objectMapper;
+    private static final int DRAIN_SECONDS = 5;
 
-    public RestTemplateLoggingInterceptor(final ObjectMapper objectMapper) {
-        this.objectMapper = objectMapper;
+    private final transient int maxBodyBytes;
+    private final transient int samplePercent;
+    private final transient ThreadPoolTaskExecutor writer = new ThreadPoolTaskExecutor();
+    private final transient Counter dropped;
+
+    public RestTemplateLoggingInterceptor(final IntegrationClientProperties.Logging properties,
+        final MeterRegistry meterRegistry) {
+        this.maxBodyBytes = (int) Math.min(Integer.MAX_VALUE - 1, properties.getMaxBodySize().toBytes());
+        this.samplePercent = properties.getSamplePercent();
+        this.dropped = Counter.builder("audition.upstream.logging.dropped")
+            .description("Upstream exchange log entries dropped because the log writer fell behind")
+            .register(meterRegistry);
+        writer.setThreadNamePrefix("audition-upstream-log-");
+        writer.setCorePoolSize(1);
+        writer.setMaxPoolSize(1);
+        writer.setQueueCapacity(properties.getQueueCapacity());
+        writer.setDaemon(true);
+        writer.setRejectedExecutionHandler((entry, executor) -> dropped.increment());
+        writer.setWaitForTasksToCompleteOnShutdown(true);
+        writer.setAwaitTerminationSeconds(DRAIN_SECONDS);
+        writer.initialize();
+    }
+
+    //entries submitted from now on are counted as dropped
+    @Override
+    public void destroy() {
+        writer.shutdown();
     }
 
     @Override
@@ -24,33 +62,131 @@ public class RestTemplateLoggingInterceptor implements ClientHttpRequestIntercep
         final ClientHttpRequestExecution execution)
         throws IOException {
 
-        logRequest(request, body);
+        //only a sample is logged even in debug mode, each logged body costs a copy of its prefix
+        final boolean sampled = log.isDebugEnabled() && ThreadLocalRandom.current().nextInt(100) < samplePercent;
+        if (sampled) {
+            logRequest(request, body);
+        }
         final ClientHttpResponse response = execution.execute(request, body);
-        logResponse(response);
-
-        return response;
+        //the response body is not buffered, its prefix is captured as the message converters read it
+        return sampled ? new LoggedResponse(response) : response;
     }
 
     private void logRequest(final HttpRequest request, final byte[] body) {
-        //only log request in debug mode due to performance from loading the entire request body into memory
-        if (log.isDebugEnabled()) {
-            log.debug("Request URI: {}", request.getURI());
-            log.debug("Request Method: {}", request.getMethod());
-            log.debug("Request Headers: {}", request.getHeaders());
-            log.debug("Request Body: {}", new String(body, StandardCharsets.UTF_8));
+        //one byte past the limit tells whether the body was cut
+        final byte[] prefix = body.length > maxBodyBytes ? Arrays.copyOf(body, maxBodyBytes + 1) : body;
+        submit(() -> log.debug("Request: {} {} headers={} body={}", request.getMethod(), request.getURI(),
+            request.getHeaders(), describe(prefix)));
+    }
+
+    //the log entry carries the trace ids of the call it describes
+    private void submit(final Runnable entry) {
+        final Map<String, String> context = MDC.getCopyOfContextMap();
+        writer.execute(() -> {
+            if (context != null) {
+                MDC.setContextMap(context);
+            }
+            try {
+                entry.run();
+            } finally {
+                MDC.clear();
+            }
+        });
+    }
+
+    //decoded as is, bodies are not parsed again just to be logged
+    private String describe(final byte[] prefix) {
+        if (prefix.length <= maxBodyBytes) {
+            return new String(prefix, StandardCharsets.UTF_8);
         }
+        return new String(prefix, 0, maxBodyBytes, StandardCharsets.UTF_8) + "... (truncated to " + maxBodyBytes
+            + " bytes)";
     }
 
-    private void logResponse(final ClientHttpResponse response) throws IOException {
-        //only log response in debug mode due to performance from loading the entire response body into memory
-        if (log.isDebugEnabled()) {
+    //logged once closed, with whatever part of the body up to the limit was read by then
+    private final class LoggedResponse implements ClientHttpResponse {
+
+        private final transient ClientHttpResponse response;
+        //one byte past the limit tells whether the body was cut
+        private final transient byte[] prefix = new byte[maxBodyBytes + 1];
+        private transient int captured;
+        private transient InputStream body;
+        private transient boolean logged;
+
+        private LoggedResponse(final ClientHttpResponse response) {
+            this.response = response;
+        }
+
+        @Override
+        public HttpStatusCode getStatusCode() throws IOException {
+            return response.getStatusCode();
+        }
+
+        @Override
+        public String getStatusText() throws IOException {
+            return response.getStatusText();
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return response.getHeaders();
+        }
+
+        @Override
+        public InputStream getBody() throws IOException {
+            if (body == null) {
+                body = new CapturingInputStream(response.getBody());
+            }
+            return body;
+        }
+
+        @Override
+        public void close() {
+            if (!logged) {
+                logged = true;
+                try {
+                    final HttpStatusCode status = response.getStatusCode();
+                    final HttpHeaders headers = response.getHeaders();
+                    final byte[] read = Arrays.copyOf(prefix, captured);
+                    submit(() -> log.debug("Response: {} headers={} body={}", status, headers, describe(read)));
+                } catch (final IOException e) {
+                    log.debug("Response of an upstream call could not be logged", e);
+                }
+            }
+            response.close();
+        }
+
+        private final class CapturingInputStream extends FilterInputStream {
+
+            private CapturingInputStream(final InputStream body) {
+                super(body);
+            }
+
+            @Override
+            public int read() throws IOException {
+                final int read = super.read();
+                if (read >= 0 && captured < prefix.length) {
+                    prefix[captured++] = (byte) read;
+                }
+                return read;
+            }
 
-            log.debug("Response Status Code: {}", response.getStatusCode());
-            log.debug("Response Headers: {}", response.getHeaders());
+            @Override
+            public int read(final byte[] buffer, final int offset, final int length) throws IOException {
+                final int read = super.read(buffer, offset, length);
+                if (read > 0 && captured < prefix.length) {
+                    final int copied = Math.min(read, prefix.length - captured);
+                    System.arraycopy(buffer, offset, prefix, captured, copied);
+                    captured += copied;
+                }
+                return read;
+            }
 
-            final String responseBodyAsString = StreamUtils.copyToString(response.getBody(), StandardCharsets.UTF_8);
-            log.debug("Response body: {}", objectMapper.writerWithDefaultPrettyPrinter()
-                .writeValueAsString(objectMapper.readValue(responseBodyAsString, Object.class)));
+            //a reset would capture the same bytes twice, readers fall back to a pushback stream instead
+            @Override
+            public boolean markSupported() {
+                return false;
+            }
         }
     }
 }
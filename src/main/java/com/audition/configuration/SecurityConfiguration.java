@@ -1,26 +1,85 @@
 package com.audition.configuration;
 
+import com.audition.security.AuthenticationCache;
+import com.audition.security.AuthenticationProperties;
+import com.audition.security.AuthenticationTokenFilter;
+import com.audition.security.AuthenticationTokens;
+import com.audition.security.CacheInvalidatingUserDetailsManager;
+import com.audition.security.CachingAuthenticationProvider;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.regex.Pattern;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.boot.actuate.autoconfigure.security.servlet.EndpointRequest;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.config.Customizer;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.crypto.factory.PasswordEncoderFactories;
+import org.springframework.security.provisioning.InMemoryUserDetailsManager;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.www.BasicAuthenticationFilter;
 
 @Configuration
 @EnableWebSecurity
+@EnableConfigurationProperties(AuthenticationProperties.class)
 public class SecurityConfiguration {
 
+    private static final Pattern PASSWORD_ALGORITHM = Pattern.compile("^\\{.+}.*$");
+    private static final String NOOP_PASSWORD_PREFIX = "{noop}";
+
     @Bean
     @SuppressWarnings("PMD.SignatureDeclareThrowsException") //generic Exception thrown by external Spring method
-    public SecurityFilterChain securityFilterChain(final HttpSecurity http) throws Exception {
+    public SecurityFilterChain securityFilterChain(final HttpSecurity http,
+        final AuthenticationProperties properties, final CacheInvalidatingUserDetailsManager userDetailsManager)
+        throws Exception {
         http.authorizeHttpRequests(authorize -> authorize
             .requestMatchers(EndpointRequest.to("health", "info")).permitAll()
             .requestMatchers(EndpointRequest.toAnyEndpoint()).authenticated()
             .anyRequest().authenticated()
-        ).httpBasic();
+        ).httpBasic(Customizer.withDefaults());
 
+        if (properties.getToken().isEnabled()) {
+            http.addFilterAfter(new AuthenticationTokenFilter(
+                new AuthenticationTokens(properties.getToken(), userDetailsManager)), BasicAuthenticationFilter.class);
+        }
         return http.build();
     }
-}
 
+    @Bean
+    public AuthenticationCache authenticationCache(final AuthenticationProperties properties,
+        final ObjectProvider<MeterRegistry> meterRegistry) {
+        return new AuthenticationCache(properties.getCache(), meterRegistry.getIfAvailable(SimpleMeterRegistry::new));
+    }
+
+    //the spring.security.user as Spring Boot would set it up, wrapped so that user changes reach the cache
+    @Bean
+    public CacheInvalidatingUserDetailsManager userDetailsManager(final SecurityProperties securityProperties,
+        final AuthenticationCache authenticationCache) {
+        final SecurityProperties.User user = securityProperties.getUser();
+        final String password = PASSWORD_ALGORITHM.matcher(user.getPassword()).matches()
+            ? user.getPassword() : NOOP_PASSWORD_PREFIX + user.getPassword();
+        return new CacheInvalidatingUserDetailsManager(new InMemoryUserDetailsManager(User.withUsername(user.getName())
+            .password(password)
+            .roles(user.getRoles().toArray(String[]::new))
+            .build()), authenticationCache);
+    }
+
+    //stored passwords are upgraded to bcrypt on the first login, which is what makes every later check expensive
+    @Bean
+    public AuthenticationProvider authenticationProvider(final AuthenticationProperties properties,
+        final CacheInvalidatingUserDetailsManager userDetailsManager, final AuthenticationCache authenticationCache) {
+        final DaoAuthenticationProvider provider = new DaoAuthenticationProvider(
+            PasswordEncoderFactories.createDelegatingPasswordEncoder());
+        provider.setUserDetailsService(userDetailsManager);
+        provider.setUserDetailsPasswordService(userDetailsManager);
+        return properties.getCache().isEnabled()
+            ? new CachingAuthenticationProvider(provider, authenticationCache) : provider;
+    }
+}
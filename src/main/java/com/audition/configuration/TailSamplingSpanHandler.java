@@ -0,0 +1,62 @@
+package com.audition.configuration;
+
+import brave.handler.MutableSpan;
+import brave.handler.SpanHandler;
+import brave.propagation.TraceContext;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+import org.springframework.beans.factory.ObjectProvider;
+
+//registered ahead of the reporting span handlers, spans the head sampler left out only reach them when they were
+//slow or failed, reporters drop spans that are not sampled unless told to report every span, so a kept span is
+//handed to them as sampled rather than passed along the chain
+public class TailSamplingSpanHandler extends SpanHandler {
+
+    private static final String SERVER_ERROR_OUTCOME = "SERVER_ERROR";
+
+    private final transient long slowThresholdMicros;
+    private final transient ObjectProvider<SpanHandler> spanHandlers;
+    //resolved on the first kept span, the other handlers are still being created alongside this one
+    private final transient AtomicReference<List<SpanHandler>> reporters = new AtomicReference<>();
+
+    public TailSamplingSpanHandler(final TracingSamplingProperties.Tail properties,
+        final ObjectProvider<SpanHandler> spanHandlers) {
+        super();
+        this.slowThresholdMicros = properties.getSlowThreshold().toNanos() / 1000;
+        this.spanHandlers = spanHandlers;
+    }
+
+    @Override
+    public boolean end(final TraceContext context, final MutableSpan span, final Cause cause) {
+        if (Boolean.TRUE.equals(context.sampled()) || cause != Cause.FINISHED) {
+            return true;
+        }
+        if (isKept(span)) {
+            final TraceContext sampled = context.toBuilder().sampled(true).build();
+            for (final SpanHandler reporter : reporters()) {
+                if (!reporter.end(sampled, span, cause)) {
+                    break;
+                }
+            }
+        }
+        return false;
+    }
+
+    private boolean isKept(final MutableSpan span) {
+        return span.error() != null
+            || span.tag("error") != null
+            || SERVER_ERROR_OUTCOME.equals(span.tag("outcome"))
+            || span.finishTimestamp() - span.startTimestamp() >= slowThresholdMicros;
+    }
+
+    private List<SpanHandler> reporters() {
+        final List<SpanHandler> resolved = reporters.get();
+        if (resolved != null) {
+            return resolved;
+        }
+        reporters.compareAndSet(null, spanHandlers.orderedStream()
+            .filter(handler -> !(handler instanceof TailSamplingSpanHandler))
+            .toList());
+        return reporters.get();
+    }
+}
@@ -0,0 +1,46 @@
+package com.audition.configuration;
+
+import brave.TracingCustomizer;
+import brave.handler.SpanHandler;
+import brave.sampler.RateLimitingSampler;
+import brave.sampler.Sampler;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+
+//replaces the probability only sampler of Spring Boot, unsampled requests still get trace ids for their logs and
+//response headers but their spans are neither recorded nor reported
+@Configuration
+@EnableConfigurationProperties(TracingSamplingProperties.class)
+public class TracingConfiguration {
+
+    @Bean
+    public Sampler braveSampler(final TracingSamplingProperties properties) {
+        return headSampler(properties);
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "tracing.sampling.tail", name = "enabled", havingValue = "true")
+    public TracingCustomizer alwaysSampleLocal() {
+        return builder -> builder.alwaysSampleLocal();
+    }
+
+    @Bean
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @ConditionalOnProperty(prefix = "tracing.sampling.tail", name = "enabled", havingValue = "true")
+    public SpanHandler tailSamplingSpanHandler(final TracingSamplingProperties properties,
+        final ObjectProvider<SpanHandler> spanHandlers) {
+        return new TailSamplingSpanHandler(properties.getTail(), spanHandlers);
+    }
+
+    public static Sampler headSampler(final TracingSamplingProperties properties) {
+        return switch (properties.getHead()) {
+            case PROBABILITY -> Sampler.create(properties.getProbability());
+            case RATE_LIMITED -> RateLimitingSampler.create(properties.getTracesPerSecond());
+        };
+    }
+}
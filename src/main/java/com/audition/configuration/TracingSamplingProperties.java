@@ -0,0 +1,34 @@
+package com.audition.configuration;
+
+import java.time.Duration;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "tracing.sampling")
+public class TracingSamplingProperties {
+
+    //decided as a trace starts, either a share of the traces or at most a number of traces per second
+    private Head head = Head.PROBABILITY;
+    private float probability = 0.1f;
+    private int tracesPerSecond = 10;
+    private final Tail tail = new Tail();
+
+    public enum Head {
+        PROBABILITY,
+        RATE_LIMITED
+    }
+
+    @Getter
+    @Setter
+    public static class Tail {
+
+        //every span is recorded so that the ones the head sampler left out are still kept when slow or failed,
+        //recording costs allocation on every request, reporting stays limited to the kept spans, which reach every
+        //reporting span handler as sampled
+        private boolean enabled = false;
+        private Duration slowThreshold = Duration.ofSeconds(1);
+    }
+}
@@ -0,0 +1,61 @@
+package com.audition.configuration;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.BaseUnits;
+import io.micrometer.core.instrument.binder.http.Outcome;
+import java.util.concurrent.TimeUnit;
+
+//latency and response size of every request sent upstream per call type (posts, post, comments), each retry and
+//hedged attempt counts on its own, histogram buckets and SLOs come from management.metrics.distribution
+public class UpstreamMetrics {
+
+    private static final String REQUESTS = "audition.upstream.requests";
+    private static final String PAYLOAD_SIZE = "audition.upstream.payload.size";
+    private static final String ENDPOINT_TAG = "endpoint";
+    //status of a request that never got a response, as Spring's own client metrics tag it
+    private static final String IO_ERROR = "IO_ERROR";
+
+    private final transient MeterRegistry meterRegistry;
+
+    public UpstreamMetrics(final MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    //the upstream call type of a request path, as the integration clients name them
+    public static String endpoint(final String path) {
+        if (path.endsWith("/comments")) {
+            return "comments";
+        }
+        if (path.endsWith("/posts")) {
+            return "posts";
+        }
+        final int lastSegment = path.lastIndexOf('/');
+        return lastSegment > 0 && path.startsWith("/posts", lastSegment - "/posts".length()) ? "post" : "other";
+    }
+
+    public void record(final String endpoint, final long startNanos, final int status, final long payloadBytes) {
+        timer(endpoint, Outcome.forStatus(status).name(), String.valueOf(status))
+            .record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+        DistributionSummary.builder(PAYLOAD_SIZE)
+            .description("Size of the response bodies read from the upstream")
+            .baseUnit(BaseUnits.BYTES)
+            .tag(ENDPOINT_TAG, endpoint)
+            .register(meterRegistry)
+            .record(payloadBytes);
+    }
+
+    public void recordFailure(final String endpoint, final long startNanos) {
+        timer(endpoint, Outcome.UNKNOWN.name(), IO_ERROR).record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    private Timer timer(final String endpoint, final String outcome, final String status) {
+        return Timer.builder(REQUESTS)
+            .description("Requests sent upstream, from sending the request until its response body was read")
+            .tag(ENDPOINT_TAG, endpoint)
+            .tag("outcome", outcome)
+            .tag("status", status)
+            .register(meterRegistry);
+    }
+}
@@ -0,0 +1,139 @@
+package com.audition.configuration;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+
+//times each RestTemplate exchange with the upstream until its response is closed, so the body transfer is included,
+//registered last so that it sees what was actually exchanged rather than a revalidated or logged copy
+public class UpstreamMetricsInterceptor implements ClientHttpRequestInterceptor {
+
+    private final transient UpstreamMetrics metrics;
+
+    public UpstreamMetricsInterceptor(final UpstreamMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    @Override
+    public ClientHttpResponse intercept(final HttpRequest request, final byte[] body,
+        final ClientHttpRequestExecution execution) throws IOException {
+        final String endpoint = UpstreamMetrics.endpoint(request.getURI().getPath());
+        final long start = System.nanoTime();
+        final ClientHttpResponse response;
+        try {
+            response = execution.execute(request, body);
+        } catch (final IOException e) {
+            metrics.recordFailure(endpoint, start);
+            throw e;
+        }
+        return new MeasuredResponse(response, endpoint, start);
+    }
+
+    private final class MeasuredResponse implements ClientHttpResponse {
+
+        private final transient ClientHttpResponse response;
+        private final transient String endpoint;
+        private final transient long start;
+        //a buffered body hands out a new stream on every read, the largest read is the size of the body, an unbuffered
+        //one is a single stream however often it is asked for
+        private transient long payloadBytes;
+        private transient boolean recorded;
+
+        private MeasuredResponse(final ClientHttpResponse response, final String endpoint, final long start) {
+            this.response = response;
+            this.endpoint = endpoint;
+            this.start = start;
+        }
+
+        @Override
+        public HttpStatusCode getStatusCode() throws IOException {
+            return response.getStatusCode();
+        }
+
+        @Override
+        public String getStatusText() throws IOException {
+            return response.getStatusText();
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return response.getHeaders();
+        }
+
+        @Override
+        public InputStream getBody() throws IOException {
+            return new CountingInputStream(response.getBody());
+        }
+
+        @Override
+        public void close() {
+            if (!recorded) {
+                recorded = true;
+                try {
+                    metrics.record(endpoint, start, response.getStatusCode().value(), payloadBytes);
+                } catch (final IOException e) {
+                    metrics.recordFailure(endpoint, start);
+                }
+            }
+            response.close();
+        }
+
+        private final class CountingInputStream extends FilterInputStream {
+
+            private transient long count;
+            private transient long markedCount;
+
+            private CountingInputStream(final InputStream body) {
+                super(body);
+            }
+
+            @Override
+            public int read() throws IOException {
+                final int read = super.read();
+                if (read >= 0) {
+                    counted(1);
+                }
+                return read;
+            }
+
+            @Override
+            public int read(final byte[] buffer, final int offset, final int length) throws IOException {
+                final int read = super.read(buffer, offset, length);
+                if (read > 0) {
+                    counted(read);
+                }
+                return read;
+            }
+
+            @Override
+            public long skip(final long length) throws IOException {
+                final long skipped = super.skip(length);
+                counted(skipped);
+                return skipped;
+            }
+
+            @Override
+            public synchronized void mark(final int readLimit) {
+                super.mark(readLimit);
+                markedCount = count;
+            }
+
+            @Override
+            public synchronized void reset() throws IOException {
+                super.reset();
+                count = markedCount;
+            }
+
+            private void counted(final long bytes) {
+                count += bytes;
+                payloadBytes = Math.max(payloadBytes, count);
+            }
+        }
+    }
+}
@@ -5,24 +5,45 @@ import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.PropertyNamingStrategy;
 import com.fasterxml.jackson.databind.SerializationFeature;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.DispatcherType;
 import java.text.SimpleDateFormat;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.List;
 import java.util.Locale;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.context.annotation.Primary;
 import org.springframework.context.annotation.PropertySource;
-import org.springframework.http.client.BufferingClientHttpRequestFactory;
-import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.core.Ordered;
+import org.springframework.http.CacheControl;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
 import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
 import org.springframework.web.client.RestTemplate;
+import org.springframework.web.filter.ShallowEtagHeaderFilter;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import org.springframework.web.servlet.mvc.WebContentInterceptor;
 
 
 @Configuration
 @PropertySource("classpath:application.yml")
+@EnableConfigurationProperties({IntegrationClientProperties.class, IntegrationCacheProperties.class,
+    InboundLimiterProperties.class})
+@Import(HttpClientTransportConfiguration.class)
+@SuppressWarnings("PMD.ExcessiveImports") //central place for the web and rest client beans
 public class WebServiceConfiguration implements WebMvcConfigurer {
 
     private static final String YEAR_MONTH_DAY_PATTERN = "yyyy-MM-dd";
+    private static final String[] AUDITION_URL_PATTERNS = {"/posts", "/posts/*", "/comments"};
 
     @Bean
     public ObjectMapper objectMapper() {
@@ -36,18 +57,93 @@ public class WebServiceConfiguration implements WebMvcConfigurer {
     }
 
     @Bean
-    public RestTemplate restTemplate() {
-        final RestTemplate restTemplate = new RestTemplate(
-            new BufferingClientHttpRequestFactory(createClientFactory()));
+    @Primary
+    public RestTemplate restTemplate(final ClientHttpRequestFactory integrationClientHttpRequestFactory,
+        final IntegrationClientProperties properties, final ObjectProvider<MeterRegistry> meterRegistry,
+        final UpstreamMetrics upstreamMetrics, final RestTemplateLoggingInterceptor restTemplateLoggingInterceptor) {
+        //not buffered, responses are deserialized as they are read from the connection
+        final RestTemplate restTemplate = new RestTemplate(integrationClientHttpRequestFactory);
         restTemplate.setMessageConverters(
             Collections.singletonList(new MappingJackson2HttpMessageConverter(objectMapper())));
-        restTemplate.setInterceptors(Collections.singletonList(new RestTemplateLoggingInterceptor(objectMapper())));
+
+        final List<ClientHttpRequestInterceptor> interceptors = new ArrayList<>();
+        if (properties.getRevalidation().isEnabled()) {
+            //metrics are not auto-configured in every context (e.g. test slices)
+            interceptors.add(new ConditionalRequestInterceptor(properties.getRevalidation(),
+                meterRegistry.getIfAvailable(SimpleMeterRegistry::new)));
+        }
+        //logs what was actually exchanged with the upstream, including 304 responses
+        interceptors.add(restTemplateLoggingInterceptor);
+        interceptors.add(new UpstreamMetricsInterceptor(upstreamMetrics));
+        restTemplate.setInterceptors(interceptors);
         return restTemplate;
     }
 
-    private SimpleClientHttpRequestFactory createClientFactory() {
-        final SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
-        requestFactory.setOutputStreaming(false);
-        return requestFactory;
+    //a bean so that the entries its writer still has queued are written when the context closes
+    @Bean
+    public RestTemplateLoggingInterceptor restTemplateLoggingInterceptor(final IntegrationClientProperties properties,
+        final ObjectProvider<MeterRegistry> meterRegistry) {
+        return new RestTemplateLoggingInterceptor(properties.getLogging(),
+            meterRegistry.getIfAvailable(SimpleMeterRegistry::new));
+    }
+
+    @Bean
+    public UpstreamMetrics upstreamMetrics(final ObjectProvider<MeterRegistry> meterRegistry) {
+        return new UpstreamMetrics(meterRegistry.getIfAvailable(SimpleMeterRegistry::new));
+    }
+
+    //strong ETags from a hash of the serialized response, matching If-None-Match requests get a 304 without a body,
+    //the streamed GET /posts opts out as hashing it would buffer the whole response
+    @Bean
+    public FilterRegistrationBean<ShallowEtagHeaderFilter> etagFilter() {
+        final FilterRegistrationBean<ShallowEtagHeaderFilter> registration = new FilterRegistrationBean<>(
+            new ShallowEtagHeaderFilter());
+        registration.addUrlPatterns(AUDITION_URL_PATTERNS);
+        //non-blocking handlers write their response during the async dispatch
+        registration.setDispatcherTypes(DispatcherType.REQUEST, DispatcherType.ASYNC);
+        return registration;
+    }
+
+    //only the audition endpoints are limited, so that health checks still answer while the node sheds load
+    @Bean
+    @ConditionalOnProperty(prefix = "inbound.limiter", name = "enabled", havingValue = "true", matchIfMissing = true)
+    public FilterRegistrationBean<InboundConcurrencyLimiter> inboundConcurrencyLimiter(
+        final InboundLimiterProperties properties, final ObjectProvider<MeterRegistry> meterRegistry) {
+        final FilterRegistrationBean<InboundConcurrencyLimiter> registration = new FilterRegistrationBean<>(
+            new InboundConcurrencyLimiter(properties, objectMapper(), meterRegistry.getIfAvailable(
+                SimpleMeterRegistry::new)));
+        registration.addUrlPatterns(AUDITION_URL_PATTERNS);
+        //after the observation filter so that shed requests are still measured, before any security work is spent
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 3);
+        return registration;
+    }
+
+    //upstream retries made for a request must fit into its deadline, which starts as the request arrives
+    @Bean
+    public FilterRegistrationBean<RequestDeadlineFilter> requestDeadlineFilter(
+        final IntegrationClientProperties properties) {
+        final FilterRegistrationBean<RequestDeadlineFilter> registration = new FilterRegistrationBean<>(
+            new RequestDeadlineFilter(properties.getRetry().getDeadline()));
+        registration.addUrlPatterns(AUDITION_URL_PATTERNS);
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 2);
+        return registration;
+    }
+
+    //clients may keep responses but must revalidate them, instead of the no-store default of Spring Security
+    @Override
+    public void addInterceptors(final InterceptorRegistry registry) {
+        final WebContentInterceptor interceptor = new WebContentInterceptor();
+        interceptor.addCacheMapping(CacheControl.noCache().cachePrivate(), "/posts", "/posts/**", "/comments");
+        registry.addInterceptor(interceptor);
+    }
+
+    //reads the response body as it arrives, for responses that are parsed incrementally instead of materialized
+    @Bean
+    public RestTemplate streamingRestTemplate(final ClientHttpRequestFactory integrationClientHttpRequestFactory,
+        final UpstreamMetrics upstreamMetrics) {
+        final RestTemplate restTemplate = new RestTemplate(integrationClientHttpRequestFactory);
+        //request bodies are buffered by the interceptors, responses are still read as they arrive
+        restTemplate.setInterceptors(List.of(new UpstreamMetricsInterceptor(upstreamMetrics)));
+        return restTemplate;
     }
 }
@@ -0,0 +1,371 @@
+package com.audition.integration;
+
+import com.audition.common.exception.SystemException;
+import com.audition.common.logging.AuditionLogger;
+import com.audition.configuration.IntegrationClientProperties;
+import com.audition.configuration.UpstreamMetrics;
+import com.audition.integration.cache.AsyncCacheRegion;
+import com.audition.integration.cache.IntegrationCacheFactory;
+import com.audition.integration.resilience.RequestHedger;
+import com.audition.integration.resilience.UpstreamGuard;
+import com.audition.integration.resilience.UpstreamRetrier;
+import com.audition.integration.snapshot.SnapshotSource;
+import com.audition.integration.snapshot.UpstreamSnapshot;
+import com.audition.model.AuditionComment;
+import com.audition.model.AuditionPost;
+import com.audition.model.PostBatch;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestClientException;
+
+//non-blocking counterpart of AuditionIntegrationClient, upstream failures surface the same exceptions as RestTemplate
+@Component
+@ConditionalOnProperty(prefix = "integration.client", name = "execution", havingValue = "non-blocking")
+@Slf4j
+@SuppressWarnings({"PMD.TooManyMethods", "PMD.ExcessiveImports"}) //mirrors the blocking client on the JDK HttpClient
+public class AsyncAuditionIntegrationClient implements SnapshotSource {
+
+    private final transient HttpClient httpClient;
+    private final transient ObjectMapper objectMapper;
+    private final transient AuditionLogger logger;
+    private final transient IntegrationClientProperties properties;
+    private final transient RequestCoalescer coalescer;
+    private final transient UpstreamGuard guard;
+    private final transient RequestHedger hedger;
+    private final transient UpstreamRetrier retrier;
+    private final transient UpstreamMetrics metrics;
+
+    private final transient AsyncCacheRegion<String, List<AuditionPost>> postsCache;
+    private final transient AsyncCacheRegion<String, List<AuditionPost>> postPagesCache;
+    private final transient AsyncCacheRegion<String, AuditionPost> postCache;
+    private final transient AsyncCacheRegion<String, List<AuditionComment>> commentsCache;
+    private final transient boolean commentIndexEnabled;
+    private final transient AsyncCacheRegion<String, CommentIndex> commentIndexCache;
+    //see AuditionIntegrationClient.restoredPosts
+    private final transient AtomicReference<List<AuditionPost>> restoredPosts = new AtomicReference<>();
+
+    @Value("${integration.client.url}")
+    private transient String baseUrl;
+
+    private static final String POSTS_ENDPOINT = "/posts";
+    private static final String COMMENTS_ENDPOINT = "/comments";
+
+    private static final String POSTS_CACHE = "posts";
+    private static final String POST_PAGES_CACHE = "post-pages";
+    private static final String POST_CACHE = "post";
+    private static final String COMMENTS_CACHE = "comments";
+    private static final String COMMENT_INDEX_CACHE = "comment-index";
+    private static final String ALL_POSTS_KEY = "all";
+    private static final String ALL_COMMENTS_KEY = "all";
+
+    private static final String POSTS_CALL = "posts";
+    private static final String POST_CALL = "post";
+    private static final String COMMENTS_CALL = "comments";
+
+    private static final TypeReference<List<AuditionPost>> POST_LIST = new TypeReference<>() {
+    };
+    private static final TypeReference<List<AuditionComment>> COMMENT_LIST = new TypeReference<>() {
+    };
+    private static final TypeReference<AuditionPost> POST = new TypeReference<>() {
+    };
+
+    public AsyncAuditionIntegrationClient(final HttpClient integrationHttpClient, final ObjectMapper objectMapper,
+        final AuditionLogger logger, final IntegrationClientProperties properties,
+        final IntegrationCacheFactory cacheFactory, final RequestCoalescer coalescer, final UpstreamGuard guard,
+        final RequestHedger hedger, final UpstreamRetrier retrier, final UpstreamMetrics metrics) {
+        this.httpClient = integrationHttpClient;
+        this.objectMapper = objectMapper;
+        this.logger = logger;
+        this.properties = properties;
+        this.coalescer = coalescer;
+        this.guard = guard;
+        this.hedger = hedger;
+        this.retrier = retrier;
+        this.metrics = metrics;
+        this.postsCache = cacheFactory.createAsync(POSTS_CACHE, key -> fetchPosts(POSTS_ENDPOINT));
+        this.postPagesCache = cacheFactory.createAsync(POST_PAGES_CACHE, this::fetchPosts);
+        this.postCache = cacheFactory.createAsync(POST_CACHE, this::fetchPostById);
+        //shares the region name and keys with the blocking client so both are configured the same way
+        this.commentsCache = cacheFactory.createAsync(COMMENTS_CACHE, this::fetchComments);
+        this.commentIndexEnabled = properties.isCommentIndex() && cacheFactory.isEnabled();
+        this.commentIndexCache = cacheFactory.createAsync(COMMENT_INDEX_CACHE,
+            key -> getPosts().thenCombine(fetchAllComments(), CommentIndex::new));
+    }
+
+    public CompletableFuture<List<AuditionPost>> getPosts() {
+        return postsCache.get(ALL_POSTS_KEY);
+    }
+
+    //see AuditionIntegrationClient.snapshot
+    @Override
+    public Optional<UpstreamSnapshot> snapshot() {
+        final Optional<List<AuditionPost>> posts = postsCache.getIfPresent(ALL_POSTS_KEY).or(this::loadPosts);
+        final Optional<CommentIndex> comments = commentIndexCache.getIfPresent(ALL_COMMENTS_KEY);
+        if (posts.isEmpty() && comments.isEmpty()) {
+            return Optional.empty();
+        }
+        return Optional.of(new UpstreamSnapshot(Instant.now(), posts.orElse(null),
+            comments.map(CommentIndex::all).orElse(null)));
+    }
+
+    @Override
+    public void restore(final UpstreamSnapshot snapshot) {
+        if (snapshot.posts() != null) {
+            postsCache.put(ALL_POSTS_KEY, snapshot.posts());
+            snapshot.posts().forEach(post -> postCache.put(String.valueOf(post.getId()), post));
+            restoredPosts.set(snapshot.posts());
+            postsCache.refresh(ALL_POSTS_KEY);
+        }
+        if (snapshot.posts() != null && snapshot.comments() != null && commentIndexEnabled) {
+            commentIndexCache.put(ALL_COMMENTS_KEY, new CommentIndex(snapshot.posts(), snapshot.comments()));
+            commentIndexCache.refresh(ALL_COMMENTS_KEY);
+        }
+    }
+
+    //snapshots are taken on a thread of their own, waiting for the load holds up no request
+    private Optional<List<AuditionPost>> loadPosts() {
+        return getPosts().handle((posts, throwable) -> {
+            if (throwable != null) {
+                logger.warn(log, "Snapshot taken without posts: " + unwrap(throwable).getMessage());
+                return Optional.<List<AuditionPost>>empty();
+            }
+            return Optional.of(posts);
+        }).join();
+    }
+
+    public boolean isPaginationPushdown() {
+        return properties.getPagination().isPushdown();
+    }
+
+    //see AuditionIntegrationClient.getPostsPage
+    public CompletableFuture<List<AuditionPost>> getPostsPage(final int offset, final int limit) {
+        final Optional<List<AuditionPost>> restored = restoredPosts();
+        if (restored.isPresent()) {
+            return CompletableFuture.completedFuture(AuditionIntegrationClient.range(restored.get(), offset, limit));
+        }
+        final IntegrationClientProperties.Pagination pagination = properties.getPagination();
+        return postPagesCache.get(POSTS_ENDPOINT + "?" + pagination.getStartParameter() + "=" + offset + "&"
+            + pagination.getLimitParameter() + "=" + limit);
+    }
+
+    @SuppressWarnings("PMD.CompareObjectsWithEquals") //identity of the restored list, equals would compare every post
+    private Optional<List<AuditionPost>> restoredPosts() {
+        final List<AuditionPost> restored = restoredPosts.get();
+        if (restored == null) {
+            return Optional.empty();
+        }
+        final Optional<List<AuditionPost>> cached = postsCache.getIfPresent(ALL_POSTS_KEY);
+        if (cached.orElse(null) != restored) {
+            restoredPosts.compareAndSet(restored, null);
+            return Optional.empty();
+        }
+        return cached;
+    }
+
+    public CompletableFuture<AuditionPost> getPostById(final String id) {
+        return translateErrors(postCache.get(id), "Cannot find a Post with id " + id);
+    }
+
+    public CompletableFuture<AuditionPost> getPostWithCommentsById(final String id) {
+        if (commentIndexEnabled) {
+            return commentIndexCache.get(ALL_COMMENTS_KEY)
+                .thenApply(index -> AuditionIntegrationClient.indexedPost(index, id).withComments(index.get(id)));
+        }
+
+        final CompletableFuture<List<AuditionComment>> comments = translateErrors(
+            commentsCache.get(POSTS_ENDPOINT + "/" + id + COMMENTS_ENDPOINT),
+            "Cannot find a Post with Comments with id " + id);
+        //thenCombine reports the post failure first, so a missing post still takes precedence over a comments error
+        //the cached post is shared, so the comments are attached to a copy
+        return getPostById(id).thenCombine(comments, AuditionPost::withComments);
+    }
+
+    public CompletableFuture<List<AuditionComment>> getCommentsByPostId(final String id) {
+        if (commentIndexEnabled) {
+            return commentIndexCache.get(ALL_COMMENTS_KEY).thenApply(index -> {
+                //confirm post exists
+                AuditionIntegrationClient.indexedPost(index, id);
+                return index.get(id);
+            });
+        }
+
+        final CompletableFuture<List<AuditionComment>> comments = translateErrors(
+            commentsCache.get(COMMENTS_ENDPOINT + "?postId=" + id),
+            "Cannot find Comments for a Post with id " + id);
+        //confirm post exists
+        return getPostById(id).thenCombine(comments, (post, postComments) -> postComments);
+    }
+
+    //see AuditionIntegrationClient.getPostsByIds, each lane chains its next lookup onto the completion of the last
+    public CompletableFuture<PostBatch> getPostsByIds(final List<String> ids, final boolean withComments) {
+        final PostBatchCollector batch = new PostBatchCollector(ids);
+        final CompletableFuture<?>[] lanes = IntStream.range(0, batch.lanes(properties.getBatch().getParallelism()))
+            .mapToObj(lane -> drain(batch, withComments))
+            .toArray(CompletableFuture[]::new);
+        return CompletableFuture.allOf(lanes).thenApply(done -> batch.toBatch());
+    }
+
+    private CompletableFuture<Void> drain(final PostBatchCollector batch, final boolean withComments) {
+        final String id = batch.next();
+        if (id == null) {
+            return CompletableFuture.completedFuture(null);
+        }
+        final CompletableFuture<AuditionPost> lookup = withComments ? getPostWithCommentsById(id) : getPostById(id);
+        return lookup.<Void>handle((post, throwable) -> {
+            if (throwable == null) {
+                batch.found(id, post);
+            } else {
+                batch.failed(id, throwable);
+            }
+            return null;
+        }).thenCompose(done -> drain(batch, withComments));
+    }
+
+    private <T> CompletableFuture<T> translateErrors(final CompletableFuture<T> future, final String notFoundMessage) {
+        return future.exceptionallyCompose(throwable -> {
+            final Throwable cause = unwrap(throwable);
+            if (cause instanceof HttpClientErrorException e) {
+                logger.logErrorWithException(log, e.getMessage(), e);
+                if (e.getStatusCode() == HttpStatus.NOT_FOUND) {
+                    return CompletableFuture.failedFuture(new SystemException(notFoundMessage,
+                        SystemException.RESOURCE_NOT_FOUND_STR, HttpStatus.NOT_FOUND.value(), e));
+                }
+                return CompletableFuture.failedFuture(
+                    new SystemException(e.getMessage(), e.getStatusCode().value(), e));
+            }
+            return CompletableFuture.failedFuture(cause);
+        });
+    }
+
+    private CompletableFuture<List<AuditionPost>> fetchPosts(final String path) {
+        return fetch(POSTS_CALL, path, false, body -> Optional.ofNullable(readValue(body, POST_LIST))
+            .map(Collections::unmodifiableList)
+            .orElse(Collections.emptyList()));
+    }
+
+    private CompletableFuture<AuditionPost> fetchPostById(final String id) {
+        return fetch(POST_CALL, POSTS_ENDPOINT + "/" + id, true, body -> readValue(body, POST));
+    }
+
+    private CompletableFuture<List<AuditionComment>> fetchComments(final String path) {
+        return fetch(COMMENTS_CALL, path, true, this::readComments);
+    }
+
+    //see AuditionIntegrationClient.fetchAllComments
+    private CompletableFuture<List<AuditionComment>> fetchAllComments() {
+        return fetch(COMMENTS_CALL, COMMENTS_ENDPOINT, false, this::readComments);
+    }
+
+    private List<AuditionComment> readComments(final byte[] body) throws IOException {
+        return Optional.ofNullable(readValue(body, COMMENT_LIST))
+            .map(Collections::unmodifiableList)
+            .orElse(Collections.emptyList());
+    }
+
+    private <T> CompletableFuture<T> fetch(final String call, final String path, final boolean hedged,
+        final BodyReader<T> reader) {
+        final URI uri = URI.create(baseUrl + path);
+        final HttpRequest request = HttpRequest.newBuilder(uri)
+            .header(HttpHeaders.ACCEPT, MediaType.APPLICATION_JSON_VALUE)
+            .timeout(properties.getReadTimeout())
+            .GET()
+            .build();
+
+        final Supplier<CompletableFuture<T>> send = () -> {
+            final long start = System.nanoTime();
+            final CompletableFuture<HttpResponse<byte[]>> exchange = httpClient.sendAsync(request,
+                HttpResponse.BodyHandlers.ofByteArray());
+            //an attempt cancelled because another one won is not an upstream outcome
+            exchange.whenComplete((response, throwable) -> {
+                if (response != null) {
+                    metrics.record(call, start, response.statusCode(), response.body().length);
+                } else if (!exchange.isCancelled()) {
+                    metrics.recordFailure(call, start);
+                }
+            });
+            final CompletableFuture<T> result = exchange
+                .exceptionallyCompose(throwable -> CompletableFuture.failedFuture(
+                    unwrap(throwable) instanceof IOException e
+                        ? new ResourceAccessException("I/O error on GET request for \"" + uri + "\": "
+                        + e.getMessage(), e)
+                        : unwrap(throwable)))
+                .thenApply(response -> read(response, reader));
+            //a hedged attempt that lost is cancelled, which aborts its exchange
+            result.whenComplete((value, throwable) -> {
+                if (result.isCancelled()) {
+                    exchange.cancel(true);
+                }
+            });
+            return result;
+        };
+        //the breaker sees a hedged call as one call, however many attempts it took
+        final Supplier<CompletableFuture<T>> attempts = hedged ? () -> hedger.executeAsync(call, send) : send;
+        return coalescer.executeAsync(uri.toString(), () -> retrier.callAsync(call,
+            () -> guard.callAsync(call, attempts)));
+    }
+
+    private static <T> T read(final HttpResponse<byte[]> response, final BodyReader<T> reader) {
+        final HttpStatusCode status = HttpStatusCode.valueOf(response.statusCode());
+        if (status.is4xxClientError()) {
+            throw HttpClientErrorException.create(status, "", toHeaders(response), response.body(),
+                StandardCharsets.UTF_8);
+        }
+        if (status.isError()) {
+            throw HttpServerErrorException.create(status, "", toHeaders(response), response.body(),
+                StandardCharsets.UTF_8);
+        }
+        try {
+            return reader.read(response.body());
+        } catch (final IOException e) {
+            throw new RestClientException("Error while extracting response from " + response.uri(), e);
+        }
+    }
+
+    private <T> T readValue(final byte[] body, final TypeReference<T> type) throws IOException {
+        //an empty body maps to null, as it does through the RestTemplate message converters
+        return body.length == 0 ? null : objectMapper.readValue(body, type);
+    }
+
+    private static HttpHeaders toHeaders(final HttpResponse<?> response) {
+        final HttpHeaders headers = new HttpHeaders();
+        response.headers().map().forEach(headers::addAll);
+        return headers;
+    }
+
+    private static Throwable unwrap(final Throwable throwable) {
+        return throwable instanceof CompletionException && throwable.getCause() != null
+            ? throwable.getCause() : throwable;
+    }
+
+    @FunctionalInterface
+    private interface BodyReader<T> {
+
+        T read(byte[] body) throws IOException;
+    }
+}
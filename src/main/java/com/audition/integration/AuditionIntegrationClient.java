@@ -2,26 +2,75 @@ package com.audition.integration;
 
 import com.audition.common.exception.SystemException;
 import com.audition.common.logging.AuditionLogger;
+import com.audition.configuration.IntegrationClientProperties;
+import com.audition.integration.cache.CacheRegion;
+import com.audition.integration.cache.IntegrationCacheFactory;
+import com.audition.integration.resilience.RequestHedger;
+import com.audition.integration.resilience.UpstreamGuard;
+import com.audition.integration.resilience.UpstreamRetrier;
+import com.audition.integration.snapshot.SnapshotSource;
+import com.audition.integration.snapshot.UpstreamSnapshot;
 import com.audition.model.AuditionComment;
 import com.audition.model.AuditionPost;
+import com.audition.model.PostBatch;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Instant;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.stereotype.Component;
 import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestClientException;
 import org.springframework.web.client.RestTemplate;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
 
 @Component
+@ConditionalOnProperty(prefix = "integration.client", name = "execution", havingValue = "blocking", matchIfMissing = true)
 @Slf4j
-public class AuditionIntegrationClient {
+@SuppressWarnings({"PMD.TooManyMethods", "PMD.ExcessiveImports", "PMD.GodClass"}) //cached, coalesced and streamed upstream access
+public class AuditionIntegrationClient implements SnapshotSource {
 
     private final transient RestTemplate restTemplate;
+    private final transient RestTemplate streamingRestTemplate;
+    private final transient ObjectMapper objectMapper;
     private final transient AuditionLogger logger;
+    private final transient Executor executor;
+    private final transient RequestCoalescer coalescer;
+    private final transient UpstreamGuard guard;
+    private final transient RequestHedger hedger;
+    private final transient UpstreamRetrier retrier;
+    private final transient IntegrationClientProperties properties;
+
+    private final transient boolean cachingEnabled;
+    private final transient CacheRegion<String, List<AuditionPost>> postsCache;
+    private final transient CacheRegion<String, List<AuditionPost>> postPagesCache;
+    private final transient CacheRegion<String, AuditionPost> postCache;
+    private final transient CacheRegion<String, List<AuditionComment>> commentsCache;
+    private final transient boolean commentIndexEnabled;
+    private final transient CacheRegion<String, CommentIndex> commentIndexCache;
+    //the posts of a restored snapshot, pushed down pages are cut from them until the background refresh replaces them
+    private final transient AtomicReference<List<AuditionPost>> restoredPosts = new AtomicReference<>();
 
     @Value("${integration.client.url}")
     private transient String baseUrl;
@@ -29,73 +78,347 @@ public class AuditionIntegrationClient {
     private static final String POSTS_ENDPOINT = "/posts";
     private static final String COMMENTS_ENDPOINT = "/comments";
 
-    public AuditionIntegrationClient(final RestTemplate restTemplate, final AuditionLogger logger) {
+    private static final String POSTS_CACHE = "posts";
+    private static final String POST_PAGES_CACHE = "post-pages";
+    private static final String POST_CACHE = "post";
+    private static final String COMMENTS_CACHE = "comments";
+    private static final String COMMENT_INDEX_CACHE = "comment-index";
+    private static final String ALL_POSTS_KEY = "all";
+    private static final String ALL_COMMENTS_KEY = "all";
+    //circuit breakers are kept per upstream call type
+    private static final String POSTS_CALL = "posts";
+    private static final String POST_CALL = "post";
+    private static final String COMMENTS_CALL = "comments";
+    private static final String POST_NOT_FOUND = "Cannot find a Post with id ";
+    private static final String POST_COMMENTS_NOT_FOUND = "Cannot find a Post with Comments with id ";
+
+    public AuditionIntegrationClient(final RestTemplate restTemplate,
+        @Qualifier("streamingRestTemplate") final RestTemplate streamingRestTemplate, final ObjectMapper objectMapper,
+        final AuditionLogger logger, final IntegrationCacheFactory cacheFactory,
+        @Qualifier("applicationTaskExecutor") final Executor executor, final RequestCoalescer coalescer,
+        final UpstreamGuard guard, final RequestHedger hedger, final UpstreamRetrier retrier,
+        final IntegrationClientProperties properties) {
         this.restTemplate = restTemplate;
+        this.streamingRestTemplate = streamingRestTemplate;
+        this.objectMapper = objectMapper;
         this.logger = logger;
+        this.executor = executor;
+        this.coalescer = coalescer;
+        this.guard = guard;
+        this.hedger = hedger;
+        this.retrier = retrier;
+        this.properties = properties;
+        this.cachingEnabled = cacheFactory.isEnabled();
+        this.postsCache = cacheFactory.create(POSTS_CACHE, key -> fetchPosts(POSTS_ENDPOINT));
+        //pages are keyed by the upstream path and query
+        this.postPagesCache = cacheFactory.create(POST_PAGES_CACHE, this::fetchPosts);
+        this.postCache = cacheFactory.create(POST_CACHE, this::fetchPostById);
+        //comments are keyed by the upstream path as both comment endpoints resolve comments for a single post
+        this.commentsCache = cacheFactory.create(COMMENTS_CACHE, this::fetchComments);
+        //without caching the index would be rebuilt from every comment on each lookup
+        this.commentIndexEnabled = properties.isCommentIndex() && cachingEnabled;
+        this.commentIndexCache = cacheFactory.create(COMMENT_INDEX_CACHE,
+            key -> new CommentIndex(getPosts(), fetchAllComments()));
     }
 
     public List<AuditionPost> getPosts() {
-        return Optional.ofNullable(restTemplate.exchange(
-                baseUrl + POSTS_ENDPOINT,
-                HttpMethod.GET, null, new ParameterizedTypeReference<List<AuditionPost>>() {
-                }).getBody())
-            .orElse(Collections.emptyList());
+        return postsCache.get(ALL_POSTS_KEY);
+    }
+
+    //the whole collection is captured even when only pages and single posts were requested, it is what restores them
+    @Override
+    public Optional<UpstreamSnapshot> snapshot() {
+        final Optional<List<AuditionPost>> posts = postsCache.getIfPresent(ALL_POSTS_KEY).or(this::loadPosts);
+        final Optional<CommentIndex> comments = commentIndexCache.getIfPresent(ALL_COMMENTS_KEY);
+        if (posts.isEmpty() && comments.isEmpty()) {
+            return Optional.empty();
+        }
+        return Optional.of(new UpstreamSnapshot(Instant.now(), posts.orElse(null),
+            comments.map(CommentIndex::all).orElse(null)));
+    }
+
+    @Override
+    public void restore(final UpstreamSnapshot snapshot) {
+        if (snapshot.posts() != null) {
+            postsCache.put(ALL_POSTS_KEY, snapshot.posts());
+            //single posts are not refreshed, each one expires and is loaded again on its own
+            snapshot.posts().forEach(post -> postCache.put(String.valueOf(post.getId()), post));
+            restoredPosts.set(snapshot.posts());
+            postsCache.refresh(ALL_POSTS_KEY);
+        }
+        //the index answers for existing posts only together with the collection
+        if (snapshot.posts() != null && snapshot.comments() != null && commentIndexEnabled) {
+            commentIndexCache.put(ALL_COMMENTS_KEY, new CommentIndex(snapshot.posts(), snapshot.comments()));
+            commentIndexCache.refresh(ALL_COMMENTS_KEY);
+        }
+    }
+
+    private Optional<List<AuditionPost>> loadPosts() {
+        try {
+            return Optional.of(getPosts());
+        } catch (final SystemException | RestClientException e) {
+            logger.warn(log, "Snapshot taken without posts: " + e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    public boolean isPaginationPushdown() {
+        return properties.getPagination().isPushdown();
+    }
+
+    //posts offset to offset + limit as returned by the upstream range query, an upstream that does not support
+    //the range parameters returns the whole collection instead
+    public List<AuditionPost> getPostsPage(final int offset, final int limit) {
+        final Optional<List<AuditionPost>> restored = restoredPosts();
+        if (restored.isPresent()) {
+            return range(restored.get(), offset, limit);
+        }
+        final IntegrationClientProperties.Pagination pagination = properties.getPagination();
+        return postPagesCache.get(POSTS_ENDPOINT + "?" + pagination.getStartParameter() + "=" + offset + "&"
+            + pagination.getLimitParameter() + "=" + limit);
+    }
+
+    //the restored posts while they are still the cached collection, a refresh or an eviction ends cutting pages
+    //from them
+    @SuppressWarnings("PMD.CompareObjectsWithEquals") //identity of the restored list, equals would compare every post
+    private Optional<List<AuditionPost>> restoredPosts() {
+        final List<AuditionPost> restored = restoredPosts.get();
+        if (restored == null) {
+            return Optional.empty();
+        }
+        final Optional<List<AuditionPost>> cached = postsCache.getIfPresent(ALL_POSTS_KEY);
+        if (cached.orElse(null) != restored) {
+            restoredPosts.compareAndSet(restored, null);
+            return Optional.empty();
+        }
+        return cached;
+    }
+
+    //the page a range query answers with, empty past the last post
+    static List<AuditionPost> range(final List<AuditionPost> posts, final int offset, final int limit) {
+        final int end = (int) Math.min((long) offset + limit, posts.size());
+        return posts.subList(Math.min(offset, end), end);
+    }
+
+    //emits posts offset to offset + limit and returns how many upstream posts were read to get there
+    public int streamPosts(final int offset, final int limit, final Consumer<AuditionPost> sink) {
+        if (cachingEnabled) {
+            //the cached list is shared across requests, so paging over it costs no memory per request
+            final List<AuditionPost> posts = getPosts();
+            final int end = (int) Math.min((long) offset + limit, posts.size());
+            for (int i = offset; i < end; i++) {
+                sink.accept(posts.get(i));
+            }
+            return offset < posts.size() ? end : posts.size();
+        }
+
+        //not retried, posts may already have been emitted when the upstream fails
+        final Integer read = guard.call(POSTS_CALL, () -> streamingRestTemplate.execute(baseUrl + POSTS_ENDPOINT,
+            HttpMethod.GET, request -> request.getHeaders().setAccept(List.of(MediaType.APPLICATION_JSON)),
+            response -> readPosts(response.getBody(), offset, limit, sink)));
+        return read == null ? 0 : read;
     }
 
     public AuditionPost getPostById(final String id) {
         try {
-            return restTemplate.getForObject(baseUrl + POSTS_ENDPOINT + "/" + id, AuditionPost.class);
+            return postCache.get(id);
         } catch (final HttpClientErrorException e) {
-            logger.logErrorWithException(log, e.getMessage(), e);
-            if (e.getStatusCode() == HttpStatus.NOT_FOUND) {
-                throw new SystemException("Cannot find a Post with id " + id, SystemException.RESOURCE_NOT_FOUND_STR,
-                    HttpStatus.NOT_FOUND.value(), e);
-            }
-            throw new SystemException(e.getMessage(), e.getStatusCode().value(), e);
+            throw translate(e, POST_NOT_FOUND + id);
         }
     }
 
     public AuditionPost getPostWithCommentsById(final String id) {
-        try {
-            final AuditionPost auditionPost = getPostById(id);
-            final List<AuditionComment> comments = Optional.ofNullable(restTemplate.exchange(
-                    baseUrl + POSTS_ENDPOINT + "/" + id + COMMENTS_ENDPOINT,
-                    HttpMethod.GET, null, new ParameterizedTypeReference<List<AuditionComment>>() {
-                    }).getBody())
-                .orElse(Collections.emptyList());
+        if (commentIndexEnabled) {
+            return getIndexedPostWithComments(id);
+        }
 
-            auditionPost.setComments(comments);
-            return auditionPost;
+        //fetch the comments alongside the post, a missing post still takes precedence over a comments error
+        final CompletableFuture<List<AuditionComment>> comments = fanOut(
+            () -> commentsCache.get(POSTS_ENDPOINT + "/" + id + COMMENTS_ENDPOINT));
+        final AuditionPost auditionPost = getPostById(id);
+        try {
+            //the cached post is shared, so the comments are attached to a copy
+            return auditionPost.withComments(await(comments));
         } catch (final HttpClientErrorException e) {
-            logger.logErrorWithException(log, e.getMessage(), e);
-            if (e.getStatusCode() == HttpStatus.NOT_FOUND) {
-                throw new SystemException("Cannot find a Post with Comments with id " + id,
-                    SystemException.RESOURCE_NOT_FOUND_STR,
-                    HttpStatus.NOT_FOUND.value(), e);
-            }
-            throw new SystemException(e.getMessage(), e.getStatusCode().value(), e);
+            throw translate(e, POST_COMMENTS_NOT_FOUND + id);
         }
     }
 
     public List<AuditionComment> getCommentsByPostId(final String id) {
-        try {
+        if (commentIndexEnabled) {
+            final CommentIndex index = commentIndexCache.get(ALL_COMMENTS_KEY);
             //confirm post exists
-            getPostById(id);
+            indexedPost(index, id);
+            return index.get(id);
+        }
 
-            return Optional.ofNullable(restTemplate.exchange(
-                    baseUrl + COMMENTS_ENDPOINT + "?postId=" + id,
-                    HttpMethod.GET, null, new ParameterizedTypeReference<List<AuditionComment>>() {
-                    }).getBody())
-                .orElse(Collections.emptyList());
+        final CompletableFuture<List<AuditionComment>> comments = fanOut(
+            () -> commentsCache.get(COMMENTS_ENDPOINT + "?postId=" + id));
+        //confirm post exists
+        getPostById(id);
+        try {
+            return await(comments);
+        } catch (final HttpClientErrorException e) {
+            throw translate(e, "Cannot find Comments for a Post with id " + id);
+        }
+    }
+
+    //each distinct id is resolved once by at most batch.parallelism lanes, the request thread being one of them
+    public PostBatch getPostsByIds(final List<String> ids, final boolean withComments) {
+        final PostBatchCollector batch = new PostBatchCollector(ids);
+        final int parallelism = properties.getBatch().getParallelism();
+        final List<CompletableFuture<Integer>> lanes = IntStream.range(1, batch.lanes(parallelism))
+            .mapToObj(lane -> fanOut(() -> drain(batch, withComments)))
+            .toList();
+        drain(batch, withComments);
+        lanes.forEach(AuditionIntegrationClient::await);
+        return batch.toBatch();
+    }
+
+    //post and comments are looked up one after the other, a lane never waits on work queued behind it on the executor
+    private int drain(final PostBatchCollector batch, final boolean withComments) {
+        int resolved = 0;
+        for (String id = batch.next(); id != null; id = batch.next()) {
+            try {
+                batch.found(id, withComments ? getPostWithComments(id) : getPostById(id));
+            } catch (final SystemException | RestClientException e) {
+                batch.failed(id, e);
+            }
+            resolved++;
+        }
+        return resolved;
+    }
+
+    private AuditionPost getPostWithComments(final String id) {
+        if (commentIndexEnabled) {
+            return getIndexedPostWithComments(id);
+        }
+        return getPostById(id).withComments(getPostComments(id));
+    }
+
+    private AuditionPost getIndexedPostWithComments(final String id) {
+        final CommentIndex index = commentIndexCache.get(ALL_COMMENTS_KEY);
+        return indexedPost(index, id).withComments(index.get(id));
+    }
+
+    //the index holds every upstream post, one it does not know is missing upstream
+    static AuditionPost indexedPost(final CommentIndex index, final String id) {
+        return index.post(id).orElseThrow(() -> new SystemException(POST_NOT_FOUND + id,
+            SystemException.RESOURCE_NOT_FOUND_STR, HttpStatus.NOT_FOUND.value()));
+    }
 
+    private List<AuditionComment> getPostComments(final String id) {
+        try {
+            return commentsCache.get(POSTS_ENDPOINT + "/" + id + COMMENTS_ENDPOINT);
         } catch (final HttpClientErrorException e) {
-            logger.logErrorWithException(log, e.getMessage(), e);
-            if (e.getStatusCode() == HttpStatus.NOT_FOUND) {
-                throw new SystemException("Cannot find Comments for a Post with id " + id,
-                    SystemException.RESOURCE_NOT_FOUND_STR,
-                    HttpStatus.NOT_FOUND.value(), e);
+            throw translate(e, POST_COMMENTS_NOT_FOUND + id);
+        }
+    }
+
+    private SystemException translate(final HttpClientErrorException e, final String notFoundMessage) {
+        logger.logErrorWithException(log, e.getMessage(), e);
+        if (e.getStatusCode() == HttpStatus.NOT_FOUND) {
+            return new SystemException(notFoundMessage, SystemException.RESOURCE_NOT_FOUND_STR,
+                HttpStatus.NOT_FOUND.value(), e);
+        }
+        return new SystemException(e.getMessage(), e.getStatusCode().value(), e);
+    }
+
+    private <T> CompletableFuture<T> fanOut(final Supplier<T> supplier) {
+        final Supplier<T> task = withRequestAttributes(supplier);
+        try {
+            return CompletableFuture.supplyAsync(task, executor);
+        } catch (final RejectedExecutionException e) {
+            //executor is saturated, fall back to a sequential call on the request thread
+            return CompletableFuture.supplyAsync(task, Runnable::run);
+        }
+    }
+
+    //lookups on other threads still belong to the request, e.g. a stale value served for them marks its response
+    private static <T> Supplier<T> withRequestAttributes(final Supplier<T> supplier) {
+        final RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        return () -> {
+            final RequestAttributes previous = RequestContextHolder.getRequestAttributes();
+            RequestContextHolder.setRequestAttributes(attributes);
+            try {
+                return supplier.get();
+            } finally {
+                RequestContextHolder.setRequestAttributes(previous);
             }
-            throw new SystemException(e.getMessage(), e.getStatusCode().value(), e);
+        };
+    }
+
+    private static <T> T await(final CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (final CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
         }
     }
+
+    private int readPosts(final InputStream body, final int offset, final int limit,
+        final Consumer<AuditionPost> sink) throws IOException {
+        //only one post is held at a time, elements before the offset are skipped without being bound
+        try (JsonParser parser = objectMapper.createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                return 0;
+            }
+            int read = 0;
+            int emitted = 0;
+            while (emitted < limit && parser.nextToken() == JsonToken.START_OBJECT) {
+                if (read < offset) {
+                    parser.skipChildren();
+                } else {
+                    sink.accept(objectMapper.readValue(parser, AuditionPost.class));
+                    emitted++;
+                }
+                read++;
+            }
+            return read;
+        }
+    }
+
+    private List<AuditionPost> fetchPosts(final String path) {
+        final String url = baseUrl + path;
+        //coalesced callers share the permits and retries of the one call that is sent, every retry passes the
+        //circuit breaker again
+        return coalescer.execute(url, () -> retrier.call(POSTS_CALL, () -> guard.call(POSTS_CALL,
+            () -> Optional.ofNullable(restTemplate.exchange(url, HttpMethod.GET, null,
+                    new ParameterizedTypeReference<List<AuditionPost>>() {
+                    }).getBody())
+                .map(Collections::unmodifiableList)
+                .orElse(Collections.emptyList()))));
+    }
+
+    private AuditionPost fetchPostById(final String id) {
+        final String url = baseUrl + POSTS_ENDPOINT + "/" + id;
+        //the breaker sees a hedged call as one call, however many attempts it took
+        return coalescer.execute(url, () -> retrier.call(POST_CALL, () -> guard.call(POST_CALL,
+            () -> hedger.execute(POST_CALL, () -> restTemplate.getForObject(url, AuditionPost.class)))));
+    }
+
+    private List<AuditionComment> fetchComments(final String path) {
+        final String url = baseUrl + path;
+        return coalescer.execute(url, () -> retrier.call(COMMENTS_CALL, () -> guard.call(COMMENTS_CALL,
+            () -> hedger.execute(COMMENTS_CALL, () -> exchangeComments(url)))));
+    }
+
+    //the bulk fetch behind the comment index is not hedged, a second transfer of every comment costs more than the
+    //latency it could save
+    private List<AuditionComment> fetchAllComments() {
+        final String url = baseUrl + COMMENTS_ENDPOINT;
+        return coalescer.execute(url, () -> retrier.call(COMMENTS_CALL, () -> guard.call(COMMENTS_CALL,
+            () -> exchangeComments(url))));
+    }
+
+    private List<AuditionComment> exchangeComments(final String url) {
+        return Optional.ofNullable(restTemplate.exchange(url, HttpMethod.GET, null,
+                new ParameterizedTypeReference<List<AuditionComment>>() {
+                }).getBody())
+            .map(Collections::unmodifiableList)
+            .orElse(Collections.emptyList());
+    }
 }
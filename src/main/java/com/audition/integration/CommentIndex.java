@@ -0,0 +1,71 @@
+package com.audition.integration;
+
+import com.audition.model.AuditionComment;
+import com.audition.model.AuditionPost;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+
+//every upstream comment grouped by post id, a lookup is a binary search over the distinct post ids and the comments
+//of a post are a contiguous range of the sorted list
+//the upstream posts are kept next to the comments, so a lookup confirms its post exists without asking the upstream
+final class CommentIndex {
+
+    private final transient List<AuditionPost> posts;
+    private final transient int[] ids;
+    private final transient List<AuditionComment> comments;
+    private final transient int[] postIds;
+    private final transient int[] starts;
+
+    CommentIndex(final List<AuditionPost> allPosts, final List<AuditionComment> all) {
+        this.posts = allPosts.stream()
+            .sorted(Comparator.comparingInt(AuditionPost::getId))
+            .toList();
+        this.ids = posts.stream().mapToInt(AuditionPost::getId).toArray();
+        this.comments = all.stream()
+            .sorted(Comparator.comparingInt(AuditionComment::getPostId))
+            .toList();
+
+        final int[] distinctPostIds = new int[comments.size()];
+        final int[] rangeStarts = new int[comments.size() + 1];
+        int distinct = 0;
+        for (int i = 0; i < comments.size(); i++) {
+            final int postId = comments.get(i).getPostId();
+            if (distinct == 0 || distinctPostIds[distinct - 1] != postId) {
+                distinctPostIds[distinct] = postId;
+                rangeStarts[distinct] = i;
+                distinct++;
+            }
+        }
+        rangeStarts[distinct] = comments.size();
+        this.postIds = Arrays.copyOf(distinctPostIds, distinct);
+        this.starts = Arrays.copyOf(rangeStarts, distinct + 1);
+    }
+
+    //every comment, ordered by post id
+    List<AuditionComment> all() {
+        return comments;
+    }
+
+    //empty when the upstream has no such post
+    Optional<AuditionPost> post(final String id) {
+        final int position = search(ids, id);
+        return position < 0 ? Optional.empty() : Optional.of(posts.get(position));
+    }
+
+    //a post without comments maps to an empty list, as the upstream answers for it
+    List<AuditionComment> get(final String postId) {
+        final int position = search(postIds, postId);
+        return position < 0 ? Collections.emptyList() : comments.subList(starts[position], starts[position + 1]);
+    }
+
+    private static int search(final int[] sorted, final String id) {
+        try {
+            return Arrays.binarySearch(sorted, Integer.parseInt(id));
+        } catch (final NumberFormatException e) {
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.audition.integration;
+
+import com.audition.common.exception.SystemException;
+import com.audition.model.AuditionPost;
+import com.audition.model.PostBatch;
+import com.audition.model.PostLookupError;
+import java.net.SocketTimeoutException;
+import java.net.http.HttpTimeoutException;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestClientResponseException;
+
+//state of one batch lookup, lanes take ids until none are left and results are reported in request order
+final class PostBatchCollector {
+
+    private final transient List<String> ids;
+    private final transient Queue<String> pending;
+    private final transient Map<String, AuditionPost> posts = new ConcurrentHashMap<>();
+    private final transient Map<String, PostLookupError> errors = new ConcurrentHashMap<>();
+
+    PostBatchCollector(final Collection<String> ids) {
+        this.ids = ids.stream().distinct().toList();
+        this.pending = new ConcurrentLinkedQueue<>(this.ids);
+    }
+
+    int lanes(final int parallelism) {
+        return Math.min(parallelism, ids.size());
+    }
+
+    //null once every id has been taken
+    String next() {
+        return pending.poll();
+    }
+
+    void found(final String id, final AuditionPost post) {
+        posts.put(id, post);
+    }
+
+    //an upstream failure, whether answered, timed out or rejected before it was sent, only fails its own id, anything
+    //else is a programming error and fails the whole batch
+    void failed(final String id, final Throwable throwable) {
+        final Throwable cause = throwable instanceof CompletionException && throwable.getCause() != null
+            ? throwable.getCause() : throwable;
+        if (cause instanceof SystemException e) {
+            errors.put(id, new PostLookupError(id, e.getStatusCode(), e.getTitle(), e.getDetail()));
+        } else if (cause instanceof RestClientResponseException e) {
+            errors.put(id, new PostLookupError(id, e.getStatusCode().value(), SystemException.DEFAULT_TITLE,
+                e.getMessage()));
+        } else if (cause instanceof RestClientException e) {
+            errors.put(id, new PostLookupError(id, isTimeout(e) ? HttpStatus.GATEWAY_TIMEOUT.value()
+                : HttpStatus.SERVICE_UNAVAILABLE.value(), SystemException.DEFAULT_TITLE, e.getMessage()));
+        } else if (cause instanceof RuntimeException e) {
+            throw e;
+        } else {
+            throw new CompletionException(cause);
+        }
+    }
+
+    private static boolean isTimeout(final RestClientException e) {
+        return e instanceof ResourceAccessException
+            && (e.getCause() instanceof SocketTimeoutException || e.getCause() instanceof HttpTimeoutException);
+    }
+
+    PostBatch toBatch() {
+        return new PostBatch(
+            ids.stream().map(posts::get).filter(Objects::nonNull).toList(),
+            ids.stream().map(errors::get).filter(Objects::nonNull).toList());
+    }
+}
@@ -0,0 +1,100 @@
+package com.audition.integration;
+
+import com.audition.configuration.IntegrationClientProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import org.springframework.stereotype.Component;
+
+//shares one upstream call, and its result or failure, between concurrent callers asking for the same url
+@Component
+public class RequestCoalescer {
+
+    private static final String METRIC_PREFIX = "audition.upstream.requests.";
+
+    private final transient Map<String, CompletableFuture<?>> inFlight = new ConcurrentHashMap<>();
+    private final transient boolean enabled;
+    private final transient Counter coalesced;
+    private final transient Counter executed;
+
+    public RequestCoalescer(final IntegrationClientProperties properties, final MeterRegistry meterRegistry) {
+        this.enabled = properties.isCoalescing();
+        this.coalesced = Counter.builder(METRIC_PREFIX + "coalesced")
+            .description("Upstream calls avoided by joining an identical in-flight call")
+            .register(meterRegistry);
+        this.executed = Counter.builder(METRIC_PREFIX + "executed")
+            .description("Upstream calls issued through the coalescer")
+            .register(meterRegistry);
+        Gauge.builder(METRIC_PREFIX + "in.flight", inFlight, Map::size)
+            .description("Distinct upstream calls currently in flight")
+            .register(meterRegistry);
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> T execute(final String url, final Supplier<T> call) {
+        if (!enabled) {
+            return call.get();
+        }
+
+        final CompletableFuture<T> leader = new CompletableFuture<>();
+        final CompletableFuture<T> existing = (CompletableFuture<T>) inFlight.putIfAbsent(url, leader);
+        if (existing != null) {
+            coalesced.increment();
+            return await(existing);
+        }
+
+        executed.increment();
+        try {
+            //runs on the calling thread, a failure completes the shared future exceptionally
+            leader.completeAsync(call, Runnable::run);
+        } finally {
+            inFlight.remove(url, leader);
+        }
+        return await(leader);
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> CompletableFuture<T> executeAsync(final String url, final Supplier<CompletableFuture<T>> call) {
+        if (!enabled) {
+            return call.get();
+        }
+
+        final CompletableFuture<T> leader = new CompletableFuture<>();
+        final CompletableFuture<T> existing = (CompletableFuture<T>) inFlight.putIfAbsent(url, leader);
+        if (existing != null) {
+            coalesced.increment();
+            //callers get their own copy so cancelling one does not affect the others
+            return existing.copy();
+        }
+
+        executed.increment();
+        //a call that throws before returning its future still releases the key
+        CompletableFuture.supplyAsync(call, Runnable::run)
+            .thenCompose(future -> future)
+            .whenComplete((value, throwable) -> {
+                inFlight.remove(url, leader);
+                if (throwable == null) {
+                    leader.complete(value);
+                } else {
+                    leader.completeExceptionally(throwable);
+                }
+            });
+        return leader.copy();
+    }
+
+    private static <T> T await(final CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (final CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.audition.integration.cache;
+
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+public interface AsyncCacheRegion<K, V> {
+
+    CompletableFuture<V> get(K key);
+
+    //only a completed load is present
+    Optional<V> getIfPresent(K key);
+
+    void put(K key, V value);
+
+    //see CacheRegion.refresh
+    void refresh(K key);
+
+    static <K, V> AsyncCacheRegion<K, V> uncached(final Function<K, CompletableFuture<V>> loader) {
+        return new AsyncCacheRegion<>() {
+            @Override
+            public CompletableFuture<V> get(final K key) {
+                return loader.apply(key);
+            }
+
+            @Override
+            public Optional<V> getIfPresent(final K key) {
+                return Optional.empty();
+            }
+
+            @Override
+            public void put(final K key, final V value) {
+                //nothing is retained when caching is disabled
+            }
+
+            @Override
+            public void refresh(final K key) {
+                //nothing is retained when caching is disabled
+            }
+        };
+    }
+}
@@ -0,0 +1,47 @@
+package com.audition.integration.cache;
+
+import java.util.Optional;
+import java.util.function.Function;
+
+public interface CacheRegion<K, V> {
+
+    V get(K key);
+
+    Optional<V> getIfPresent(K key);
+
+    void put(K key, V value);
+
+    //reloads the entry in the background, the current value is served until the reload completes
+    void refresh(K key);
+
+    void invalidateAll();
+
+    static <K, V> CacheRegion<K, V> uncached(final Function<K, V> loader) {
+        return new CacheRegion<>() {
+            @Override
+            public V get(final K key) {
+                return loader.apply(key);
+            }
+
+            @Override
+            public Optional<V> getIfPresent(final K key) {
+                return Optional.empty();
+            }
+
+            @Override
+            public void put(final K key, final V value) {
+                //nothing is retained when caching is disabled
+            }
+
+            @Override
+            public void refresh(final K key) {
+                //nothing is retained when caching is disabled
+            }
+
+            @Override
+            public void invalidateAll() {
+                //nothing is retained when caching is disabled
+            }
+        };
+    }
+}
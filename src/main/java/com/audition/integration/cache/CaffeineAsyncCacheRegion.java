@@ -0,0 +1,46 @@
+package com.audition.integration.cache;
+
+import com.github.benmanes.caffeine.cache.AsyncLoadingCache;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+class CaffeineAsyncCacheRegion<K, V> implements AsyncCacheRegion<K, V> {
+
+    private final transient AsyncLoadingCache<K, V> cache;
+    //null when stale values are not served
+    private final transient StaleValues<K, V> staleValues;
+
+    CaffeineAsyncCacheRegion(final AsyncLoadingCache<K, V> cache, final StaleValues<K, V> staleValues) {
+        this.cache = cache;
+        this.staleValues = staleValues;
+    }
+
+    @Override
+    public CompletableFuture<V> get(final K key) {
+        //concurrent misses share the in-flight future, failed loads are dropped from the cache
+        final CompletableFuture<V> load = cache.get(key);
+        if (staleValues == null || load.isDone() && !load.isCompletedExceptionally()) {
+            return load;
+        }
+        return staleValues.serve(key, load);
+    }
+
+    @Override
+    public Optional<V> getIfPresent(final K key) {
+        //the synchronous view does not wait for a load in flight
+        return Optional.ofNullable(cache.synchronous().getIfPresent(key));
+    }
+
+    @Override
+    public void put(final K key, final V value) {
+        cache.put(key, CompletableFuture.completedFuture(value));
+        if (staleValues != null) {
+            staleValues.remember(key, value);
+        }
+    }
+
+    @Override
+    public void refresh(final K key) {
+        cache.synchronous().refresh(key);
+    }
+}
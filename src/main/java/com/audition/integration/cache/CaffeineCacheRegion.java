@@ -0,0 +1,82 @@
+package com.audition.integration.cache;
+
+import com.audition.integration.resilience.RequestDeadline;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+class CaffeineCacheRegion<K, V> implements CacheRegion<K, V> {
+
+    private final transient LoadingCache<K, V> cache;
+    //null when stale values are not served
+    private final transient StaleValues<K, V> staleValues;
+    private final transient Executor executor;
+
+    CaffeineCacheRegion(final LoadingCache<K, V> cache, final StaleValues<K, V> staleValues,
+        final Executor executor) {
+        this.cache = cache;
+        this.staleValues = staleValues;
+        this.executor = executor;
+    }
+
+    @Override
+    public V get(final K key) {
+        final boolean stale = staleValues != null && staleValues.contains(key);
+        if (!stale && !Thread.currentThread().isVirtual()) {
+            //concurrent misses for the same key wait on a single load rather than each calling the upstream
+            return cache.get(key);
+        }
+
+        final V cached = cache.getIfPresent(key);
+        if (cached != null) {
+            return cached;
+        }
+        //the load moves off the calling thread, its retries still have to fit into the deadline of the request that
+        //asked for it
+        final CompletableFuture<V> load;
+        try {
+            load = CompletableFuture.supplyAsync(RequestDeadline.carry(() -> cache.get(key)), executor);
+        } catch (final RejectedExecutionException e) {
+            //the load pool is saturated, a stale value answers at once as it would after the latency budget, only
+            //without one the calling thread loads in its place
+            return stale ? staleValues.serveUnloaded(key).orElseGet(() -> cache.get(key)) : cache.get(key);
+        }
+        try {
+            //a stale value answers in the meantime, a virtual thread parks on the load instead of computing it: the
+            //cache computes under a lock of its map, which would pin the carrier for the whole upstream call, once
+            //for every distinct key loading at the same time
+            return stale ? staleValues.serve(key, load).join() : load.join();
+        } catch (final CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    @Override
+    public Optional<V> getIfPresent(final K key) {
+        return Optional.ofNullable(cache.getIfPresent(key));
+    }
+
+    @Override
+    public void put(final K key, final V value) {
+        cache.put(key, value);
+        if (staleValues != null) {
+            staleValues.remember(key, value);
+        }
+    }
+
+    @Override
+    public void refresh(final K key) {
+        cache.refresh(key);
+    }
+
+    @Override
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+}
@@ -0,0 +1,144 @@
+package com.audition.integration.cache;
+
+import com.audition.configuration.IntegrationCacheProperties;
+import com.github.benmanes.caffeine.cache.AsyncLoadingCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.github.benmanes.caffeine.cache.Ticker;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import io.micrometer.tracing.Tracer;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Function;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+
+@Component
+public class IntegrationCacheFactory implements DisposableBean {
+
+    private static final String CACHE_NAME_PREFIX = "audition.";
+
+    private final transient IntegrationCacheProperties properties;
+    private final transient MeterRegistry meterRegistry;
+    private final transient Ticker ticker;
+    private final transient Executor pool;
+    //the pool, with every load it runs kept in the trace of the request that triggered it, rejects once saturated
+    private final transient Executor executor;
+    //the cache's own refreshes and maintenance still have to happen, the thread that asked for them pays for them
+    private final transient Executor callerRunsExecutor;
+
+    //loads block on the upstream, on the common pool they would starve every other user of it
+    @Autowired
+    public IntegrationCacheFactory(final IntegrationCacheProperties properties, final MeterRegistry meterRegistry,
+        final ObjectProvider<Tracer> tracer) {
+        //tracing is not auto-configured in every context (e.g. test slices)
+        this(properties, meterRegistry, Ticker.systemTicker(), loadExecutor(properties.getLoader()),
+            tracer.getIfAvailable(() -> Tracer.NOOP));
+    }
+
+    public IntegrationCacheFactory(final IntegrationCacheProperties properties, final MeterRegistry meterRegistry) {
+        this(properties, meterRegistry, Ticker.systemTicker(), loadExecutor(properties.getLoader()), Tracer.NOOP);
+    }
+
+    IntegrationCacheFactory(final IntegrationCacheProperties properties, final MeterRegistry meterRegistry,
+        final Ticker ticker, final Executor executor) {
+        this(properties, meterRegistry, ticker, executor, Tracer.NOOP);
+    }
+
+    IntegrationCacheFactory(final IntegrationCacheProperties properties, final MeterRegistry meterRegistry,
+        final Ticker ticker, final Executor pool, final Tracer tracer) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        this.ticker = ticker;
+        this.pool = pool;
+        this.executor = tracer.currentTraceContext().wrap(pool);
+        this.callerRunsExecutor = task -> {
+            try {
+                executor.execute(task);
+            } catch (final RejectedExecutionException e) {
+                task.run();
+            }
+        };
+    }
+
+    private static ThreadPoolTaskExecutor loadExecutor(final IntegrationCacheProperties.Loader properties) {
+        final ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix("audition-cache-load-");
+        executor.setCorePoolSize(properties.getThreads());
+        executor.setMaxPoolSize(properties.getThreads());
+        executor.setAllowCoreThreadTimeOut(true);
+        executor.setQueueCapacity(properties.getQueueCapacity());
+        executor.initialize();
+        return executor;
+    }
+
+    @Override
+    public void destroy() {
+        if (pool instanceof ThreadPoolTaskExecutor owned) {
+            owned.shutdown();
+        }
+    }
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    public <K, V> CacheRegion<K, V> create(final String name, final Function<K, V> loader) {
+        if (!isEnabled()) {
+            return CacheRegion.uncached(loader);
+        }
+
+        final StaleValues<K, V> staleValues = staleValues(name);
+        final Function<K, V> remembering = staleValues == null ? loader
+            : key -> staleValues.remember(key, loader.apply(key));
+        final LoadingCache<K, V> cache = builder(name).build(remembering::apply);
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME_PREFIX + name);
+        return new CaffeineCacheRegion<>(cache, staleValues, executor);
+    }
+
+    public <K, V> AsyncCacheRegion<K, V> createAsync(final String name,
+        final Function<K, CompletableFuture<V>> loader) {
+        if (!isEnabled()) {
+            return AsyncCacheRegion.uncached(loader);
+        }
+
+        final StaleValues<K, V> staleValues = staleValues(name);
+        final Function<K, CompletableFuture<V>> remembering = staleValues == null ? loader
+            : key -> loader.apply(key).thenApply(value -> staleValues.remember(key, value));
+        final AsyncLoadingCache<K, V> cache = builder(name).buildAsync((key, loadExecutor) -> remembering.apply(key));
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME_PREFIX + name);
+        return new CaffeineAsyncCacheRegion<>(cache, staleValues);
+    }
+
+    //null when stale values are not served
+    private <K, V> StaleValues<K, V> staleValues(final String name) {
+        final IntegrationCacheProperties.Stale stale = properties.getStale();
+        if (!stale.isEnabled()) {
+            return null;
+        }
+        return new StaleValues<>(CACHE_NAME_PREFIX + name, properties.getRegion(name).getMaximumSize(), stale, ticker,
+            meterRegistry);
+    }
+
+    private Caffeine<Object, Object> builder(final String name) {
+        final IntegrationCacheProperties.Region region = properties.getRegion(name);
+        final Caffeine<Object, Object> builder = Caffeine.newBuilder()
+            .maximumSize(region.getMaximumSize())
+            .expireAfterWrite(region.getTtl())
+            .ticker(ticker)
+            .executor(callerRunsExecutor)
+            .recordStats();
+
+        final Duration refreshAhead = region.getRefreshAhead();
+        if (refreshAhead != null && refreshAhead.compareTo(region.getTtl()) < 0) {
+            builder.refreshAfterWrite(refreshAhead);
+        }
+        return builder;
+    }
+}
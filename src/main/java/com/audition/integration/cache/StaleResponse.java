@@ -0,0 +1,59 @@
+package com.audition.integration.cache;
+
+import jakarta.servlet.http.HttpServletRequest;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+//attached to a request once part of its response was answered from a last known good value, the oldest value and
+//whether an upstream failure caused it decide how the response is marked
+public final class StaleResponse {
+
+    private static final String ATTRIBUTE = StaleResponse.class.getName();
+
+    private final transient AtomicLong ageMillis = new AtomicLong();
+    private final transient AtomicBoolean revalidationFailed = new AtomicBoolean();
+
+    private StaleResponse() {
+    }
+
+    public static Optional<StaleResponse> of(final HttpServletRequest request) {
+        return Optional.ofNullable((StaleResponse) request.getAttribute(ATTRIBUTE));
+    }
+
+    //null outside a request, e.g. for background refreshes
+    static HttpServletRequest currentRequest() {
+        return RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes
+            ? attributes.getRequest() : null;
+    }
+
+    //may be called from any thread working on the request, including after the request thread was released
+    public static void mark(final HttpServletRequest request, final Duration age, final boolean failed) {
+        if (request == null) {
+            return;
+        }
+        final StaleResponse response;
+        synchronized (request) {
+            response = of(request).orElseGet(() -> {
+                final StaleResponse created = new StaleResponse();
+                request.setAttribute(ATTRIBUTE, created);
+                return created;
+            });
+        }
+        response.ageMillis.accumulateAndGet(age.toMillis(), Math::max);
+        if (failed) {
+            response.revalidationFailed.set(true);
+        }
+    }
+
+    public Duration getAge() {
+        return Duration.ofMillis(ageMillis.get());
+    }
+
+    public boolean isRevalidationFailed() {
+        return revalidationFailed.get();
+    }
+}
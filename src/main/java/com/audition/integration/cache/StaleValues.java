@@ -0,0 +1,115 @@
+package com.audition.integration.cache;
+
+import com.audition.configuration.IntegrationCacheProperties;
+import com.audition.integration.resilience.UpstreamGuard;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Ticker;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+//last known good values of a region, kept past its ttl so that an expired entry can still be answered while the
+//upstream fails or is slower than the latency budget, the load itself carries on and refills the region
+final class StaleValues<K, V> {
+
+    private static final String METRIC_NAME = "audition.cache.stale";
+
+    private final transient Cache<K, Stored<V>> values;
+    private final transient Ticker ticker;
+    private final transient long latencyBudgetMillis;
+    private final transient Counter servedOnError;
+    private final transient Counter servedOnLatency;
+
+    StaleValues(final String cacheName, final long maximumSize, final IntegrationCacheProperties.Stale properties,
+        final Ticker ticker, final MeterRegistry meterRegistry) {
+        this.values = Caffeine.newBuilder()
+            .maximumSize(maximumSize)
+            .expireAfterWrite(properties.getMaxAge())
+            .ticker(ticker)
+            .build();
+        this.ticker = ticker;
+        this.latencyBudgetMillis = properties.getLatencyBudget().toMillis();
+        this.servedOnError = Counter.builder(METRIC_NAME)
+            .description("Expired entries answered with their last known good value after the upstream failed")
+            .tag("cache", cacheName)
+            .tag("reason", "error")
+            .register(meterRegistry);
+        this.servedOnLatency = Counter.builder(METRIC_NAME)
+            .description("Expired entries answered with their last known good value while the upstream was slow")
+            .tag("cache", cacheName)
+            .tag("reason", "latency")
+            .register(meterRegistry);
+    }
+
+    V remember(final K key, final V value) {
+        values.put(key, new Stored<>(value, ticker.read()));
+        return value;
+    }
+
+    boolean contains(final K key) {
+        return values.getIfPresent(key) != null;
+    }
+
+    //a load that completes within the budget, or fails with an answer from the upstream, is passed through as is
+    CompletableFuture<V> serve(final K key, final CompletableFuture<V> load) {
+        final Stored<V> stale = values.getIfPresent(key);
+        if (stale == null) {
+            return load;
+        }
+
+        //captured on the calling thread, the load completes on another one
+        final HttpServletRequest request = StaleResponse.currentRequest();
+        final CompletableFuture<V> response = new CompletableFuture<>();
+        load.whenComplete((value, throwable) -> {
+            if (throwable != null && UpstreamGuard.isUpstreamFailure(throwable)) {
+                serveStale(response, stale, request, true);
+                return;
+            }
+            synchronized (response) {
+                if (throwable == null) {
+                    response.complete(value);
+                } else {
+                    response.completeExceptionally(throwable);
+                }
+            }
+        });
+        if (!response.isDone()) {
+            CompletableFuture.delayedExecutor(latencyBudgetMillis, TimeUnit.MILLISECONDS)
+                .execute(() -> serveStale(response, stale, request, false));
+        }
+        return response;
+    }
+
+    //for a load that could not be started at all, the stale value answers as it would once the latency budget ran out
+    Optional<V> serveUnloaded(final K key) {
+        return Optional.ofNullable(values.getIfPresent(key))
+            .map(stale -> answer(stale, StaleResponse.currentRequest(), false));
+    }
+
+    //whichever of the load and the latency budget comes first answers the response
+    private void serveStale(final CompletableFuture<V> response, final Stored<V> stale,
+        final HttpServletRequest request, final boolean failed) {
+        synchronized (response) {
+            if (response.isDone()) {
+                return;
+            }
+            response.complete(answer(stale, request, failed));
+        }
+    }
+
+    //a stale answer is recorded before it becomes visible so that the response can be marked
+    private V answer(final Stored<V> stale, final HttpServletRequest request, final boolean failed) {
+        (failed ? servedOnError : servedOnLatency).increment();
+        StaleResponse.mark(request, Duration.ofNanos(ticker.read() - stale.writtenAt()), failed);
+        return stale.value();
+    }
+
+    private record Stored<T>(T value, long writtenAt) {
+
+    }
+}
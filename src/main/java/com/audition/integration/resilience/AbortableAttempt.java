@@ -0,0 +1,58 @@
+package com.audition.integration.resilience;
+
+import java.util.function.Supplier;
+
+//lets the transport of a blocking attempt register how its exchange is aborted, so that the attempt that lost a
+//hedged call stops holding a connection and a thread, transports that register nothing run to completion
+public final class AbortableAttempt {
+
+    private static final ThreadLocal<AbortableAttempt> CURRENT = new ThreadLocal<>();
+
+    private transient Runnable abortAction;
+    private transient boolean aborted;
+
+    //called by the transport as it creates the exchange of the attempt running on this thread
+    public static void register(final Runnable abort) {
+        final AbortableAttempt attempt = CURRENT.get();
+        if (attempt != null) {
+            attempt.exchange(abort);
+        }
+    }
+
+    <T> T run(final Supplier<T> call) {
+        final AbortableAttempt previous = CURRENT.get();
+        CURRENT.set(this);
+        try {
+            return call.get();
+        } finally {
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        }
+    }
+
+    void abort() {
+        final Runnable action;
+        synchronized (this) {
+            aborted = true;
+            action = abortAction;
+        }
+        if (action != null) {
+            action.run();
+        }
+    }
+
+    private void exchange(final Runnable abort) {
+        final boolean abortNow;
+        synchronized (this) {
+            abortAction = abort;
+            abortNow = aborted;
+        }
+        //aborted before its exchange was created, e.g. while waiting for a pooled connection
+        if (abortNow) {
+            abort.run();
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package com.audition.integration.resilience;
+
+import com.audition.configuration.IntegrationClientProperties;
+import java.time.Duration;
+import java.util.function.BiConsumer;
+import java.util.function.LongSupplier;
+
+//count based breaker over the outcomes of the last window-size calls, it opens once the failure or slow call rate
+//reaches its threshold, rejects calls while open and then lets a few probes through to decide whether to close
+final class CircuitBreaker {
+
+    enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    private final transient Object lock = new Object();
+    private final transient IntegrationClientProperties.CircuitBreaker properties;
+    private final transient LongSupplier nanoTime;
+    private final transient BiConsumer<State, State> onTransition;
+    private final transient long slowCallNanos;
+    private final transient long openNanos;
+
+    //outcomes of the closed window, or of the probes while half open
+    private final transient boolean[] failedCalls;
+    private final transient boolean[] slowCalls;
+    private transient int recorded;
+    private transient int next;
+    private transient int failures;
+    private transient int slow;
+
+    //read without the lock so that a closed breaker costs nothing per call
+    private volatile Permit current = new Permit(this, State.CLOSED, 0);
+    private transient long openedAt;
+    private transient int probesLeft;
+
+    CircuitBreaker(final IntegrationClientProperties.CircuitBreaker properties, final LongSupplier nanoTime,
+        final BiConsumer<State, State> onTransition) {
+        this.properties = properties;
+        this.nanoTime = nanoTime;
+        this.onTransition = onTransition;
+        this.slowCallNanos = properties.getSlowCallDuration().toNanos();
+        this.openNanos = properties.getOpenDuration().toNanos();
+        final int windowSize = Math.max(properties.getWindowSize(), properties.getHalfOpenCalls());
+        this.failedCalls = new boolean[windowSize];
+        this.slowCalls = new boolean[windowSize];
+    }
+
+    State getState() {
+        return current.state();
+    }
+
+    //null when the call is rejected, otherwise the permit of the phase the call was let through in
+    Permit tryAcquirePermission() {
+        final Permit permit = current;
+        if (permit.state() == State.CLOSED) {
+            return permit;
+        }
+        synchronized (lock) {
+            if (current.state() == State.OPEN && nanoTime.getAsLong() - openedAt >= openNanos) {
+                transition(State.HALF_OPEN);
+                probesLeft = properties.getHalfOpenCalls();
+            }
+            if (current.state() == State.HALF_OPEN && probesLeft > 0) {
+                probesLeft--;
+                return current;
+            }
+            return current.state() == State.CLOSED ? current : null;
+        }
+    }
+
+    //until the breaker half opens, zero once it lets probes through
+    Duration retryAfter() {
+        synchronized (lock) {
+            return current.state() == State.OPEN
+                ? Duration.ofNanos(Math.max(0, openNanos - (nanoTime.getAsLong() - openedAt))) : Duration.ZERO;
+        }
+    }
+
+    private void onResult(final Permit permit, final long durationNanos, final boolean failed) {
+        synchronized (lock) {
+            //calls that started in an earlier phase do not count, e.g. a call from before the breaker opened that
+            //ends while it is half open is not one of its probes
+            if (permit.phase() != current.phase()) {
+                return;
+            }
+            record(failed, durationNanos >= slowCallNanos);
+            if (current.state() == State.HALF_OPEN) {
+                if (recorded >= properties.getHalfOpenCalls()) {
+                    transition(aboveThreshold() ? State.OPEN : State.CLOSED);
+                }
+            } else if (recorded >= properties.getMinimumCalls() && aboveThreshold()) {
+                transition(State.OPEN);
+            }
+        }
+    }
+
+    private void record(final boolean failed, final boolean slowCall) {
+        final int window = current.state() == State.HALF_OPEN
+            ? properties.getHalfOpenCalls() : properties.getWindowSize();
+        if (recorded == window) {
+            //the oldest outcome leaves the window
+            failures -= failedCalls[next] ? 1 : 0;
+            slow -= slowCalls[next] ? 1 : 0;
+        } else {
+            recorded++;
+        }
+        failedCalls[next] = failed;
+        slowCalls[next] = slowCall;
+        failures += failed ? 1 : 0;
+        slow += slowCall ? 1 : 0;
+        next = (next + 1) % window;
+    }
+
+    private boolean aboveThreshold() {
+        return failures * 100 >= properties.getFailureRateThreshold() * recorded
+            || slow * 100 >= properties.getSlowCallRateThreshold() * recorded;
+    }
+
+    private void transition(final State to) {
+        final State from = current.state();
+        if (to == State.OPEN) {
+            openedAt = nanoTime.getAsLong();
+        }
+        //every state starts over with an empty window
+        recorded = 0;
+        next = 0;
+        failures = 0;
+        slow = 0;
+        current = new Permit(this, to, current.phase() + 1);
+        onTransition.accept(from, to);
+    }
+
+    //shared by every call let through in the same phase, a phase lasts from one state change to the next
+    record Permit(CircuitBreaker breaker, State state, long phase) {
+
+        //every call that was let through has to report, a probe that never does keeps the breaker half open
+        void onResult(final long durationNanos, final boolean failed) {
+            breaker.onResult(this, durationNanos, failed);
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.audition.integration.resilience;
+
+import java.util.Arrays;
+
+//the latencies of the last window-size calls, the percentile is recomputed every tenth of a window rather than on
+//every read so that reading it stays as cheap as a volatile read
+final class LatencyWindow {
+
+    private final transient Object lock = new Object();
+    private final transient long[] samples;
+    private final transient int percentile;
+    private final transient int minimumSamples;
+    private final transient int updateInterval;
+    private transient int next;
+    private transient int count;
+    private transient int sinceUpdate;
+    //negative until minimum-samples latencies were recorded
+    private transient volatile long percentileNanos = -1;
+
+    LatencyWindow(final int size, final int percentile, final int minimumSamples) {
+        this.samples = new long[size];
+        this.percentile = percentile;
+        this.minimumSamples = minimumSamples;
+        this.updateInterval = Math.max(1, size / 10);
+    }
+
+    long percentileNanos() {
+        return percentileNanos;
+    }
+
+    void record(final long nanos) {
+        synchronized (lock) {
+            samples[next] = nanos;
+            next = (next + 1) % samples.length;
+            count = Math.min(count + 1, samples.length);
+            sinceUpdate++;
+            if (count >= minimumSamples && (percentileNanos < 0 || sinceUpdate >= updateInterval)) {
+                final long[] sorted = Arrays.copyOf(samples, count);
+                Arrays.sort(sorted);
+                percentileNanos = sorted[Math.min(count - 1, (int) Math.ceil(count * percentile / 100.0) - 1)];
+                sinceUpdate = 0;
+            }
+        }
+    }
+}
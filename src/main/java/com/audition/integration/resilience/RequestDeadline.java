@@ -0,0 +1,58 @@
+package com.audition.integration.resilience;
+
+import jakarta.servlet.http.HttpServletRequest;
+import java.time.Duration;
+import java.util.OptionalLong;
+import java.util.function.Supplier;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+//the System.nanoTime by which the inbound request should be answered, upstream retries are not started past it
+public final class RequestDeadline {
+
+    private static final String ATTRIBUTE = RequestDeadline.class.getName();
+    //set while work carried off the request thread runs, such a thread has no request context to read it from
+    private static final ThreadLocal<Long> CARRIED = new ThreadLocal<>();
+
+    private RequestDeadline() {
+    }
+
+    public static void start(final HttpServletRequest request, final Duration budget) {
+        request.setAttribute(ATTRIBUTE, System.nanoTime() + budget.toNanos());
+    }
+
+    //the deadline of the calling request, if any, applies to the work wherever it runs
+    public static <T> Supplier<T> carry(final Supplier<T> work) {
+        final OptionalLong deadline = current();
+        if (deadline.isEmpty()) {
+            return work;
+        }
+        return () -> {
+            final Long previous = CARRIED.get();
+            CARRIED.set(deadline.getAsLong());
+            try {
+                return work.get();
+            } finally {
+                if (previous == null) {
+                    CARRIED.remove();
+                } else {
+                    CARRIED.set(previous);
+                }
+            }
+        };
+    }
+
+    //empty outside of an inbound request, e.g. for a refresh ahead or a snapshot restore
+    static OptionalLong current() {
+        final Long carried = CARRIED.get();
+        if (carried != null) {
+            return OptionalLong.of(carried);
+        }
+        final RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes != null
+            && attributes.getAttribute(ATTRIBUTE, RequestAttributes.SCOPE_REQUEST) instanceof Long deadline) {
+            return OptionalLong.of(deadline);
+        }
+        return OptionalLong.empty();
+    }
+}
@@ -0,0 +1,312 @@
+package com.audition.integration.resilience;
+
+import com.audition.configuration.IntegrationClientProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.tracing.CurrentTraceContext;
+import io.micrometer.tracing.TraceContext;
+import io.micrometer.tracing.Tracer;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+//tail latency hedging for idempotent upstream calls, an attempt that has not answered within the configured
+//percentile of the recent latencies of its call type gets a second attempt and the first answer wins
+@Component
+public class RequestHedger implements DisposableBean {
+
+    private static final String METRIC_NAME = "audition.upstream.hedges";
+    private static final String ENDPOINT_TAG = "endpoint";
+
+    private final transient IntegrationClientProperties.Hedging properties;
+    private final transient Executor executor;
+    private final transient MeterRegistry meterRegistry;
+    private final transient Map<String, Endpoint> endpoints = new ConcurrentHashMap<>();
+    private final transient TokenBudget budget;
+    private final transient CurrentTraceContext traceContext;
+
+    //hedges get threads of their own, the request fan-out pool may be busy with the very callers waiting for them
+    @Autowired
+    public RequestHedger(final IntegrationClientProperties properties, final MeterRegistry meterRegistry,
+        final ObjectProvider<Tracer> tracer) {
+        //tracing is not auto-configured in every context (e.g. test slices)
+        this(properties, hedgeExecutor(properties.getHedging()), meterRegistry,
+            tracer.getIfAvailable(() -> Tracer.NOOP));
+    }
+
+    //the executor runs hedge attempts of blocking calls only, it should reject rather than queue them
+    public RequestHedger(final IntegrationClientProperties properties, final Executor executor,
+        final MeterRegistry meterRegistry) {
+        this(properties, executor, meterRegistry, Tracer.NOOP);
+    }
+
+    RequestHedger(final IntegrationClientProperties properties, final Executor executor,
+        final MeterRegistry meterRegistry, final Tracer tracer) {
+        this.properties = properties.getHedging();
+        this.executor = executor;
+        this.meterRegistry = meterRegistry;
+        this.budget = new TokenBudget(this.properties.getBudgetPercent(), false);
+        this.traceContext = tracer.currentTraceContext();
+    }
+
+    private static ThreadPoolTaskExecutor hedgeExecutor(final IntegrationClientProperties.Hedging properties) {
+        final ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix("audition-hedge-");
+        executor.setCorePoolSize(properties.getMaxConcurrent());
+        executor.setMaxPoolSize(properties.getMaxConcurrent());
+        executor.setAllowCoreThreadTimeOut(true);
+        //a hedge is only worth sending right away, with every thread busy it is not sent at all
+        executor.setQueueCapacity(0);
+        executor.initialize();
+        return executor;
+    }
+
+    @Override
+    public void destroy() {
+        if (executor instanceof ThreadPoolTaskExecutor owned) {
+            owned.shutdown();
+        }
+    }
+
+    //the first attempt runs on the calling thread, so a caller never waits on work queued behind it, a hedge runs on
+    //the hedge executor, whichever attempt loses is aborted if its transport registered an AbortableAttempt and
+    //otherwise runs to completion with its answer discarded
+    public <T> T execute(final String endpoint, final Supplier<T> call) {
+        if (!properties.isEnabled()) {
+            return call.get();
+        }
+        final Endpoint hedged = endpoint(endpoint);
+        if (hedged.latency.percentileNanos() < 0) {
+            //not enough latencies yet to tell a slow call apart, so the call stays on the calling thread
+            budget.deposit();
+            final long start = System.nanoTime();
+            final T result = call.get();
+            hedged.latency.record(System.nanoTime() - start);
+            return result;
+        }
+        budget.deposit();
+        final HedgedCall<T> hedgedCall = new HedgedCall<>(hedged);
+        final AbortableAttempt first = new AbortableAttempt();
+        final CompletableFuture<T> primary = abortable(first);
+        hedgedCall.add(primary, false);
+        final Supplier<T> hedge = inRequest(call);
+        CompletableFuture.delayedExecutor(hedged.delayNanos(), TimeUnit.NANOSECONDS)
+            .execute(() -> hedgeBlocking(hedged, hedgedCall, hedge));
+
+        final long start = System.nanoTime();
+        try {
+            final T value = first.run(call);
+            hedged.latency.record(System.nanoTime() - start);
+            primary.complete(value);
+        } catch (final RuntimeException e) {
+            //ignored once the hedge won and aborted this attempt
+            primary.completeExceptionally(e);
+        }
+        try {
+            return hedgedCall.result.join();
+        } catch (final CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    //cancelling the losing future is expected to abort its exchange
+    public <T> CompletableFuture<T> executeAsync(final String endpoint, final Supplier<CompletableFuture<T>> call) {
+        if (!properties.isEnabled()) {
+            return call.get();
+        }
+        return hedge(endpoint(endpoint), call, call);
+    }
+
+    private <T> CompletableFuture<T> hedge(final Endpoint endpoint, final Supplier<CompletableFuture<T>> first,
+        final Supplier<CompletableFuture<T>> second) {
+        budget.deposit();
+        final long delayNanos = endpoint.delayNanos();
+        final CompletableFuture<T> primary = timed(endpoint, first);
+        if (delayNanos < 0 || primary.isDone()) {
+            return primary;
+        }
+
+        final HedgedCall<T> hedgedCall = new HedgedCall<>(endpoint);
+        hedgedCall.add(primary, false);
+        CompletableFuture.delayedExecutor(delayNanos, TimeUnit.NANOSECONDS).execute(() -> {
+            if (hedgedCall.result.isDone()) {
+                return;
+            }
+            if (!budget.tryAcquire()) {
+                endpoint.overBudget.increment();
+                return;
+            }
+            endpoint.fired.increment();
+            hedgedCall.add(timed(endpoint, second), true);
+        });
+        return hedgedCall.result;
+    }
+
+    //the attempt itself is returned rather than a dependent stage, so that cancelling it reaches the exchange
+    private static <T> CompletableFuture<T> timed(final Endpoint endpoint, final Supplier<CompletableFuture<T>> call) {
+        final long start = System.nanoTime();
+        final CompletableFuture<T> attempt;
+        try {
+            attempt = call.get();
+        } catch (final RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        attempt.whenComplete((value, throwable) -> {
+            if (throwable == null) {
+                endpoint.latency.record(System.nanoTime() - start);
+            }
+        });
+        return attempt;
+    }
+
+    private <T> void hedgeBlocking(final Endpoint endpoint, final HedgedCall<T> hedgedCall, final Supplier<T> call) {
+        if (hedgedCall.result.isDone()) {
+            return;
+        }
+        if (!budget.tryAcquire()) {
+            endpoint.overBudget.increment();
+            return;
+        }
+        final AbortableAttempt second = new AbortableAttempt();
+        final CompletableFuture<T> hedge = abortable(second);
+        try {
+            executor.execute(() -> {
+                //the first attempt may have answered while this one waited for a thread
+                if (hedge.isDone()) {
+                    return;
+                }
+                final long start = System.nanoTime();
+                try {
+                    final T value = second.run(call);
+                    endpoint.latency.record(System.nanoTime() - start);
+                    hedge.complete(value);
+                } catch (final RuntimeException e) {
+                    hedge.completeExceptionally(e);
+                }
+            });
+        } catch (final RejectedExecutionException e) {
+            endpoint.rejected.increment();
+            return;
+        }
+        endpoint.fired.increment();
+        hedgedCall.add(hedge, true);
+    }
+
+    //captured on the calling thread, the hedge is sent from other threads but still belongs to the request: it has to
+    //fit into its deadline, is traced within its trace and sees its attributes, e.g. to mark a stale answer
+    private <T> Supplier<T> inRequest(final Supplier<T> call) {
+        final Supplier<T> carried = RequestDeadline.carry(call);
+        final RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        final TraceContext trace = traceContext.context();
+        return () -> {
+            final RequestAttributes previous = RequestContextHolder.getRequestAttributes();
+            RequestContextHolder.setRequestAttributes(attributes);
+            try (CurrentTraceContext.Scope scope = traceContext.maybeScope(trace)) {
+                return carried.get();
+            } finally {
+                RequestContextHolder.setRequestAttributes(previous);
+            }
+        };
+    }
+
+    //cancelling the returned future, as the attempt that lost is, aborts the exchange of the attempt
+    private static <T> CompletableFuture<T> abortable(final AbortableAttempt attempt) {
+        final CompletableFuture<T> future = new CompletableFuture<>();
+        future.whenComplete((value, throwable) -> {
+            if (future.isCancelled()) {
+                attempt.abort();
+            }
+        });
+        return future;
+    }
+
+    private Endpoint endpoint(final String endpoint) {
+        return endpoints.computeIfAbsent(endpoint, this::createEndpoint);
+    }
+
+    private Endpoint createEndpoint(final String endpoint) {
+        final Endpoint created = new Endpoint(
+            new LatencyWindow(properties.getWindowSize(), properties.getPercentile(), properties.getMinimumSamples()),
+            properties.getMinimumDelay().toNanos(),
+            counter(endpoint, "fired"), counter(endpoint, "won"), counter(endpoint, "over_budget"),
+            counter(endpoint, "rejected"));
+        Gauge.builder(METRIC_NAME + ".delay", created, current -> Math.max(0, current.delayNanos()) / 1_000_000.0)
+            .description("Time an upstream call is given before it is hedged")
+            .baseUnit("milliseconds")
+            .tag(ENDPOINT_TAG, endpoint)
+            .register(meterRegistry);
+        return created;
+    }
+
+    private Counter counter(final String endpoint, final String result) {
+        return Counter.builder(METRIC_NAME)
+            .description("Second attempts sent for slow upstream calls and how they ended")
+            .tag(ENDPOINT_TAG, endpoint)
+            .tag("result", result)
+            .register(meterRegistry);
+    }
+
+    private record Endpoint(LatencyWindow latency, long minimumDelayNanos, Counter fired, Counter won,
+                            Counter overBudget, Counter rejected) {
+
+        //negative while the call type is not hedged yet
+        long delayNanos() {
+            final long percentileNanos = latency.percentileNanos();
+            return percentileNanos < 0 ? percentileNanos : Math.max(minimumDelayNanos, percentileNanos);
+        }
+    }
+
+    //completes with the first successful attempt, or with the first failure once every attempt failed
+    private static final class HedgedCall<T> {
+
+        private final CompletableFuture<T> result = new CompletableFuture<>();
+        private final List<CompletableFuture<T>> attempts = new CopyOnWriteArrayList<>();
+        private final AtomicInteger pending = new AtomicInteger();
+        private final AtomicReference<Throwable> failure = new AtomicReference<>();
+        private final Endpoint endpoint;
+
+        private HedgedCall(final Endpoint endpoint) {
+            this.endpoint = endpoint;
+        }
+
+        private void add(final CompletableFuture<T> attempt, final boolean hedge) {
+            attempts.add(attempt);
+            pending.incrementAndGet();
+            attempt.whenComplete((value, throwable) -> {
+                if (throwable == null) {
+                    if (result.complete(value)) {
+                        if (hedge) {
+                            endpoint.won.increment();
+                        }
+                        attempts.forEach(other -> other.cancel(true));
+                    }
+                    return;
+                }
+                failure.compareAndSet(null, throwable);
+                if (pending.decrementAndGet() == 0) {
+                    result.completeExceptionally(failure.get());
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.audition.integration.resilience;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+//extra upstream calls, hedges or retries, allowed as a percentage of the calls made, tokens are kept in hundredths
+//of a call and every call adds percent of them up to a burst of ten extra calls
+final class TokenBudget {
+
+    private static final long CALL_COST = 100;
+    private static final long MAX_TOKENS = 10 * CALL_COST;
+
+    private final transient int percent;
+    private final transient AtomicLong tokens;
+
+    TokenBudget(final int percent, final boolean startFull) {
+        this.percent = percent;
+        this.tokens = new AtomicLong(startFull ? MAX_TOKENS : 0);
+    }
+
+    void deposit() {
+        tokens.accumulateAndGet(percent, (current, added) -> Math.min(MAX_TOKENS, current + added));
+    }
+
+    boolean tryAcquire() {
+        long current = tokens.get();
+        while (current >= CALL_COST) {
+            if (tokens.compareAndSet(current, current - CALL_COST)) {
+                return true;
+            }
+            current = tokens.get();
+        }
+        return false;
+    }
+}
@@ -0,0 +1,202 @@
+package com.audition.integration.resilience;
+
+import com.audition.common.logging.AuditionLogger;
+import com.audition.configuration.IntegrationClientProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestClientException;
+
+//a circuit breaker per upstream call type and a bulkhead shared by all upstream calls, a rejected call fails fast
+//with an UpstreamUnavailableException instead of piling up on an upstream that is already struggling
+@Component
+@Slf4j
+public class UpstreamGuard {
+
+    private static final String METRIC_PREFIX = "audition.upstream.";
+    private static final String ENDPOINT_TAG = "endpoint";
+    private static final String REASON_TAG = "reason";
+    private static final String BULKHEAD = "bulkhead";
+    private static final Duration BULKHEAD_RETRY_AFTER = Duration.ofSeconds(1);
+
+    private final transient IntegrationClientProperties.CircuitBreaker breakerProperties;
+    private final transient Map<String, CircuitBreaker> breakers = new ConcurrentHashMap<>();
+    private final transient boolean bulkheadEnabled;
+    private final transient Semaphore bulkhead;
+    private final transient long maxWaitNanos;
+    private final transient MeterRegistry meterRegistry;
+    private final transient AuditionLogger logger;
+    private final transient LongSupplier nanoTime;
+
+    @Autowired
+    public UpstreamGuard(final IntegrationClientProperties properties, final MeterRegistry meterRegistry,
+        final AuditionLogger logger) {
+        this(properties, meterRegistry, logger, System::nanoTime);
+    }
+
+    UpstreamGuard(final IntegrationClientProperties properties, final MeterRegistry meterRegistry,
+        final AuditionLogger logger, final LongSupplier nanoTime) {
+        this.breakerProperties = properties.getCircuitBreaker();
+        this.bulkheadEnabled = properties.getBulkhead().isEnabled();
+        final int maxConcurrent = properties.getBulkhead().getMaxConcurrent(properties.getExecution());
+        this.bulkhead = new Semaphore(maxConcurrent);
+        this.maxWaitNanos = properties.getBulkhead().getMaxWait().toNanos();
+        this.meterRegistry = meterRegistry;
+        this.logger = logger;
+        this.nanoTime = nanoTime;
+        Gauge.builder(METRIC_PREFIX + "bulkhead.in.flight", bulkhead,
+                semaphore -> maxConcurrent - semaphore.availablePermits())
+            .description("Upstream calls currently holding a bulkhead permit")
+            .register(meterRegistry);
+    }
+
+    //server errors, I/O errors and too many requests, any other client error is the upstream answering
+    public static boolean isUpstreamFailure(final Throwable throwable) {
+        final Throwable cause = throwable instanceof CompletionException && throwable.getCause() != null
+            ? throwable.getCause() : throwable;
+        if (cause instanceof HttpClientErrorException e) {
+            return e.getStatusCode() == HttpStatus.TOO_MANY_REQUESTS;
+        }
+        return cause instanceof RestClientException;
+    }
+
+    public <T> T call(final String endpoint, final Supplier<T> call) {
+        acquireBulkhead(endpoint, maxWaitNanos);
+        try {
+            final CircuitBreaker.Permit permit = acquireBreaker(endpoint);
+            final long start = nanoTime.getAsLong();
+            Throwable failure = null;
+            try {
+                return call.get();
+            } catch (final RuntimeException | Error e) {
+                failure = e;
+                throw e;
+            } finally {
+                record(permit, start, failure);
+            }
+        } finally {
+            releaseBulkhead();
+        }
+    }
+
+    //never waits for a bulkhead permit, the caller is not expected to block
+    public <T> CompletableFuture<T> callAsync(final String endpoint, final Supplier<CompletableFuture<T>> call) {
+        final CircuitBreaker.Permit permit;
+        try {
+            acquireBulkhead(endpoint, 0);
+        } catch (final UpstreamUnavailableException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        try {
+            permit = acquireBreaker(endpoint);
+        } catch (final UpstreamUnavailableException e) {
+            releaseBulkhead();
+            return CompletableFuture.failedFuture(e);
+        }
+
+        final long start = nanoTime.getAsLong();
+        CompletableFuture<T> future;
+        try {
+            future = call.get();
+        } catch (final RuntimeException e) {
+            future = CompletableFuture.failedFuture(e);
+        } catch (final Error e) {
+            //no future will complete, the permits are given back before the error propagates
+            record(permit, start, e);
+            releaseBulkhead();
+            throw e;
+        }
+        return future.whenComplete((value, throwable) -> {
+            record(permit, start, throwable);
+            releaseBulkhead();
+        });
+    }
+
+    private void acquireBulkhead(final String endpoint, final long waitNanos) {
+        if (!bulkheadEnabled) {
+            return;
+        }
+        boolean acquired;
+        try {
+            acquired = waitNanos > 0 ? bulkhead.tryAcquire(waitNanos, TimeUnit.NANOSECONDS) : bulkhead.tryAcquire();
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            acquired = false;
+        }
+        if (!acquired) {
+            rejected(endpoint, BULKHEAD).increment();
+            throw new UpstreamUnavailableException("Too many upstream calls in flight for " + endpoint,
+                BULKHEAD_RETRY_AFTER);
+        }
+    }
+
+    private void releaseBulkhead() {
+        if (bulkheadEnabled) {
+            bulkhead.release();
+        }
+    }
+
+    //null when circuit breakers are disabled
+    private CircuitBreaker.Permit acquireBreaker(final String endpoint) {
+        if (!breakerProperties.isEnabled()) {
+            return null;
+        }
+        final CircuitBreaker breaker = breakers.computeIfAbsent(endpoint, this::createBreaker);
+        final CircuitBreaker.Permit permit = breaker.tryAcquirePermission();
+        if (permit == null) {
+            rejected(endpoint, "circuit_open").increment();
+            throw new UpstreamUnavailableException("Upstream calls for " + endpoint + " are suspended",
+                breaker.retryAfter());
+        }
+        return permit;
+    }
+
+    //an error thrown by the call counts as a failure, it tells nothing about the upstream having recovered
+    private void record(final CircuitBreaker.Permit permit, final long start, final Throwable throwable) {
+        if (permit != null) {
+            permit.onResult(nanoTime.getAsLong() - start,
+                throwable instanceof Error || throwable != null && isUpstreamFailure(throwable));
+        }
+    }
+
+    @SuppressWarnings("PMD.GuardLogStatement") //already guarded within the method
+    private CircuitBreaker createBreaker(final String endpoint) {
+        final CircuitBreaker breaker = new CircuitBreaker(breakerProperties, nanoTime, (from, to) -> {
+            logger.warn(log, "Circuit breaker for upstream " + endpoint + " changed from " + from + " to " + to);
+            Counter.builder(METRIC_PREFIX + "circuit.transitions")
+                .description("Circuit breaker state changes")
+                .tag(ENDPOINT_TAG, endpoint)
+                .tag("to", to.name().toLowerCase(Locale.ROOT))
+                .register(meterRegistry)
+                .increment();
+        });
+        Gauge.builder(METRIC_PREFIX + "circuit.state", breaker, current -> current.getState().ordinal())
+            .description("Circuit breaker state, 0 closed, 1 open, 2 half open")
+            .tag(ENDPOINT_TAG, endpoint)
+            .register(meterRegistry);
+        return breaker;
+    }
+
+    private Counter rejected(final String endpoint, final String reason) {
+        return Counter.builder(METRIC_PREFIX + "rejected")
+            .description("Upstream calls rejected without being sent")
+            .tag(ENDPOINT_TAG, endpoint)
+            .tag(REASON_TAG, reason)
+            .register(meterRegistry);
+    }
+}
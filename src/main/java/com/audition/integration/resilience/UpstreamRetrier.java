@@ -0,0 +1,153 @@
+package com.audition.integration.resilience;
+
+import com.audition.configuration.IntegrationClientProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.util.OptionalLong;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import org.springframework.stereotype.Component;
+
+//retries idempotent upstream calls that failed transiently, after a full jitter exponential backoff, within a retry
+//budget and only when the backoff and a whole attempt still fit into the deadline of the inbound request
+@Component
+public class UpstreamRetrier {
+
+    private static final String METRIC_PREFIX = "audition.upstream.";
+    private static final String ENDPOINT_TAG = "endpoint";
+
+    private final transient IntegrationClientProperties.Retry properties;
+    //an attempt that gets no answer is given up after the read timeout
+    private final transient long attemptNanos;
+    private final transient TokenBudget budget;
+    private final transient MeterRegistry meterRegistry;
+
+    public UpstreamRetrier(final IntegrationClientProperties properties, final MeterRegistry meterRegistry) {
+        this.properties = properties.getRetry();
+        this.attemptNanos = properties.getReadTimeout().toNanos();
+        //a node that just started may retry right away
+        this.budget = new TokenBudget(this.properties.getBudgetPercent(), true);
+        this.meterRegistry = meterRegistry;
+    }
+
+    public <T> T call(final String endpoint, final Supplier<T> call) {
+        if (!properties.isEnabled()) {
+            return call.get();
+        }
+        final OptionalLong deadline = RequestDeadline.current();
+        budget.deposit();
+        for (int attempt = 1; ; attempt++) {
+            final T result;
+            try {
+                result = call.get();
+            } catch (final RuntimeException e) {
+                attempted(endpoint, attempt, e);
+                final long backoffNanos = backoffNanos(attempt);
+                if (!retry(endpoint, e, attempt, backoffNanos, deadline) || !sleep(backoffNanos)) {
+                    throw e;
+                }
+                continue;
+            }
+            attempted(endpoint, attempt, null);
+            return result;
+        }
+    }
+
+    public <T> CompletableFuture<T> callAsync(final String endpoint, final Supplier<CompletableFuture<T>> call) {
+        if (!properties.isEnabled()) {
+            return call.get();
+        }
+        //read on the calling thread, later attempts are made from completion threads without a request context
+        final OptionalLong deadline = RequestDeadline.current();
+        budget.deposit();
+        final CompletableFuture<T> result = new CompletableFuture<>();
+        attemptAsync(endpoint, call, 1, deadline, result);
+        return result;
+    }
+
+    private <T> void attemptAsync(final String endpoint, final Supplier<CompletableFuture<T>> call, final int attempt,
+        final OptionalLong deadline, final CompletableFuture<T> result) {
+        CompletableFuture<T> future;
+        try {
+            future = call.get();
+        } catch (final RuntimeException e) {
+            future = CompletableFuture.failedFuture(e);
+        }
+        future.whenComplete((value, throwable) -> {
+            final Throwable cause = throwable instanceof CompletionException && throwable.getCause() != null
+                ? throwable.getCause() : throwable;
+            attempted(endpoint, attempt, cause);
+            if (cause == null) {
+                result.complete(value);
+                return;
+            }
+            final long backoffNanos = backoffNanos(attempt);
+            if (!retry(endpoint, cause, attempt, backoffNanos, deadline)) {
+                result.completeExceptionally(cause);
+                return;
+            }
+            CompletableFuture.delayedExecutor(backoffNanos, TimeUnit.NANOSECONDS)
+                .execute(() -> attemptAsync(endpoint, call, attempt + 1, deadline, result));
+        });
+    }
+
+    private boolean retry(final String endpoint, final Throwable failure, final int attempt, final long backoffNanos,
+        final OptionalLong deadline) {
+        //a rejected call was never sent, retrying it would only be rejected again
+        if (!UpstreamGuard.isUpstreamFailure(failure) || failure instanceof UpstreamUnavailableException) {
+            return false;
+        }
+        if (attempt >= properties.getMaxAttempts()) {
+            return skipped(endpoint, "max_attempts");
+        }
+        //a retry that could only be cut off by the deadline would hold a connection for an answer nobody waits for
+        if (deadline.isPresent() && System.nanoTime() + backoffNanos + attemptNanos > deadline.getAsLong()) {
+            return skipped(endpoint, "deadline");
+        }
+        if (!budget.tryAcquire()) {
+            return skipped(endpoint, "budget");
+        }
+        return true;
+    }
+
+    //full jitter, anywhere between no backoff and the exponential backoff for this attempt
+    private long backoffNanos(final int attempt) {
+        final long exponential = properties.getInitialBackoff().toNanos() << Math.min(attempt - 1, 30);
+        final long capped = Math.min(properties.getMaxBackoff().toNanos(), Math.max(0, exponential));
+        return capped == 0 ? 0 : ThreadLocalRandom.current().nextLong(capped + 1);
+    }
+
+    private static boolean sleep(final long nanos) {
+        try {
+            Thread.sleep(Duration.ofNanos(nanos));
+            return true;
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private void attempted(final String endpoint, final int attempt, final Throwable failure) {
+        Counter.builder(METRIC_PREFIX + "attempts")
+            .description("Upstream call attempts by attempt number and outcome")
+            .tag(ENDPOINT_TAG, endpoint)
+            .tag("attempt", String.valueOf(attempt))
+            .tag("outcome", failure == null ? "success" : "failure")
+            .register(meterRegistry)
+            .increment();
+    }
+
+    private boolean skipped(final String endpoint, final String reason) {
+        Counter.builder(METRIC_PREFIX + "retries.skipped")
+            .description("Retryable upstream failures that were not retried")
+            .tag(ENDPOINT_TAG, endpoint)
+            .tag("reason", reason)
+            .register(meterRegistry)
+            .increment();
+        return false;
+    }
+}
@@ -0,0 +1,22 @@
+package com.audition.integration.resilience;
+
+import java.io.Serial;
+import java.time.Duration;
+import lombok.Getter;
+import org.springframework.web.client.RestClientException;
+
+//an upstream call rejected before it was sent, either its circuit breaker is open or the bulkhead is full
+@Getter
+public class UpstreamUnavailableException extends RestClientException {
+
+    @Serial
+    private static final long serialVersionUID = 3620734146284466815L;
+
+    //how long until calls are expected to be let through again
+    private final Duration retryAfter;
+
+    public UpstreamUnavailableException(final String message, final Duration retryAfter) {
+        super(message);
+        this.retryAfter = retryAfter;
+    }
+}
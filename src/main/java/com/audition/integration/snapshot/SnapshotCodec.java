@@ -0,0 +1,161 @@
+package com.audition.integration.snapshot;
+
+import com.audition.model.AuditionComment;
+import com.audition.model.AuditionPost;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.CRC32;
+
+//binary layout: magic, version, payload length and CRC32 of the payload, followed by the payload
+//strings are length prefixed UTF-8 and a collection that was not cached has a length of -1
+final class SnapshotCodec {
+
+    static final int MAGIC = 0x41554453;
+    static final int VERSION = 1;
+    static final int HEADER_LENGTH = 16;
+
+    private static final int ABSENT = -1;
+
+    private SnapshotCodec() {
+    }
+
+    static byte[] encode(final UpstreamSnapshot snapshot) throws IOException {
+        final ByteArrayOutputStream payload = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(payload)) {
+            out.writeLong(snapshot.createdAt().toEpochMilli());
+            writePosts(out, snapshot.posts());
+            writeComments(out, snapshot.comments());
+        }
+        final byte[] body = payload.toByteArray();
+        final CRC32 crc = new CRC32();
+        crc.update(body);
+
+        return ByteBuffer.allocate(HEADER_LENGTH + body.length)
+            .putInt(MAGIC)
+            .putInt(VERSION)
+            .putInt(body.length)
+            .putInt((int) crc.getValue())
+            .put(body)
+            .array();
+    }
+
+    //rejects a file of another format or version, a truncated file and a payload that fails its checksum
+    static UpstreamSnapshot decode(final ByteBuffer buffer) {
+        verifyHeader(buffer);
+        final Instant createdAt = Instant.ofEpochMilli(buffer.getLong());
+        return new UpstreamSnapshot(createdAt, readPosts(buffer), readComments(buffer));
+    }
+
+    private static void verifyHeader(final ByteBuffer buffer) {
+        if (buffer.remaining() < HEADER_LENGTH || buffer.getInt() != MAGIC) {
+            throw new IllegalArgumentException("Not an upstream snapshot");
+        }
+        final int version = buffer.getInt();
+        if (version != VERSION) {
+            throw new IllegalArgumentException("Unsupported snapshot version " + version);
+        }
+        //the checksum follows the length
+        if (buffer.getInt() != buffer.remaining() - Integer.BYTES) {
+            throw new IllegalArgumentException("Truncated snapshot");
+        }
+        verifyChecksum(buffer, buffer.getInt());
+    }
+
+    private static void verifyChecksum(final ByteBuffer buffer, final int checksum) {
+        final CRC32 crc = new CRC32();
+        crc.update(buffer.duplicate());
+        if ((int) crc.getValue() != checksum) {
+            throw new IllegalArgumentException("Snapshot checksum mismatch");
+        }
+    }
+
+    private static void writePosts(final DataOutputStream out, final List<AuditionPost> posts) throws IOException {
+        out.writeInt(posts == null ? ABSENT : posts.size());
+        if (posts != null) {
+            for (final AuditionPost post : posts) {
+                out.writeInt(post.getUserId());
+                out.writeInt(post.getId());
+                writeString(out, post.getTitle());
+                writeString(out, post.getBody());
+            }
+        }
+    }
+
+    private static void writeComments(final DataOutputStream out, final List<AuditionComment> comments)
+        throws IOException {
+        out.writeInt(comments == null ? ABSENT : comments.size());
+        if (comments != null) {
+            for (final AuditionComment comment : comments) {
+                out.writeInt(comment.getPostId());
+                out.writeInt(comment.getId());
+                writeString(out, comment.getName());
+                writeString(out, comment.getEmail());
+                writeString(out, comment.getBody());
+            }
+        }
+    }
+
+    @SuppressWarnings("PMD.ReturnEmptyCollectionRatherThanNull") //null marks a collection that was not cached
+    private static List<AuditionPost> readPosts(final ByteBuffer buffer) {
+        final int count = buffer.getInt();
+        if (count == ABSENT) {
+            return null;
+        }
+        checkLength(count, buffer);
+        final List<AuditionPost> posts = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            posts.add(new AuditionPost(buffer.getInt(), buffer.getInt(), readString(buffer), readString(buffer), null));
+        }
+        return Collections.unmodifiableList(posts);
+    }
+
+    @SuppressWarnings("PMD.ReturnEmptyCollectionRatherThanNull") //null marks a collection that was not cached
+    private static List<AuditionComment> readComments(final ByteBuffer buffer) {
+        final int count = buffer.getInt();
+        if (count == ABSENT) {
+            return null;
+        }
+        checkLength(count, buffer);
+        final List<AuditionComment> comments = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            comments.add(new AuditionComment(buffer.getInt(), buffer.getInt(), readString(buffer), readString(buffer),
+                readString(buffer)));
+        }
+        return Collections.unmodifiableList(comments);
+    }
+
+    private static void writeString(final DataOutputStream out, final String value) throws IOException {
+        if (value == null) {
+            out.writeInt(ABSENT);
+            return;
+        }
+        final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(final ByteBuffer buffer) {
+        final int length = buffer.getInt();
+        if (length == ABSENT) {
+            return null;
+        }
+        checkLength(length, buffer);
+        final byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    //every element takes at least one byte, so a count beyond the remaining bytes means a corrupt payload
+    private static void checkLength(final int length, final ByteBuffer buffer) {
+        if (length < 0 || length > buffer.remaining()) {
+            throw new IllegalArgumentException("Corrupt snapshot length " + length);
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package com.audition.integration.snapshot;
+
+import java.util.Optional;
+
+//an integration client whose cached data set is persisted by the SnapshotStore
+public interface SnapshotSource {
+
+    //empty while nothing is cached
+    Optional<UpstreamSnapshot> snapshot();
+
+    //seeds the caches and refreshes them from the upstream in the background
+    void restore(UpstreamSnapshot snapshot);
+}
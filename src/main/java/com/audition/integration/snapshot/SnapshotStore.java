@@ -0,0 +1,118 @@
+package com.audition.integration.snapshot;
+
+import com.audition.common.logging.AuditionLogger;
+import com.audition.configuration.IntegrationCacheProperties;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.stereotype.Component;
+
+//restores the cached upstream data set before the application takes traffic and writes it back every interval and
+//on shutdown, a missing, outdated or damaged snapshot only means a cold start
+@Component
+@Slf4j
+public class SnapshotStore implements SmartInitializingSingleton, DisposableBean {
+
+    private final transient IntegrationCacheProperties.Snapshot properties;
+    private final transient boolean enabled;
+    private final transient ObjectProvider<SnapshotSource> sources;
+    private final transient AuditionLogger logger;
+    private final transient ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+
+    public SnapshotStore(final IntegrationCacheProperties cacheProperties, final ObjectProvider<SnapshotSource> sources,
+        final AuditionLogger logger) {
+        this.properties = cacheProperties.getSnapshot();
+        //nothing is cached to persist or to restore into without caching
+        this.enabled = properties.isEnabled() && cacheProperties.isEnabled();
+        this.sources = sources;
+        this.logger = logger;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        final SnapshotSource source = activeSource();
+        if (source == null) {
+            return;
+        }
+
+        load().ifPresent(source::restore);
+        scheduler.setThreadNamePrefix("audition-snapshot-");
+        scheduler.setDaemon(true);
+        scheduler.initialize();
+        scheduler.scheduleWithFixedDelay(this::save, Instant.now().plus(properties.getInterval()),
+            properties.getInterval());
+    }
+
+    @Override
+    public void destroy() {
+        if (activeSource() != null) {
+            scheduler.shutdown();
+            //the freshest data set for the next start
+            save();
+        }
+    }
+
+    private SnapshotSource activeSource() {
+        return enabled ? sources.getIfUnique() : null;
+    }
+
+    @SuppressWarnings("PMD.GuardLogStatement") //already guarded within the method
+    Optional<UpstreamSnapshot> load() {
+        final Path path = properties.getPath();
+        if (!Files.isReadable(path)) {
+            return Optional.empty();
+        }
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            //the mapping is only read while decoding, nothing keeps a reference to it afterwards
+            final UpstreamSnapshot snapshot = SnapshotCodec.decode(
+                channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+            final Duration age = Duration.between(snapshot.createdAt(), Instant.now());
+            if (age.compareTo(properties.getMaxAge()) > 0) {
+                logger.info(log, "Ignoring upstream snapshot " + path + " created " + age + " ago");
+                return Optional.empty();
+            }
+            logger.info(log, "Restoring upstream snapshot " + path + " created " + age + " ago");
+            return Optional.of(snapshot);
+        } catch (final IOException | IllegalArgumentException | BufferUnderflowException e) {
+            logger.warn(log, "Ignoring unreadable upstream snapshot " + path + ": " + e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    void save() {
+        final SnapshotSource source = activeSource();
+        final Optional<UpstreamSnapshot> snapshot = source == null ? Optional.empty() : source.snapshot();
+        if (snapshot.isEmpty()) {
+            return;
+        }
+
+        final Path path = properties.getPath();
+        try {
+            final Path directory = path.toAbsolutePath().getParent();
+            Files.createDirectories(directory);
+            //written next to the target and moved over it, a reader never sees a partial file
+            final Path temporary = Files.createTempFile(directory, path.getFileName().toString(), ".tmp");
+            try {
+                Files.write(temporary, SnapshotCodec.encode(snapshot.get()));
+                Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(temporary);
+            }
+        } catch (final IOException e) {
+            logger.logErrorWithException(log, "Could not write upstream snapshot " + path, e);
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package com.audition.integration.snapshot;
+
+import com.audition.model.AuditionComment;
+import com.audition.model.AuditionPost;
+import java.time.Instant;
+import java.util.List;
+
+//the cached upstream data set, a collection is null when it was not cached at the time
+public record UpstreamSnapshot(Instant createdAt, List<AuditionPost> posts, List<AuditionComment> comments) {
+
+}
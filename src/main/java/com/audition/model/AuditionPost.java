@@ -2,11 +2,14 @@ package com.audition.model;
 
 import java.util.List;
 import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import lombok.With;
 
 @Getter
+@EqualsAndHashCode
 @NoArgsConstructor
 @AllArgsConstructor
 public class AuditionPost {
@@ -17,6 +20,7 @@ public class AuditionPost {
     private String body;
 
     @Setter
+    @With
     private List<AuditionComment> comments;
 
 }
@@ -0,0 +1,8 @@
+package com.audition.model;
+
+import java.util.List;
+
+//result of a batch lookup, every distinct requested id is either in posts or in errors
+public record PostBatch(List<AuditionPost> posts, List<PostLookupError> errors) {
+
+}
@@ -0,0 +1,6 @@
+package com.audition.model;
+
+//why a single id of a batch lookup could not be resolved, mirrors the problem detail of the single post endpoint
+public record PostLookupError(String id, int status, String title, String detail) {
+
+}
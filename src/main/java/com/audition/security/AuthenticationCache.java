@@ -0,0 +1,52 @@
+package com.audition.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.nio.charset.StandardCharsets;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.Optional;
+import org.springframework.security.core.Authentication;
+
+//successful authentications keyed by a salted digest of the presented credentials, the raw password is never kept
+//and the salt is random per node, so a key is of no use outside of this cache
+public class AuthenticationCache {
+
+    private static final String CACHE_NAME = "authentication";
+    private static final int SALT_LENGTH = 32;
+
+    private final transient Cache<String, Authentication> cache;
+    private final transient Hmac digest;
+
+    public AuthenticationCache(final AuthenticationProperties.Cache properties, final MeterRegistry meterRegistry) {
+        this.cache = Caffeine.newBuilder()
+            .maximumSize(properties.getMaximumSize())
+            .expireAfterWrite(properties.getTtl())
+            .recordStats()
+            .build();
+        final byte[] salt = new byte[SALT_LENGTH];
+        new SecureRandom().nextBytes(salt);
+        this.digest = new Hmac(salt);
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+    }
+
+    public String key(final String username, final String password) {
+        return Base64.getEncoder().encodeToString(digest.sign(username.getBytes(StandardCharsets.UTF_8),
+            password.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    public Optional<Authentication> get(final String key) {
+        return Optional.ofNullable(cache.getIfPresent(key));
+    }
+
+    public void put(final String key, final Authentication authentication) {
+        cache.put(key, authentication);
+    }
+
+    //every cached authentication of the user, whatever password it was made with
+    public void invalidate(final String username) {
+        cache.asMap().values().removeIf(authentication -> authentication.getName().equals(username));
+    }
+}
@@ -0,0 +1,36 @@
+package com.audition.security;
+
+import java.time.Duration;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "security.authentication")
+public class AuthenticationProperties {
+
+    private final Cache cache = new Cache();
+    private final Token token = new Token();
+
+    @Getter
+    @Setter
+    public static class Cache {
+
+        //repeated basic credentials are answered without the password encoder for up to ttl, failures are not cached
+        private boolean enabled = true;
+        private Duration ttl = Duration.ofMinutes(1);
+        private long maximumSize = 1000;
+    }
+
+    @Getter
+    @Setter
+    public static class Token {
+
+        //a successful basic authentication returns an X-Auth-Token that later requests may send as a bearer token
+        private boolean enabled = false;
+        private Duration ttl = Duration.ofMinutes(15);
+        //signing key shared by every node, a random key per node when empty
+        private String secret = "";
+    }
+}
@@ -0,0 +1,55 @@
+package com.audition.security;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.context.SecurityContextHolderStrategy;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+//runs after the basic authentication filter, a request authenticated by basic credentials gets a token in the
+//X-Auth-Token header and a request with a bearer token is authenticated from it
+public class AuthenticationTokenFilter extends OncePerRequestFilter {
+
+    public static final String TOKEN_HEADER = "X-Auth-Token";
+    private static final String BEARER = "Bearer ";
+    private static final String BASIC = "Basic ";
+
+    private final transient AuthenticationTokens tokens;
+    private final transient SecurityContextHolderStrategy securityContextHolderStrategy =
+        SecurityContextHolder.getContextHolderStrategy();
+
+    public AuthenticationTokenFilter(final AuthenticationTokens tokens) {
+        super();
+        this.tokens = tokens;
+    }
+
+    @Override
+    protected void doFilterInternal(final HttpServletRequest request, final HttpServletResponse response,
+        final FilterChain filterChain) throws ServletException, IOException {
+        final String authorization = request.getHeader(HttpHeaders.AUTHORIZATION);
+        if (startsWith(authorization, BEARER)) {
+            //an invalid token leaves the request unauthenticated, so it is answered with the usual 401
+            tokens.verify(authorization.substring(BEARER.length()).trim()).ifPresent(authentication -> {
+                final SecurityContext context = securityContextHolderStrategy.createEmptyContext();
+                context.setAuthentication(authentication);
+                securityContextHolderStrategy.setContext(context);
+            });
+        } else if (startsWith(authorization, BASIC)) {
+            final Authentication current = securityContextHolderStrategy.getContext().getAuthentication();
+            if (current != null && current.isAuthenticated()) {
+                tokens.issue(current.getName()).ifPresent(token -> response.setHeader(TOKEN_HEADER, token));
+            }
+        }
+        filterChain.doFilter(request, response);
+    }
+
+    private static boolean startsWith(final String authorization, final String scheme) {
+        return authorization != null && authorization.regionMatches(true, 0, scheme, 0, scheme.length());
+    }
+}
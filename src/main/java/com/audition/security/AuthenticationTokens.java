@@ -0,0 +1,93 @@
+package com.audition.security;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Clock;
+import java.util.Base64;
+import java.util.Optional;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+
+//stateless tokens of the form username.expiry.signature, a token is verified with one HMAC instead of the password
+//encoder and stops working once it expires or the stored password of its user changes, as that is signed along
+public class AuthenticationTokens {
+
+    private static final int SECRET_LENGTH = 32;
+    private static final String SEPARATOR = ".";
+
+    private final transient Hmac hmac;
+    private final transient long ttlSeconds;
+    private final transient UserDetailsService users;
+    private final transient Clock clock;
+
+    public AuthenticationTokens(final AuthenticationProperties.Token properties, final UserDetailsService users) {
+        this(properties, users, Clock.systemUTC());
+    }
+
+    AuthenticationTokens(final AuthenticationProperties.Token properties, final UserDetailsService users,
+        final Clock clock) {
+        this.hmac = new Hmac(secret(properties.getSecret()));
+        this.ttlSeconds = properties.getTtl().toSeconds();
+        this.users = users;
+        this.clock = clock;
+    }
+
+    //empty when the user no longer exists
+    public Optional<String> issue(final String username) {
+        final UserDetails user;
+        try {
+            user = users.loadUserByUsername(username);
+        } catch (final UsernameNotFoundException e) {
+            return Optional.empty();
+        }
+        final long expiry = clock.instant().getEpochSecond() + ttlSeconds;
+        final Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+        return Optional.of(encoder.encodeToString(username.getBytes(StandardCharsets.UTF_8)) + SEPARATOR + expiry
+            + SEPARATOR + encoder.encodeToString(sign(user, expiry)));
+    }
+
+    //empty for a malformed, expired or forged token and for a user that changed or can no longer log in
+    public Optional<Authentication> verify(final String token) {
+        final String[] parts = token.split("\\.", -1);
+        if (parts.length != 3) {
+            return Optional.empty();
+        }
+        try {
+            final long expiry = Long.parseLong(parts[1]);
+            if (expiry < clock.instant().getEpochSecond()) {
+                return Optional.empty();
+            }
+            final Base64.Decoder decoder = Base64.getUrlDecoder();
+            final UserDetails user = users.loadUserByUsername(
+                new String(decoder.decode(parts[0]), StandardCharsets.UTF_8));
+            if (!user.isEnabled() || !user.isAccountNonLocked() || !user.isAccountNonExpired()
+                || !user.isCredentialsNonExpired()
+                || !MessageDigest.isEqual(sign(user, expiry), decoder.decode(parts[2]))) {
+                return Optional.empty();
+            }
+            return Optional.of(UsernamePasswordAuthenticationToken.authenticated(user, null, user.getAuthorities()));
+        } catch (final IllegalArgumentException | UsernameNotFoundException e) {
+            //NumberFormatException is an IllegalArgumentException, as are malformed base64 parts
+            return Optional.empty();
+        }
+    }
+
+    private byte[] sign(final UserDetails user, final long expiry) {
+        return hmac.sign(user.getUsername().getBytes(StandardCharsets.UTF_8),
+            Long.toString(expiry).getBytes(StandardCharsets.UTF_8),
+            user.getPassword().getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static byte[] secret(final String configured) {
+        if (!configured.isBlank()) {
+            return configured.getBytes(StandardCharsets.UTF_8);
+        }
+        final byte[] secret = new byte[SECRET_LENGTH];
+        new SecureRandom().nextBytes(secret);
+        return secret;
+    }
+}
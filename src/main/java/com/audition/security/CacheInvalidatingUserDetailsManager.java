@@ -0,0 +1,70 @@
+package com.audition.security;
+
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
+import org.springframework.security.provisioning.InMemoryUserDetailsManager;
+import org.springframework.security.provisioning.UserDetailsManager;
+
+//user changes evict the cached authentications of the user, so a changed password, a disabled or a deleted user is
+//not let in from the cache
+public class CacheInvalidatingUserDetailsManager implements UserDetailsManager, UserDetailsPasswordService {
+
+    private final transient InMemoryUserDetailsManager delegate;
+    private final transient AuthenticationCache cache;
+
+    public CacheInvalidatingUserDetailsManager(final InMemoryUserDetailsManager delegate,
+        final AuthenticationCache cache) {
+        this.delegate = delegate;
+        this.cache = cache;
+    }
+
+    @Override
+    public UserDetails loadUserByUsername(final String username) {
+        return delegate.loadUserByUsername(username);
+    }
+
+    @Override
+    public void createUser(final UserDetails user) {
+        delegate.createUser(user);
+        cache.invalidate(user.getUsername());
+    }
+
+    @Override
+    public void updateUser(final UserDetails user) {
+        delegate.updateUser(user);
+        cache.invalidate(user.getUsername());
+    }
+
+    @Override
+    public void deleteUser(final String username) {
+        delegate.deleteUser(username);
+        cache.invalidate(username);
+    }
+
+    //for the user of the current security context
+    @Override
+    public void changePassword(final String oldPassword, final String newPassword) {
+        delegate.changePassword(oldPassword, newPassword);
+        cache.invalidate(currentUsername());
+    }
+
+    @Override
+    public boolean userExists(final String username) {
+        return delegate.userExists(username);
+    }
+
+    //called when the password encoding is upgraded on login, the password itself stays the same
+    @Override
+    public UserDetails updatePassword(final UserDetails user, final String newPassword) {
+        final UserDetails updated = delegate.updatePassword(user, newPassword);
+        cache.invalidate(user.getUsername());
+        return updated;
+    }
+
+    private static String currentUsername() {
+        final Authentication current = SecurityContextHolder.getContext().getAuthentication();
+        return current == null ? "" : current.getName();
+    }
+}
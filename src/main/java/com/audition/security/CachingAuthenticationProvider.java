@@ -0,0 +1,43 @@
+package com.audition.security;
+
+import java.util.Optional;
+import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+
+//answers repeated username and password credentials from the authentication cache, so that only the first request
+//of a client within the cache ttl pays for the password encoder, a failed attempt always does
+public class CachingAuthenticationProvider implements AuthenticationProvider {
+
+    private final transient AuthenticationProvider delegate;
+    private final transient AuthenticationCache cache;
+
+    public CachingAuthenticationProvider(final AuthenticationProvider delegate, final AuthenticationCache cache) {
+        this.delegate = delegate;
+        this.cache = cache;
+    }
+
+    @Override
+    public Authentication authenticate(final Authentication authentication) {
+        if (!(authentication.getCredentials() instanceof String password)) {
+            return delegate.authenticate(authentication);
+        }
+        //the key is taken before the delegate, which erases the credentials once it is done with them
+        final String key = cache.key(authentication.getName(), password);
+        final Optional<Authentication> cached = cache.get(key);
+        if (cached.isPresent()) {
+            return cached.get();
+        }
+        final Authentication result = delegate.authenticate(authentication);
+        if (result != null && result.isAuthenticated()) {
+            cache.put(key, result);
+        }
+        return result;
+    }
+
+    @Override
+    public boolean supports(final Class<?> authentication) {
+        return UsernamePasswordAuthenticationToken.class.isAssignableFrom(authentication)
+            && delegate.supports(authentication);
+    }
+}
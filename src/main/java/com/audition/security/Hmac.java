@@ -0,0 +1,38 @@
+package com.audition.security;
+
+import java.security.GeneralSecurityException;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+//HmacSHA256 over a sequence of fields, a Mac is not thread safe so each thread signs with its own
+final class Hmac {
+
+    private static final String ALGORITHM = "HmacSHA256";
+
+    private final transient ThreadLocal<Mac> mac;
+
+    Hmac(final byte[] key) {
+        final SecretKeySpec secretKey = new SecretKeySpec(key, ALGORITHM);
+        this.mac = ThreadLocal.withInitial(() -> {
+            try {
+                final Mac instance = Mac.getInstance(ALGORITHM);
+                instance.init(secretKey);
+                return instance;
+            } catch (final GeneralSecurityException e) {
+                throw new IllegalStateException(ALGORITHM + " is not available", e);
+            }
+        });
+    }
+
+    //fields are separated by a zero byte, so that moving bytes between fields changes the signature
+    byte[] sign(final byte[]... fields) {
+        final Mac instance = mac.get();
+        for (int i = 0; i < fields.length; i++) {
+            if (i > 0) {
+                instance.update((byte) 0);
+            }
+            instance.update(fields[i]);
+        }
+        return instance.doFinal();
+    }
+}
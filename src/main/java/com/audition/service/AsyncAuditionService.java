@@ -0,0 +1,104 @@
+package com.audition.service;
+
+import com.audition.integration.AsyncAuditionIntegrationClient;
+import com.audition.model.AuditionComment;
+import com.audition.model.AuditionPost;
+import com.audition.model.PostBatch;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicReference;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+@Service
+@ConditionalOnProperty(prefix = "integration.client", name = "execution", havingValue = "non-blocking")
+public class AsyncAuditionService {
+
+    private final transient AsyncAuditionIntegrationClient auditionIntegrationClient;
+    private final transient AtomicReference<PostIndex> postIndex = new AtomicReference<>();
+    private final transient AtomicReference<RangeSupport> rangeSupport = new AtomicReference<>(RangeSupport.UNKNOWN);
+
+    public AsyncAuditionService(final AsyncAuditionIntegrationClient auditionIntegrationClient) {
+        this.auditionIntegrationClient = auditionIntegrationClient;
+    }
+
+    public CompletableFuture<List<AuditionPost>> getPosts(final int offset, final int limit) {
+        if (!auditionIntegrationClient.isPaginationPushdown()) {
+            return auditionIntegrationClient.getPosts()
+                .thenApply(posts -> AuditionService.page(posts, offset, limit));
+        }
+
+        return getRangeSupport().thenCompose(support -> {
+            if (support == RangeSupport.UNKNOWN) {
+                //the probe found no posts at all
+                return CompletableFuture.completedFuture(Collections.emptyList());
+            }
+            if (support == RangeSupport.IGNORED) {
+                return auditionIntegrationClient.getPosts()
+                    .thenApply(posts -> AuditionService.page(posts, offset, limit));
+            }
+            return getPostsPage(offset, limit);
+        });
+    }
+
+    private CompletableFuture<List<AuditionPost>> getPostsPage(final int offset, final int limit) {
+        return auditionIntegrationClient.getPostsPage(offset, limit).thenCompose(posts -> {
+            if (posts.size() > limit) {
+                //the upstream stopped honouring the range parameters since it was probed
+                rangeSupport.set(RangeSupport.IGNORED);
+                return CompletableFuture.completedFuture(AuditionService.page(posts, offset, limit));
+            }
+            if (!AuditionService.isPastEnd(posts, offset)) {
+                return CompletableFuture.completedFuture(posts);
+            }
+            return auditionIntegrationClient.getPostsPage(0, 1).thenApply(first -> {
+                if (!first.isEmpty()) {
+                    throw AuditionService.offsetTooLarge(offset);
+                }
+                return posts;
+            });
+        });
+    }
+
+    //see AuditionService.getRangeSupport
+    private CompletableFuture<RangeSupport> getRangeSupport() {
+        final RangeSupport known = rangeSupport.get();
+        if (known != RangeSupport.UNKNOWN) {
+            return CompletableFuture.completedFuture(known);
+        }
+        return auditionIntegrationClient.getPostsPage(0, 1).thenCompose(first -> {
+            final CompletableFuture<List<AuditionPost>> second = RangeSupport.needsSecondPage(first)
+                ? auditionIntegrationClient.getPostsPage(1, 1)
+                : CompletableFuture.completedFuture(Collections.emptyList());
+            return second.thenApply(page -> {
+                final RangeSupport probed = RangeSupport.probe(first, page);
+                rangeSupport.set(probed);
+                return probed;
+            });
+        });
+    }
+
+    //see AuditionService.getPostsAfter
+    public CompletableFuture<PostPage> getPostsAfter(final String after, final int limit) {
+        final int afterId = PostCursor.decode(after);
+        return auditionIntegrationClient.getPosts()
+            .thenApply(posts -> postIndex.updateAndGet(current -> PostIndex.forPosts(current, posts)).after(afterId, limit));
+    }
+
+    public CompletableFuture<AuditionPost> getPostById(final String postId) {
+        return auditionIntegrationClient.getPostById(postId);
+    }
+
+    public CompletableFuture<AuditionPost> getPostWithCommentsById(final String id) {
+        return auditionIntegrationClient.getPostWithCommentsById(id);
+    }
+
+    public CompletableFuture<List<AuditionComment>> getCommentsByPostId(final String id) {
+        return auditionIntegrationClient.getCommentsByPostId(id);
+    }
+
+    public CompletableFuture<PostBatch> getPostsByIds(final List<String> ids, final boolean withComments) {
+        return auditionIntegrationClient.getPostsByIds(ids, withComments);
+    }
+}
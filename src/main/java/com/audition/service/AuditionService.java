@@ -4,30 +4,94 @@ import com.audition.common.exception.SystemException;
 import com.audition.integration.AuditionIntegrationClient;
 import com.audition.model.AuditionComment;
 import com.audition.model.AuditionPost;
+import com.audition.model.PostBatch;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 
 @Service
+@ConditionalOnProperty(prefix = "integration.client", name = "execution", havingValue = "blocking", matchIfMissing = true)
 public class AuditionService {
 
     private final transient AuditionIntegrationClient auditionIntegrationClient;
+    private final transient AtomicReference<PostIndex> postIndex = new AtomicReference<>();
+    private final transient AtomicReference<RangeSupport> rangeSupport = new AtomicReference<>(RangeSupport.UNKNOWN);
 
     public AuditionService(final AuditionIntegrationClient auditionIntegrationClient) {
         this.auditionIntegrationClient = auditionIntegrationClient;
     }
 
     public List<AuditionPost> getPosts(final int offset, final int limit) {
+        if (!auditionIntegrationClient.isPaginationPushdown()) {
+            return page(auditionIntegrationClient.getPosts(), offset, limit);
+        }
+
+        final RangeSupport support = getRangeSupport();
+        if (support == RangeSupport.UNKNOWN) {
+            //the probe found no posts at all
+            return Collections.emptyList();
+        }
+        if (support == RangeSupport.IGNORED) {
+            return page(auditionIntegrationClient.getPosts(), offset, limit);
+        }
+
+        final List<AuditionPost> posts = auditionIntegrationClient.getPostsPage(offset, limit);
+        if (posts.size() > limit) {
+            //the upstream stopped honouring the range parameters since it was probed
+            rangeSupport.set(RangeSupport.IGNORED);
+            return page(posts, offset, limit);
+        }
+        if (isPastEnd(posts, offset) && !auditionIntegrationClient.getPostsPage(0, 1).isEmpty()) {
+            throw offsetTooLarge(offset);
+        }
+        return posts;
+    }
+
+    private RangeSupport getRangeSupport() {
+        final RangeSupport known = rangeSupport.get();
+        if (known != RangeSupport.UNKNOWN) {
+            return known;
+        }
+        final List<AuditionPost> first = auditionIntegrationClient.getPostsPage(0, 1);
+        final List<AuditionPost> second = RangeSupport.needsSecondPage(first)
+            ? auditionIntegrationClient.getPostsPage(1, 1) : Collections.emptyList();
+        final RangeSupport probed = RangeSupport.probe(first, second);
+        rangeSupport.set(probed);
+        return probed;
+    }
+
+    public void streamPosts(final int offset, final int limit, final Consumer<AuditionPost> sink) {
+        if (auditionIntegrationClient.isPaginationPushdown()) {
+            //a pushed down page holds at most limit posts, so it is fetched whole
+            getPosts(offset, limit).forEach(sink);
+            return;
+        }
+
+        final int read = auditionIntegrationClient.streamPosts(offset, limit, sink);
+        //nothing has been emitted when the upstream ran out of posts before reaching the offset
+        if (read > 0 && read <= offset) {
+            throw offsetTooLarge(offset);
+        }
+    }
+
+    //keyset page over the cached posts, stable while posts are added or removed upstream
+    public PostPage getPostsAfter(final String after, final int limit) {
+        final int afterId = PostCursor.decode(after);
         final List<AuditionPost> posts = auditionIntegrationClient.getPosts();
+        return postIndex.updateAndGet(current -> PostIndex.forPosts(current, posts)).after(afterId, limit);
+    }
 
+    static List<AuditionPost> page(final List<AuditionPost> posts, final int offset, final int limit) {
         if (posts.isEmpty()) {
             return Collections.emptyList();
         }
 
         if (offset >= posts.size()) {
-            throw new SystemException("Offset Param cannot be greater than amount of Posts: " + offset, "Bad Request",
-                HttpStatus.BAD_REQUEST.value());
+            throw offsetTooLarge(offset);
         }
 
         final int endIndex = Math.min(offset + limit, posts.size());
@@ -35,6 +99,12 @@ public class AuditionService {
         return posts.subList(offset, endIndex);
     }
 
+    //an empty page past the start is only an error when the collection has posts at all, which costs one more
+    //single post request instead of downloading the collection
+    static boolean isPastEnd(final List<AuditionPost> page, final int offset) {
+        return page.isEmpty() && offset > 0;
+    }
+
     public AuditionPost getPostById(final String postId) {
         return auditionIntegrationClient.getPostById(postId);
     }
@@ -46,4 +116,13 @@ public class AuditionService {
     public List<AuditionComment> getCommentsByPostId(final String id) {
         return auditionIntegrationClient.getCommentsByPostId(id);
     }
+
+    public PostBatch getPostsByIds(final List<String> ids, final boolean withComments) {
+        return auditionIntegrationClient.getPostsByIds(ids, withComments);
+    }
+
+    static SystemException offsetTooLarge(final int offset) {
+        return new SystemException("Offset Param cannot be greater than amount of Posts: " + offset, "Bad Request",
+            HttpStatus.BAD_REQUEST.value());
+    }
 }
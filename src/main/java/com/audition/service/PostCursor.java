@@ -0,0 +1,43 @@
+package com.audition.service;
+
+import com.audition.common.exception.SystemException;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import org.springframework.http.HttpStatus;
+
+//opaque page cursor, the url safe base64 of the id of the last post on the previous page
+final class PostCursor {
+
+    private static final String PREFIX = "id:";
+
+    private PostCursor() {
+    }
+
+    static String encode(final int id) {
+        return Base64.getUrlEncoder().withoutPadding()
+            .encodeToString((PREFIX + id).getBytes(StandardCharsets.UTF_8));
+    }
+
+    //an empty cursor starts at the first post
+    static int decode(final String cursor) {
+        if (cursor.isEmpty()) {
+            return Integer.MIN_VALUE;
+        }
+
+        final String value;
+        try {
+            value = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            if (value.startsWith(PREFIX)) {
+                return Integer.parseInt(value.substring(PREFIX.length()));
+            }
+        } catch (final IllegalArgumentException e) {
+            throw invalid(cursor, e);
+        }
+        throw invalid(cursor, null);
+    }
+
+    private static SystemException invalid(final String cursor, final Throwable cause) {
+        return new SystemException("Invalid cursor: " + cursor, "Bad Request", HttpStatus.BAD_REQUEST.value(),
+            cause);
+    }
+}
@@ -0,0 +1,37 @@
+package com.audition.service;
+
+import com.audition.model.AuditionPost;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+//cached posts sorted by id, a cursor page is a binary search for the cursor id followed by a sublist
+final class PostIndex {
+
+    private final transient List<AuditionPost> source;
+    private final transient List<AuditionPost> posts;
+    private final transient int[] ids;
+
+    private PostIndex(final List<AuditionPost> source) {
+        this.source = source;
+        this.posts = source.stream()
+            .sorted(Comparator.comparingInt(AuditionPost::getId))
+            .toList();
+        this.ids = posts.stream().mapToInt(AuditionPost::getId).toArray();
+    }
+
+    //the index is only rebuilt when the cache hands out a new list
+    @SuppressWarnings("PMD.CompareObjectsWithEquals") //identity of the cached list, equals would compare every post
+    static PostIndex forPosts(final PostIndex current, final List<AuditionPost> posts) {
+        return current != null && current.source == posts ? current : new PostIndex(posts);
+    }
+
+    PostPage after(final int afterId, final int limit) {
+        final int position = Arrays.binarySearch(ids, afterId);
+        //a cursor id that is no longer cached resumes at the next larger id
+        final int start = position >= 0 ? position + 1 : -position - 1;
+        final int end = Math.min(start + limit, ids.length);
+        final String next = end < ids.length ? PostCursor.encode(ids[end - 1]) : null;
+        return new PostPage(posts.subList(start, end), next);
+    }
+}
@@ -0,0 +1,9 @@
+package com.audition.service;
+
+import com.audition.model.AuditionPost;
+import java.util.List;
+
+//a keyset page, next is the cursor of the following page or null on the last page
+public record PostPage(List<AuditionPost> posts, String next) {
+
+}
@@ -0,0 +1,27 @@
+package com.audition.service;
+
+import com.audition.model.AuditionPost;
+import java.util.List;
+
+//whether the upstream honours the range parameters, learnt from its first and second single post pages: an upstream
+//that ignores them answers both alike with the whole collection, which a size check on the requested page alone
+//misses whenever the collection fits in that page
+enum RangeSupport {
+
+    HONOURED,
+    IGNORED,
+    //no posts to tell by, probed again on the next call
+    UNKNOWN;
+
+    static RangeSupport probe(final List<AuditionPost> first, final List<AuditionPost> second) {
+        if (first.isEmpty()) {
+            return UNKNOWN;
+        }
+        return first.size() == 1 && !second.equals(first) ? HONOURED : IGNORED;
+    }
+
+    //the second page is only needed when the first one holds a single post
+    static boolean needsSecondPage(final List<AuditionPost> first) {
+        return first.size() == 1;
+    }
+}
@@ -0,0 +1,83 @@
+package com.audition.web;
+
+import com.audition.model.AuditionComment;
+import com.audition.model.AuditionPost;
+import com.audition.model.PostBatch;
+import com.audition.service.AsyncAuditionService;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.PositiveOrZero;
+import jakarta.validation.constraints.Size;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+import org.springframework.web.util.UriComponentsBuilder;
+
+//same endpoints as AuditionController, the servlet thread is released until the upstream future completes
+@RestController
+@ConditionalOnProperty(prefix = "integration.client", name = "execution", havingValue = "non-blocking")
+@Validated
+public class AsyncAuditionController {
+
+    private final transient AsyncAuditionService auditionService;
+
+    public AsyncAuditionController(final AsyncAuditionService auditionService) {
+        this.auditionService = auditionService;
+    }
+
+    //see AuditionController.getPostsAfter, the request uri is captured while still on the request thread
+    @GetMapping(value = "/posts", params = {"after", "!ids"}, produces = MediaType.APPLICATION_JSON_VALUE)
+    public CompletableFuture<ResponseEntity<List<AuditionPost>>> getPostsAfter(
+        @RequestParam final String after,
+        @RequestParam(defaultValue = "100") @Max(500) @Positive final int limit) {
+
+        final UriComponentsBuilder requestUri = ServletUriComponentsBuilder.fromCurrentRequest();
+        return auditionService.getPostsAfter(after, limit)
+            .thenApply(page -> PostPageResponses.toResponse(page, requestUri));
+    }
+
+    @GetMapping(value = "/posts", params = {"ids", "!after"}, produces = MediaType.APPLICATION_JSON_VALUE)
+    public CompletableFuture<PostBatch> getPostsByIds(
+        @RequestParam @Size(min = 1, max = 200) final List<@Positive String> ids,
+        @RequestParam(defaultValue = "false") final boolean comments) {
+
+        return auditionService.getPostsByIds(ids, comments);
+    }
+
+    //see AuditionController.rejectAfterWithIds
+    @GetMapping(value = "/posts", params = {"after", "ids"}, produces = MediaType.APPLICATION_JSON_VALUE)
+    public void rejectAfterWithIds() {
+        throw AuditionController.afterWithIds();
+    }
+
+    @GetMapping(value = "/posts", produces = MediaType.APPLICATION_JSON_VALUE)
+    public CompletableFuture<List<AuditionPost>> getPosts(
+        @RequestParam(defaultValue = "0") @PositiveOrZero final int offset,
+        @RequestParam(defaultValue = "100") @Max(500) @Positive final int limit) {
+
+        return auditionService.getPosts(offset, limit);
+    }
+
+    @GetMapping(value = "/posts/{id}", produces = MediaType.APPLICATION_JSON_VALUE)
+    public CompletableFuture<AuditionPost> getPosts(@PathVariable("id") @Positive final String postId) {
+        return auditionService.getPostById(postId);
+    }
+
+    @GetMapping(value = "/posts/{id}/comments", produces = MediaType.APPLICATION_JSON_VALUE)
+    public CompletableFuture<AuditionPost> getPostsWithComments(@PathVariable("id") @Positive final String postId) {
+        return auditionService.getPostWithCommentsById(postId);
+    }
+
+    @GetMapping(value = "/comments", produces = MediaType.APPLICATION_JSON_VALUE)
+    public CompletableFuture<List<AuditionComment>> getComments(@RequestParam @Positive final String postId) {
+        return auditionService.getCommentsByPostId(postId);
+    }
+}
@@ -1,35 +1,88 @@
 package com.audition.web;
 
+import com.audition.common.exception.SystemException;
 import com.audition.model.AuditionComment;
 import com.audition.model.AuditionPost;
+import com.audition.model.PostBatch;
 import com.audition.service.AuditionService;
+import com.audition.service.PostPage;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Positive;
 import jakarta.validation.constraints.PositiveOrZero;
+import jakarta.validation.constraints.Size;
+import java.io.IOException;
 import java.util.List;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.filter.ShallowEtagHeaderFilter;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
 @RestController
+@ConditionalOnProperty(prefix = "integration.client", name = "execution", havingValue = "blocking", matchIfMissing = true)
 @Validated
 public class AuditionController {
 
     private final transient AuditionService auditionService;
+    private final transient ObjectMapper objectMapper;
 
-    public AuditionController(final AuditionService auditionService) {
+    public AuditionController(final AuditionService auditionService, final ObjectMapper objectMapper) {
         this.auditionService = auditionService;
+        this.objectMapper = objectMapper;
     }
 
+    //posts are written to the response as they are read from the upstream rather than collected into a list first
     @GetMapping(value = "/posts", produces = MediaType.APPLICATION_JSON_VALUE)
-    public List<AuditionPost> getPosts(
+    public void streamPosts(
         @RequestParam(defaultValue = "0") @PositiveOrZero final int offset,
+        @RequestParam(defaultValue = "100") @Max(500) @Positive final int limit,
+        final HttpServletRequest request, final HttpServletResponse response) throws IOException {
+
+        //a shallow ETag is a hash of the whole body, computing it would buffer the response this writes as it goes
+        ShallowEtagHeaderFilter.disableContentCaching(request);
+        final JsonArrayStreamWriter<AuditionPost> writer = new JsonArrayStreamWriter<>(objectMapper,
+            AuditionPost.class, request, response);
+        auditionService.streamPosts(offset, limit, writer);
+        writer.finish();
+    }
+
+    //cursor mode, an empty after starts at the first post and the next page is linked from the response
+    @GetMapping(value = "/posts", params = {"after", "!ids"}, produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<List<AuditionPost>> getPostsAfter(
+        @RequestParam final String after,
         @RequestParam(defaultValue = "100") @Max(500) @Positive final int limit) {
 
-        return auditionService.getPosts(offset, limit);
+        final PostPage page = auditionService.getPostsAfter(after, limit);
+        return PostPageResponses.toResponse(page, ServletUriComponentsBuilder.fromCurrentRequest());
+    }
+
+    //batch lookup, duplicate ids are resolved once and an id that cannot be resolved is reported in errors
+    @GetMapping(value = "/posts", params = {"ids", "!after"}, produces = MediaType.APPLICATION_JSON_VALUE)
+    public PostBatch getPostsByIds(
+        @RequestParam @Size(min = 1, max = 200) final List<@Positive String> ids,
+        @RequestParam(defaultValue = "false") final boolean comments) {
+
+        return auditionService.getPostsByIds(ids, comments);
+    }
+
+    //a cursor page and a batch lookup are different responses, neither is picked over the other
+    @GetMapping(value = "/posts", params = {"after", "ids"}, produces = MediaType.APPLICATION_JSON_VALUE)
+    public void rejectAfterWithIds() {
+        throw afterWithIds();
+    }
+
+    static SystemException afterWithIds() {
+        return new SystemException("Query params after and ids cannot be combined", "Bad Request",
+            HttpStatus.BAD_REQUEST.value());
     }
 
     @GetMapping(value = "/posts/{id}", produces = MediaType.APPLICATION_JSON_VALUE)
@@ -0,0 +1,61 @@
+package com.audition.web;
+
+import com.audition.web.advice.StaleResponseAdvice;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.function.Consumer;
+import org.springframework.http.MediaType;
+
+//writes elements to the response as they are produced, nothing is written before the first element
+//so failures up to that point still reach the exception handlers
+class JsonArrayStreamWriter<T> implements Consumer<T> {
+
+    private final transient ObjectMapper objectMapper;
+    private final transient ObjectWriter elementWriter;
+    private final transient HttpServletRequest request;
+    private final transient HttpServletResponse response;
+    private transient JsonGenerator generator;
+
+    JsonArrayStreamWriter(final ObjectMapper objectMapper, final Class<T> elementType,
+        final HttpServletRequest request, final HttpServletResponse response) {
+        this.objectMapper = objectMapper;
+        this.elementWriter = objectMapper.writerFor(elementType)
+            .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        this.request = request;
+        this.response = response;
+    }
+
+    @Override
+    public void accept(final T element) {
+        try {
+            start();
+            elementWriter.writeValue(generator, element);
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    void finish() throws IOException {
+        start();
+        generator.writeEndArray();
+        generator.close();
+    }
+
+    private void start() throws IOException {
+        if (generator == null) {
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            //the upstream data has been read by now, so it is known whether any of it was stale
+            StaleResponseAdvice.addHeaders(request, response);
+            generator = objectMapper.getFactory().createGenerator(response.getOutputStream());
+            //the container owns the output stream, it may be wrapped by filters that still need to write to it
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.writeStartArray();
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.audition.web;
+
+import com.audition.model.AuditionPost;
+import com.audition.service.PostPage;
+import java.util.List;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.util.UriComponentsBuilder;
+
+//the body stays the plain post array of offset mode, the next cursor travels in a Link header
+final class PostPageResponses {
+
+    private PostPageResponses() {
+    }
+
+    static ResponseEntity<List<AuditionPost>> toResponse(final PostPage page, final UriComponentsBuilder requestUri) {
+        final ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.next() != null) {
+            response.header(HttpHeaders.LINK,
+                "<" + requestUri.replaceQueryParam("after", page.next()).build().toUriString() + ">; rel=\"next\"");
+        }
+        return response.body(page.posts());
+    }
+}
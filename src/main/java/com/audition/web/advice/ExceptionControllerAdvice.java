@@ -5,12 +5,15 @@ import static org.springframework.http.HttpStatus.METHOD_NOT_ALLOWED;
 
 import com.audition.common.exception.SystemException;
 import com.audition.common.logging.AuditionLogger;
+import com.audition.integration.resilience.UpstreamUnavailableException;
 import io.micrometer.common.util.StringUtils;
 import jakarta.validation.ConstraintViolationException;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.HttpStatusCode;
 import org.springframework.http.ProblemDetail;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.HttpRequestMethodNotSupportedException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -38,6 +41,15 @@ public class ExceptionControllerAdvice extends ResponseEntityExceptionHandler {
         return createProblemDetail(e, e.getStatusCode());
     }
 
+    //the upstream was not called, clients may retry once calls are let through again
+    @ExceptionHandler(UpstreamUnavailableException.class)
+    ResponseEntity<ProblemDetail> handleUpstreamUnavailableException(final UpstreamUnavailableException e) {
+        final long retryAfterSeconds = Math.max(1, (e.getRetryAfter().toMillis() + 999) / 1000);
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+            .header(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds))
+            .body(createProblemDetail(e, HttpStatus.SERVICE_UNAVAILABLE));
+    }
+
     @ExceptionHandler(ConstraintViolationException.class)
     ProblemDetail handleConstraintViolationException(final ConstraintViolationException e) {
         return createProblemDetail(e, HttpStatus.BAD_REQUEST);
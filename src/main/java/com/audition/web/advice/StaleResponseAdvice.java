@@ -0,0 +1,52 @@
+package com.audition.web.advice;
+
+import com.audition.integration.cache.StaleResponse;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.util.function.BiConsumer;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+//marks responses answered from a last known good value with the age of the oldest value and a warning, 110 while
+//the upstream was only slow and 111 once it failed
+@ControllerAdvice
+public class StaleResponseAdvice implements ResponseBodyAdvice<Object> {
+
+    private static final String WARNING = "Warning";
+    private static final String RESPONSE_IS_STALE = "110 - \"Response is Stale\"";
+    private static final String REVALIDATION_FAILED = "111 - \"Revalidation Failed\"";
+
+    //for handlers that write the response themselves, before the first byte is written
+    public static void addHeaders(final HttpServletRequest request, final HttpServletResponse response) {
+        StaleResponse.of(request).ifPresent(stale -> addHeaders(stale, response::addHeader));
+    }
+
+    @Override
+    public boolean supports(final MethodParameter returnType,
+        final Class<? extends HttpMessageConverter<?>> converterType) {
+        return true;
+    }
+
+    @Override
+    public Object beforeBodyWrite(final Object body, final MethodParameter returnType,
+        final MediaType selectedContentType, final Class<? extends HttpMessageConverter<?>> selectedConverterType,
+        final ServerHttpRequest request, final ServerHttpResponse response) {
+        if (request instanceof ServletServerHttpRequest servletRequest) {
+            StaleResponse.of(servletRequest.getServletRequest())
+                .ifPresent(stale -> addHeaders(stale, response.getHeaders()::add));
+        }
+        return body;
+    }
+
+    private static void addHeaders(final StaleResponse stale, final BiConsumer<String, String> headers) {
+        headers.accept(HttpHeaders.AGE, String.valueOf(stale.getAge().toSeconds()));
+        headers.accept(WARNING, stale.isRevalidationFailed() ? REVALIDATION_FAILED : RESPONSE_IS_STALE);
+    }
+}
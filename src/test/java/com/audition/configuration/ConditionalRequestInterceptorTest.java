@@ -0,0 +1,139 @@
+package com.audition.configuration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.header;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.headerDoesNotExist;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withStatus;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.mock.http.client.MockClientHttpRequest;
+import org.springframework.mock.http.client.MockClientHttpResponse;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.web.client.RestTemplate;
+
+class ConditionalRequestInterceptorTest {
+
+    private static final String URL = "http://upstream/posts/1";
+    private static final String ETAG_VALUE = "\"v1\"";
+    private static final String BODY = "{\"id\":1}";
+    private static final String METRIC_NAME = "audition.upstream.revalidations";
+    private static final String RESULT_TAG = "result";
+
+    private transient SimpleMeterRegistry meterRegistry;
+    private transient RestTemplate restTemplate;
+    private transient MockRestServiceServer upstream;
+
+    @BeforeEach
+    void setup() {
+        meterRegistry = new SimpleMeterRegistry();
+        restTemplate = new RestTemplate();
+        restTemplate.setInterceptors(List.of(
+            new ConditionalRequestInterceptor(new IntegrationClientProperties.Revalidation(), meterRegistry)));
+        upstream = MockRestServiceServer.bindTo(restTemplate).build();
+    }
+
+    @Test
+    void givenStoredEtagWhenUpstreamNotModifiedThenStoredBodyIsReturned() {
+        upstream.expect(requestTo(URL))
+            .andExpect(headerDoesNotExist(HttpHeaders.IF_NONE_MATCH))
+            .andRespond(withSuccess(BODY, MediaType.APPLICATION_JSON).headers(etag(ETAG_VALUE)));
+        upstream.expect(requestTo(URL))
+            .andExpect(header(HttpHeaders.IF_NONE_MATCH, ETAG_VALUE))
+            .andRespond(withStatus(HttpStatus.NOT_MODIFIED));
+
+        restTemplate.getForObject(URL, String.class);
+        final String revalidated = restTemplate.getForObject(URL, String.class);
+
+        assertEquals(BODY, revalidated);
+        assertEquals(1, meterRegistry.get(METRIC_NAME).tag(RESULT_TAG, "not_modified").counter().count());
+        upstream.verify();
+    }
+
+    @Test
+    void givenStoredEtagWhenUpstreamChangedThenNewBodyReplacesStoredOne() {
+        upstream.expect(requestTo(URL))
+            .andRespond(withSuccess(BODY, MediaType.APPLICATION_JSON).headers(etag(ETAG_VALUE)));
+        upstream.expect(requestTo(URL))
+            .andExpect(header(HttpHeaders.IF_NONE_MATCH, ETAG_VALUE))
+            .andRespond(withSuccess("{\"id\":2}", MediaType.APPLICATION_JSON).headers(etag("\"v2\"")));
+        upstream.expect(requestTo(URL))
+            .andExpect(header(HttpHeaders.IF_NONE_MATCH, "\"v2\""))
+            .andRespond(withStatus(HttpStatus.NOT_MODIFIED));
+
+        restTemplate.getForObject(URL, String.class);
+        restTemplate.getForObject(URL, String.class);
+
+        assertEquals("{\"id\":2}", restTemplate.getForObject(URL, String.class));
+        assertEquals(1, meterRegistry.get(METRIC_NAME).tag(RESULT_TAG, "modified").counter().count());
+    }
+
+    @Test
+    void givenResponseWithoutValidatorsWhenRequestedAgainThenRequestIsUnconditional() {
+        upstream.expect(requestTo(URL))
+            .andRespond(withSuccess(BODY, MediaType.APPLICATION_JSON));
+        upstream.expect(requestTo(URL))
+            .andExpect(headerDoesNotExist(HttpHeaders.IF_NONE_MATCH))
+            .andExpect(headerDoesNotExist(HttpHeaders.IF_MODIFIED_SINCE))
+            .andRespond(withSuccess(BODY, MediaType.APPLICATION_JSON));
+
+        restTemplate.getForObject(URL, String.class);
+
+        assertEquals(BODY, restTemplate.getForObject(URL, String.class));
+        upstream.verify();
+    }
+
+    @Test
+    void givenStoredLastModifiedWhenRequestedAgainThenIfModifiedSinceIsSent() {
+        final HttpHeaders headers = new HttpHeaders();
+        headers.setLastModified(1_700_000_000_000L);
+        upstream.expect(requestTo(URL))
+            .andRespond(withSuccess(BODY, MediaType.APPLICATION_JSON).headers(headers));
+        upstream.expect(requestTo(URL))
+            .andExpect(header(HttpHeaders.IF_MODIFIED_SINCE, headers.getFirst(HttpHeaders.LAST_MODIFIED)))
+            .andRespond(withStatus(HttpStatus.NOT_MODIFIED));
+
+        restTemplate.getForObject(URL, String.class);
+
+        assertEquals(BODY, restTemplate.getForObject(URL, String.class));
+        upstream.verify();
+    }
+
+    @Test
+    void givenDefaultConfigurationWhenUpstreamSendsValidatorsThenBodyIsNotCopiedBeforeItIsRead() {
+        final ByteArrayInputStream connection = new ByteArrayInputStream(BODY.getBytes(StandardCharsets.UTF_8));
+        final MockClientHttpResponse response = new MockClientHttpResponse(connection, HttpStatus.OK);
+        response.getHeaders().setETag(ETAG_VALUE);
+        final IntegrationClientProperties properties = new IntegrationClientProperties();
+        final RestTemplate configured = new WebServiceConfiguration().restTemplate((uri, method) -> {
+            final MockClientHttpRequest request = new MockClientHttpRequest(method, uri);
+            request.setResponse(response);
+            return request;
+        }, properties, new StaticListableBeanFactory().getBeanProvider(MeterRegistry.class),
+            new UpstreamMetrics(meterRegistry), new RestTemplateLoggingInterceptor(properties.getLogging(),
+                meterRegistry));
+
+        //a stored copy would have drained the connection before the extractor got to read it
+        final int unread = configured.execute(URL, HttpMethod.GET, null, extracted -> connection.available());
+
+        assertEquals(BODY.length(), unread);
+    }
+
+    private static HttpHeaders etag(final String etag) {
+        final HttpHeaders headers = new HttpHeaders();
+        headers.setETag(etag);
+        return headers;
+    }
+}
@@ -0,0 +1,94 @@
+package com.audition.configuration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.net.http.HttpClient;
+import java.time.Duration;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+
+@SuppressWarnings("PMD.UnitTestShouldIncludeAssert") //assertions are made inside the context runner callbacks
+class HttpClientTransportConfigurationTest {
+
+    private static final String POOL_MAX_METRIC = "audition.http.client.pool.max";
+
+    private final transient ApplicationContextRunner contextRunner = new ApplicationContextRunner()
+        .withUserConfiguration(TransportTestConfiguration.class);
+
+    @Test
+    void givenNoTransportPropertyWhenContextStartsThenPooledTransportIsUsed() {
+        contextRunner.run(context -> {
+            assertThat(context).getBean(ClientHttpRequestFactory.class)
+                .isInstanceOf(HttpComponentsClientHttpRequestFactory.class);
+            assertThat(context).hasSingleBean(PoolingHttpClientConnectionManager.class);
+            assertThat(context).hasSingleBean(HttpClientPoolMetrics.class);
+        });
+    }
+
+    @Test
+    void givenPoolPropertiesWhenContextStartsThenPoolIsBounded() {
+        contextRunner
+            .withPropertyValues("integration.client.pool.max-total=20", "integration.client.pool.max-per-route=5")
+            .run(context -> {
+                final PoolingHttpClientConnectionManager connectionManager = context.getBean(
+                    PoolingHttpClientConnectionManager.class);
+                assertThat(connectionManager.getMaxTotal()).isEqualTo(20);
+                assertThat(connectionManager.getDefaultMaxPerRoute()).isEqualTo(5);
+            });
+    }
+
+    @Test
+    void givenSimpleTransportWhenContextStartsThenNoPoolIsCreated() {
+        contextRunner
+            .withPropertyValues("integration.client.transport=simple")
+            .run(context -> {
+                assertThat(context).getBean(ClientHttpRequestFactory.class)
+                    .isInstanceOf(SimpleClientHttpRequestFactory.class);
+                assertThat(context).doesNotHaveBean(PoolingHttpClientConnectionManager.class);
+                assertThat(context).doesNotHaveBean(HttpClientPoolMetrics.class);
+            });
+    }
+
+    @Test
+    void givenNonBlockingExecutionWhenContextStartsThenJdkHttpClientIsCreated() {
+        contextRunner
+            .withPropertyValues("integration.client.execution=non-blocking", "integration.client.connect-timeout=3s")
+            .run(context -> assertThat(context.getBean(HttpClient.class).connectTimeout())
+                .contains(Duration.ofSeconds(3)));
+    }
+
+    @Test
+    void givenBlockingExecutionWhenContextStartsThenNoJdkHttpClientIsCreated() {
+        contextRunner.run(context -> assertThat(context).doesNotHaveBean(HttpClient.class));
+    }
+
+    @Test
+    void givenPoolMetricsWhenBoundThenPoolGaugesAreRegistered() {
+        contextRunner
+            .withPropertyValues("integration.client.pool.max-total=20")
+            .run(context -> {
+                final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+                context.getBean(HttpClientPoolMetrics.class).bindTo(registry);
+
+                assertThat(registry.get(POOL_MAX_METRIC).gauge().value()).isEqualTo(20);
+                assertThat(registry.get("audition.http.client.pool.leased").gauge().value()).isZero();
+                assertThat(registry.get("audition.http.client.pool.available").gauge()).isNotNull();
+                assertThat(registry.get("audition.http.client.pool.pending").gauge()).isNotNull();
+            });
+    }
+
+    @Configuration(proxyBeanMethods = false)
+    @EnableConfigurationProperties(IntegrationClientProperties.class)
+    @Import(HttpClientTransportConfiguration.class)
+    static class TransportTestConfiguration {
+
+    }
+}
@@ -0,0 +1,131 @@
+package com.audition.configuration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.ServletException;
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockAsyncContext;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+class InboundConcurrencyLimiterTest {
+
+    private static final String PATH = "/posts/1";
+    private static final String IN_FLIGHT = "audition.inbound.in.flight";
+
+    private transient InboundLimiterProperties properties;
+    private transient SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setup() {
+        properties = new InboundLimiterProperties();
+        properties.setInitialLimit(1);
+        properties.setMinLimit(1);
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @Test
+    void givenLimitNotReachedWhenRequestedThenRequestIsServedAndPermitReleased() throws ServletException,
+        IOException {
+        final InboundConcurrencyLimiter limiter = createLimiter();
+        final MockFilterChain chain = new MockFilterChain();
+
+        limiter.doFilter(new MockHttpServletRequest("GET", PATH), new MockHttpServletResponse(), chain);
+
+        assertNotNull(chain.getRequest());
+        assertEquals(0, meterRegistry.get(IN_FLIGHT).gauge().value());
+    }
+
+    @Test
+    void givenLimitReachedWhenRequestedThenProblemDetailIsReturnedWithoutServingIt() throws ServletException,
+        IOException {
+        final InboundConcurrencyLimiter limiter = createLimiter();
+        final MockHttpServletResponse rejected = new MockHttpServletResponse();
+        final AtomicInteger served = new AtomicInteger();
+
+        limiter.doFilter(new MockHttpServletRequest("GET", PATH), new MockHttpServletResponse(),
+            (request, response) -> {
+                served.incrementAndGet();
+                limiter.doFilter(new MockHttpServletRequest("GET", PATH), rejected,
+                    (nestedRequest, nestedResponse) -> served.incrementAndGet());
+            });
+
+        assertEquals(1, served.get());
+        assertEquals(503, rejected.getStatus());
+        assertEquals("1", rejected.getHeader(HttpHeaders.RETRY_AFTER));
+        assertEquals(MediaType.APPLICATION_PROBLEM_JSON_VALUE, rejected.getContentType());
+        assertEquals(PATH, new ObjectMapper().readTree(rejected.getContentAsByteArray()).get("instance").asText());
+        assertEquals(1, meterRegistry.get("audition.inbound.rejected").counter().count());
+    }
+
+    @Test
+    void givenAsyncRequestWhenHandlerReturnsThenPermitIsHeldUntilResponseCompletes() throws ServletException,
+        IOException {
+        final InboundConcurrencyLimiter limiter = createLimiter();
+        final MockHttpServletRequest request = new MockHttpServletRequest("GET", PATH);
+        request.setAsyncSupported(true);
+
+        limiter.doFilter(request, new MockHttpServletResponse(),
+            (servletRequest, servletResponse) -> servletRequest.startAsync());
+
+        assertEquals(1, meterRegistry.get(IN_FLIGHT).gauge().value());
+        ((MockAsyncContext) request.getAsyncContext()).complete();
+        assertEquals(0, meterRegistry.get(IN_FLIGHT).gauge().value());
+    }
+
+    @Test
+    void givenRisingLatencyUnderLoadWhenSampledThenLimitShrinks() {
+        properties.setInitialLimit(100);
+        final GradientLimit limit = new GradientLimit(properties);
+
+        sample(limit, 200, 10_000_000L);
+        sample(limit, 50, 100_000_000L);
+
+        assertTrue(limit.getLimit() < 100);
+    }
+
+    @Test
+    void givenFlatLatencyUnderLoadWhenSampledThenLimitGrowsUpToMax() {
+        properties.setInitialLimit(20);
+        properties.setMaxLimit(40);
+        final GradientLimit limit = new GradientLimit(properties);
+
+        for (int i = 0; i < 500; i++) {
+            limit.onSample(10_000_000L, limit.getLimit());
+        }
+
+        assertEquals(40, limit.getLimit());
+    }
+
+    @Test
+    void givenFewRequestsInFlightWhenLatencyRisesThenLimitIsUnchanged() {
+        properties.setInitialLimit(100);
+        final GradientLimit limit = new GradientLimit(properties);
+
+        for (int i = 0; i < 100; i++) {
+            limit.onSample(10_000_000L * (i + 1), 1);
+        }
+
+        assertEquals(100, limit.getLimit());
+    }
+
+    private InboundConcurrencyLimiter createLimiter() {
+        return new InboundConcurrencyLimiter(properties, new ObjectMapper(), meterRegistry);
+    }
+
+    private static void sample(final GradientLimit limit, final int times, final long latencyNanos) {
+        for (int i = 0; i < times; i++) {
+            limit.onSample(latencyNanos, limit.getLimit());
+        }
+    }
+}
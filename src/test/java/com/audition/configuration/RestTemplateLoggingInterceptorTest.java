@@ -1,25 +1,41 @@
 package com.audition.configuration;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
 import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpRequest;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.client.ClientHttpRequestExecution;
 import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.mock.http.client.MockClientHttpRequest;
+import org.springframework.mock.http.client.MockClientHttpResponse;
+import org.springframework.util.unit.DataSize;
 
 class RestTemplateLoggingInterceptorTest {
 
+    private static final String BODY = "[{\"id\":1}]";
+
     @SuppressWarnings("PMD.CloseResource") //mock object
     @Test
     void givenInterceptWhenRequestIsMadeThenLogRequestIsCalled() throws IOException {
-        final ObjectMapper objectMapper = new ObjectMapper();
-        final RestTemplateLoggingInterceptor interceptor = new RestTemplateLoggingInterceptor(objectMapper);
+        final RestTemplateLoggingInterceptor interceptor = new RestTemplateLoggingInterceptor(
+            new IntegrationClientProperties.Logging(), new SimpleMeterRegistry());
 
         final HttpRequest request = mock(HttpRequest.class);
         final byte[] body = "test body".getBytes();
@@ -34,4 +50,68 @@ class RestTemplateLoggingInterceptorTest {
         verify(execution).execute(request, body);
         assertEquals(mockResponse, response);
     }
+
+    @Test
+    void givenSampledCallWhenResponseIsReadThenItsPrefixIsLoggedInTheBackground() throws IOException,
+        InterruptedException {
+        final Logger logger = (Logger) LoggerFactory.getLogger(RestTemplateLoggingInterceptor.class);
+        final Level previousLevel = logger.getLevel();
+        final ListAppender<ILoggingEvent> appender = new ListAppender<>();
+        appender.start();
+        logger.addAppender(appender);
+        logger.setLevel(Level.DEBUG);
+        try {
+            final IntegrationClientProperties.Logging properties = new IntegrationClientProperties.Logging();
+            properties.setSamplePercent(100);
+            properties.setMaxBodySize(DataSize.ofBytes(4));
+            final RestTemplateLoggingInterceptor interceptor = new RestTemplateLoggingInterceptor(properties,
+                new SimpleMeterRegistry());
+
+            try (ClientHttpResponse response = interceptor.intercept(
+                new MockClientHttpRequest(HttpMethod.GET, URI.create("http://upstream/posts")), new byte[0],
+                (request, body) -> new MockClientHttpResponse(BODY.getBytes(StandardCharsets.UTF_8), HttpStatus.OK))) {
+                //the reader still gets the whole body, the log only a copy of its prefix
+                assertEquals(BODY, new String(response.getBody().readAllBytes(), StandardCharsets.UTF_8));
+            }
+
+            final List<ILoggingEvent> events = appender.list;
+            for (int i = 0; i < 100 && events.size() < 2; i++) {
+                Thread.sleep(10);
+            }
+            assertEquals(2, events.size());
+            assertTrue(events.get(1).getFormattedMessage().endsWith("body=[{\"i... (truncated to 4 bytes)"));
+        } finally {
+            logger.setLevel(previousLevel);
+            logger.detachAppender(appender);
+        }
+    }
+
+    @Test
+    void givenQueuedEntriesWhenDestroyedThenTheyAreWrittenBeforeTheWriterStops() throws IOException {
+        final Logger logger = (Logger) LoggerFactory.getLogger(RestTemplateLoggingInterceptor.class);
+        final Level previousLevel = logger.getLevel();
+        final ListAppender<ILoggingEvent> appender = new ListAppender<>();
+        appender.start();
+        logger.addAppender(appender);
+        logger.setLevel(Level.DEBUG);
+        try {
+            final IntegrationClientProperties.Logging properties = new IntegrationClientProperties.Logging();
+            properties.setSamplePercent(100);
+            final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+            final RestTemplateLoggingInterceptor interceptor = new RestTemplateLoggingInterceptor(properties,
+                meterRegistry);
+
+            for (int i = 0; i < 50; i++) {
+                interceptor.intercept(new MockClientHttpRequest(HttpMethod.GET, URI.create("http://upstream/posts")),
+                    new byte[0], (request, body) -> new MockClientHttpResponse(new byte[0], HttpStatus.OK)).close();
+            }
+            interceptor.destroy();
+
+            assertEquals(100, appender.list.size());
+            assertEquals(0, meterRegistry.get("audition.upstream.logging.dropped").counter().count());
+        } finally {
+            logger.setLevel(previousLevel);
+            logger.detachAppender(appender);
+        }
+    }
 }
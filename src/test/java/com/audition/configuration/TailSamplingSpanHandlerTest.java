@@ -0,0 +1,97 @@
+package com.audition.configuration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import brave.handler.MutableSpan;
+import brave.handler.SpanHandler;
+import brave.handler.SpanHandler.Cause;
+import brave.propagation.TraceContext;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+
+class TailSamplingSpanHandlerTest {
+
+    private static final long START_MICROS = 1_000_000L;
+
+    private final transient RecordingReporter reporter = new RecordingReporter();
+
+    private transient TailSamplingSpanHandler handler;
+
+    @BeforeEach
+    void setup() {
+        final TracingSamplingProperties.Tail properties = new TracingSamplingProperties.Tail();
+        properties.setSlowThreshold(Duration.ofMillis(500));
+        final StaticListableBeanFactory beanFactory = new StaticListableBeanFactory();
+        handler = new TailSamplingSpanHandler(properties, beanFactory.getBeanProvider(SpanHandler.class));
+        //the handler is one of the span handler beans it hands kept spans to, it skips itself
+        beanFactory.addBean("tail", handler);
+        beanFactory.addBean("reporter", reporter);
+    }
+
+    @Test
+    void givenUnsampledFastSpanWhenEndedThenItIsDropped() {
+        assertFalse(handler.end(context(false), span(Duration.ofMillis(20)), Cause.FINISHED));
+        assertTrue(reporter.reported.isEmpty());
+    }
+
+    @Test
+    void givenUnsampledSlowSpanWhenEndedThenItIsReportedAsSampled() {
+        final MutableSpan slow = span(Duration.ofMillis(600));
+
+        assertFalse(handler.end(context(false), slow, Cause.FINISHED));
+        assertEquals(List.of(slow), reporter.reported);
+        assertEquals(List.of(true), reporter.sampled);
+    }
+
+    @Test
+    void givenUnsampledFailedSpanWhenEndedThenItIsReported() {
+        final MutableSpan failed = span(Duration.ofMillis(20));
+        failed.tag("outcome", "SERVER_ERROR");
+        final MutableSpan thrown = span(Duration.ofMillis(20));
+        thrown.error(new IllegalStateException("failed"));
+
+        handler.end(context(false), failed, Cause.FINISHED);
+        handler.end(context(false), thrown, Cause.FINISHED);
+
+        assertEquals(List.of(failed, thrown), reporter.reported);
+    }
+
+    @Test
+    void givenSampledFastSpanWhenEndedThenItIsPassedAlongTheChain() {
+        assertTrue(handler.end(context(true), span(Duration.ofMillis(20)), Cause.FINISHED));
+        assertTrue(reporter.reported.isEmpty());
+    }
+
+    private static TraceContext context(final boolean sampled) {
+        return TraceContext.newBuilder().traceId(1).spanId(2).sampled(sampled).build();
+    }
+
+    private static MutableSpan span(final Duration duration) {
+        final MutableSpan span = new MutableSpan();
+        span.startTimestamp(START_MICROS);
+        span.finishTimestamp(START_MICROS + duration.toNanos() / 1000);
+        return span;
+    }
+
+    //like the zipkin reporter, only spans of sampled contexts are reported
+    private static final class RecordingReporter extends SpanHandler {
+
+        private final transient List<MutableSpan> reported = new CopyOnWriteArrayList<>();
+        private final transient List<Boolean> sampled = new CopyOnWriteArrayList<>();
+
+        @Override
+        public boolean end(final TraceContext context, final MutableSpan span, final Cause cause) {
+            sampled.add(context.sampled());
+            if (Boolean.TRUE.equals(context.sampled())) {
+                reported.add(span);
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.audition.configuration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withException;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withStatus;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.IOException;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestTemplate;
+
+class UpstreamMetricsInterceptorTest {
+
+    private static final String BASE_URL = "http://upstream";
+    private static final String BODY = "{\"id\":1}";
+    private static final String REQUESTS = "audition.upstream.requests";
+    private static final String ENDPOINT_TAG = "endpoint";
+    private static final String STATUS_TAG = "status";
+
+    private transient SimpleMeterRegistry meterRegistry;
+    private transient RestTemplate restTemplate;
+    private transient MockRestServiceServer upstream;
+
+    @BeforeEach
+    void setup() {
+        meterRegistry = new SimpleMeterRegistry();
+        restTemplate = new RestTemplate();
+        restTemplate.setInterceptors(List.of(new UpstreamMetricsInterceptor(new UpstreamMetrics(meterRegistry))));
+        upstream = MockRestServiceServer.bindTo(restTemplate).build();
+    }
+
+    @Test
+    void givenSuccessfulExchangeWhenResponseIsReadThenItIsTimedWithItsPayloadSize() {
+        upstream.expect(requestTo(BASE_URL + "/posts/1")).andRespond(withSuccess(BODY, MediaType.APPLICATION_JSON));
+
+        restTemplate.getForObject(BASE_URL + "/posts/1", String.class);
+
+        assertEquals(1, meterRegistry.get(REQUESTS).tag(ENDPOINT_TAG, "post").tag("outcome", "SUCCESS")
+            .tag(STATUS_TAG, "200").timer().count());
+        assertEquals(BODY.length(), meterRegistry.get("audition.upstream.payload.size").tag(ENDPOINT_TAG, "post")
+            .summary().totalAmount());
+    }
+
+    @Test
+    void givenBufferedBodyReadTwiceWhenResponseIsClosedThenPayloadIsCountedOnce() {
+        //mirrors the logging interceptor reading the buffered body before the message converter does
+        upstream = MockRestServiceServer.bindTo(restTemplate).bufferContent().build();
+        upstream.expect(requestTo(BASE_URL + "/posts")).andRespond(withSuccess(BODY, MediaType.APPLICATION_JSON));
+        restTemplate.setInterceptors(List.of((request, body, execution) -> {
+            final ClientHttpResponse response = execution.execute(request, body);
+            response.getBody().readAllBytes();
+            return response;
+        }, new UpstreamMetricsInterceptor(new UpstreamMetrics(meterRegistry))));
+
+        restTemplate.getForObject(BASE_URL + "/posts", String.class);
+
+        assertEquals(BODY.length(), meterRegistry.get("audition.upstream.payload.size").tag(ENDPOINT_TAG, "posts")
+            .summary().totalAmount());
+    }
+
+    @Test
+    void givenServerErrorWhenExchangedThenItIsTimedWithItsStatus() {
+        upstream.expect(requestTo(BASE_URL + "/comments?postId=1")).andRespond(withStatus(HttpStatus.BAD_GATEWAY));
+
+        assertThrows(HttpServerErrorException.class,
+            () -> restTemplate.getForObject(BASE_URL + "/comments?postId=1", String.class));
+
+        assertEquals(1, meterRegistry.get(REQUESTS).tag(ENDPOINT_TAG, "comments").tag("outcome", "SERVER_ERROR")
+            .tag(STATUS_TAG, "502").timer().count());
+    }
+
+    @Test
+    void givenIoErrorWhenExchangedThenItIsTimedAsIoError() {
+        upstream.expect(requestTo(BASE_URL + "/posts/1/comments")).andRespond(withException(new IOException("reset")));
+
+        assertThrows(ResourceAccessException.class,
+            () -> restTemplate.getForObject(BASE_URL + "/posts/1/comments", String.class));
+
+        assertEquals(1, meterRegistry.get(REQUESTS).tag(ENDPOINT_TAG, "comments").tag(STATUS_TAG, "IO_ERROR")
+            .timer().count());
+    }
+
+    @Test
+    void givenUpstreamPathsWhenClassifiedThenTheyMapToTheirCallType() {
+        assertEquals("posts", UpstreamMetrics.endpoint("/posts"));
+        assertEquals("post", UpstreamMetrics.endpoint("/posts/7"));
+        assertEquals("comments", UpstreamMetrics.endpoint("/posts/7/comments"));
+        assertEquals("comments", UpstreamMetrics.endpoint("/comments"));
+        assertEquals("post", UpstreamMetrics.endpoint("/api/posts/7"));
+        assertEquals("other", UpstreamMetrics.endpoint("/users/1"));
+    }
+}
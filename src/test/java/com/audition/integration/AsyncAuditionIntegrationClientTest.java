@@ -0,0 +1,245 @@
+package com.audition.integration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import com.audition.common.exception.SystemException;
+import com.audition.common.logging.AuditionLogger;
+import com.audition.configuration.IntegrationCacheProperties;
+import com.audition.configuration.IntegrationClientProperties;
+import com.audition.configuration.UpstreamMetrics;
+import com.audition.integration.cache.IntegrationCacheFactory;
+import com.audition.integration.resilience.RequestHedger;
+import com.audition.integration.resilience.UpstreamGuard;
+import com.audition.integration.resilience.UpstreamRetrier;
+import com.audition.model.AuditionComment;
+import com.audition.model.AuditionPost;
+import com.audition.model.PostBatch;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.net.ConnectException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+
+@ExtendWith(MockitoExtension.class)
+@SuppressWarnings({"PMD.TooManyMethods", "PMD.ExcessiveImports"}) //JDK client types are stubbed for thorough coverage
+class AsyncAuditionIntegrationClientTest {
+
+    private static final String BASE_URL = "http://upstream";
+    private static final String POST_PATH = "/posts/1";
+    private static final String POST_COMMENTS_PATH = "/posts/1/comments";
+    private static final String COMMENTS_QUERY_PATH = "/comments?postId=1";
+    private static final String SOME_ID = "1";
+    private static final String NOT_FOUND_BODY = "{}";
+    private static final String POST_JSON = "{\"userId\":1,\"id\":1,\"title\":\"title1\",\"body\":\"body1\"}";
+    private static final String SECOND_POST_JSON = "{\"userId\":1,\"id\":2,\"title\":\"title2\",\"body\":\"body2\"}";
+    private static final String COMMENTS_JSON = "[{\"postId\":1,\"id\":1,\"name\":\"name\",\"email\":\"a@b.com\","
+        + "\"body\":\"body\"}]";
+
+    @Mock
+    private transient HttpClient httpClient;
+
+    @Mock
+    private transient AuditionLogger logger;
+
+    private final transient Map<String, CompletableFuture<HttpResponse<byte[]>>> responses = new ConcurrentHashMap<>();
+
+    private transient AsyncAuditionIntegrationClient auditionIntegrationClient;
+    private transient SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setup() {
+        meterRegistry = new SimpleMeterRegistry();
+        final CompletableFuture<HttpResponse<byte[]>> notFound = CompletableFuture.completedFuture(
+            response(404, NOT_FOUND_BODY));
+        lenient().when(httpClient.sendAsync(any(), any())).thenAnswer(invocation -> {
+            final URI uri = invocation.getArgument(0, HttpRequest.class).uri();
+            final String path = uri.getPath() + (uri.getQuery() == null ? "" : "?" + uri.getQuery());
+            return responses.getOrDefault(path, notFound);
+        });
+        final IntegrationClientProperties properties = new IntegrationClientProperties();
+        //comments are fetched per post unless a test opts into the comment index
+        properties.setCommentIndex(false);
+        auditionIntegrationClient = createClient(properties);
+    }
+
+    private AsyncAuditionIntegrationClient createClient(final IntegrationClientProperties properties) {
+        final AsyncAuditionIntegrationClient client = new AsyncAuditionIntegrationClient(httpClient,
+            new ObjectMapper(), logger, properties,
+            new IntegrationCacheFactory(new IntegrationCacheProperties(), new SimpleMeterRegistry()),
+            new RequestCoalescer(new IntegrationClientProperties(), new SimpleMeterRegistry()),
+            new UpstreamGuard(properties, new SimpleMeterRegistry(), logger),
+            new RequestHedger(properties, Runnable::run, new SimpleMeterRegistry()),
+            new UpstreamRetrier(properties, new SimpleMeterRegistry()), new UpstreamMetrics(meterRegistry));
+        ReflectionTestUtils.setField(client, "baseUrl", BASE_URL);
+        return client;
+    }
+
+    @Test
+    void givenGetPostByIdWhenPostExistsThenReturnsPost() {
+        respond(POST_PATH, 200, POST_JSON);
+
+        final AuditionPost post = auditionIntegrationClient.getPostById(SOME_ID).join();
+
+        assertEquals(new AuditionPost(1, 1, "title1", "body1", null), post);
+    }
+
+    @Test
+    void givenGetPostByIdWhenUpstreamAnswersThenRequestIsTimedWithItsPayloadSize() {
+        respond(POST_PATH, 200, POST_JSON);
+
+        auditionIntegrationClient.getPostById(SOME_ID).join();
+
+        assertEquals(1, meterRegistry.get("audition.upstream.requests").tag("endpoint", "post")
+            .tag("outcome", "SUCCESS").tag("status", "200").timer().count());
+        assertEquals(POST_JSON.length(), meterRegistry.get("audition.upstream.payload.size").summary().totalAmount());
+    }
+
+    @Test
+    void givenGetPostByIdWhenRequestedTwiceThenUpstreamIsCalledOnce() {
+        respond(POST_PATH, 200, POST_JSON);
+
+        auditionIntegrationClient.getPostById(SOME_ID).join();
+        auditionIntegrationClient.getPostById(SOME_ID).join();
+
+        verify(httpClient, times(1)).sendAsync(any(), any());
+    }
+
+    @Test
+    void givenGetPostByIdWhenPostMissingThenCompletesWithNotFoundSystemException() {
+        final SystemException exception = failure(auditionIntegrationClient.getPostById(SOME_ID),
+            SystemException.class);
+
+        assertEquals(404, exception.getStatusCode());
+        assertEquals("Cannot find a Post with id 1", exception.getMessage());
+    }
+
+    @Test
+    void givenGetPostsWhenUpstreamFailsThenCompletesWithServerErrorAndIsNotCached() {
+        respond("/posts", 500, NOT_FOUND_BODY);
+
+        failure(auditionIntegrationClient.getPosts(), HttpServerErrorException.class);
+        respond("/posts", 200, "[]");
+
+        assertTrue(auditionIntegrationClient.getPosts().join().isEmpty());
+    }
+
+    @Test
+    void givenGetPostByIdWhenConnectionFailsThenCompletesWithResourceAccessException() {
+        responses.put(POST_PATH, CompletableFuture.failedFuture(new ConnectException("refused")));
+
+        failure(auditionIntegrationClient.getPostById(SOME_ID), ResourceAccessException.class);
+    }
+
+    @Test
+    void givenGetPostWithCommentsWhenBothExistThenCommentsAreAttached() {
+        respond(POST_PATH, 200, POST_JSON);
+        respond(POST_COMMENTS_PATH, 200, COMMENTS_JSON);
+
+        final AuditionPost post = auditionIntegrationClient.getPostWithCommentsById(SOME_ID).join();
+
+        assertEquals(1, post.getComments().size());
+        assertNull(auditionIntegrationClient.getPostById(SOME_ID).join().getComments());
+    }
+
+    @Test
+    void givenGetPostWithCommentsWhenPostMissingAndCommentsFailThenPostErrorTakesPrecedence() {
+        respond(POST_COMMENTS_PATH, 500, NOT_FOUND_BODY);
+
+        final SystemException exception = failure(auditionIntegrationClient.getPostWithCommentsById(SOME_ID),
+            SystemException.class);
+
+        assertEquals("Cannot find a Post with id 1", exception.getMessage());
+    }
+
+    @Test
+    void givenGetCommentsByPostIdWhenPostExistsThenReturnsComments() {
+        respond(POST_PATH, 200, POST_JSON);
+        respond(COMMENTS_QUERY_PATH, 200, COMMENTS_JSON);
+
+        final List<AuditionComment> comments = auditionIntegrationClient.getCommentsByPostId(SOME_ID).join();
+
+        assertEquals(1, comments.size());
+        assertEquals("a@b.com", comments.get(0).getEmail());
+    }
+
+    @Test
+    void givenGetCommentsByPostIdWhenCommentsMissingThenCompletesWithCommentsNotFound() {
+        respond(POST_PATH, 200, POST_JSON);
+
+        final SystemException exception = failure(auditionIntegrationClient.getCommentsByPostId(SOME_ID),
+            SystemException.class);
+
+        assertEquals("Cannot find Comments for a Post with id 1", exception.getMessage());
+    }
+
+    @Test
+    void givenGetPostsByIdsWhenUpstreamFailsForOneIdThenOnlyThatIdIsReportedAsError() {
+        respond(POST_PATH, 200, POST_JSON);
+        respond("/posts/2", 500, NOT_FOUND_BODY);
+
+        final PostBatch batch = auditionIntegrationClient.getPostsByIds(List.of(SOME_ID, "2", "3"), false).join();
+
+        assertEquals(List.of(new AuditionPost(1, 1, "title1", "body1", null)), batch.posts());
+        assertEquals(List.of("2", "3"), batch.errors().stream().map(error -> error.id()).toList());
+        assertEquals(List.of(500, 404), batch.errors().stream().map(error -> error.status()).toList());
+    }
+
+    @Test
+    void givenCommentIndexWhenPostHasNoCommentsThenCompletesWithEmptyListAndOnlyBulkFetches() {
+        final AsyncAuditionIntegrationClient client = createClient(new IntegrationClientProperties());
+        respond("/posts", 200, "[" + POST_JSON + "," + SECOND_POST_JSON + "]");
+        respond("/comments", 200, COMMENTS_JSON);
+
+        assertEquals(1, client.getPostWithCommentsById(SOME_ID).join().getComments().size());
+        assertTrue(client.getCommentsByPostId("2").join().isEmpty());
+        failure(client.getCommentsByPostId("3"), SystemException.class);
+
+        //the posts collection and every comment, no post is fetched on its own
+        verify(httpClient, times(2)).sendAsync(any(), any());
+    }
+
+    private void respond(final String path, final int status, final String body) {
+        responses.put(path, CompletableFuture.completedFuture(response(status, body)));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static HttpResponse<byte[]> response(final int status, final String body) {
+        final HttpResponse<byte[]> response = mock(HttpResponse.class);
+        lenient().when(response.statusCode()).thenReturn(status);
+        lenient().when(response.body()).thenReturn(body.getBytes(StandardCharsets.UTF_8));
+        lenient().when(response.headers()).thenReturn(HttpHeaders.of(Collections.emptyMap(), (name, value) -> true));
+        return response;
+    }
+
+    private static <T extends Throwable> T failure(final CompletableFuture<?> future, final Class<T> type) {
+        final CompletionException exception = assertThrows(CompletionException.class, future::join);
+        return assertInstanceOf(type, exception.getCause());
+    }
+}
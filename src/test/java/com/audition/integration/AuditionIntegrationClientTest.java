@@ -3,33 +3,64 @@ package com.audition.integration;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
 
 import com.audition.common.exception.SystemException;
 import com.audition.common.logging.AuditionLogger;
+import com.audition.configuration.IntegrationCacheProperties;
+import com.audition.configuration.IntegrationClientProperties;
+import com.audition.integration.cache.IntegrationCacheFactory;
+import com.audition.integration.resilience.RequestHedger;
+import com.audition.integration.resilience.UpstreamGuard;
+import com.audition.integration.resilience.UpstreamRetrier;
+import com.audition.integration.resilience.UpstreamUnavailableException;
+import com.audition.integration.snapshot.UpstreamSnapshot;
 import com.audition.model.AuditionComment;
 import com.audition.model.AuditionPost;
+import com.audition.model.PostBatch;
+import com.audition.model.PostLookupError;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.net.SocketTimeoutException;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 import java.util.stream.IntStream;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.client.MockRestServiceServer;
 import org.springframework.web.client.RestTemplate;
 
 @ExtendWith(MockitoExtension.class)
-@SuppressWarnings("PMD.TooManyMethods") //need the test cases for thorough coverage
+@SuppressWarnings({"PMD.TooManyMethods", "PMD.ExcessiveImports", "PMD.DoNotUseThreads"}) //need the test cases for thorough coverage
 class AuditionIntegrationClientTest {
 
     private static final int SOME_ID = 1;
@@ -43,6 +74,7 @@ class AuditionIntegrationClientTest {
     private static final String RESOURCE_NOT_FOUND = "Resource " + NOT_FOUND;
     private static final String CANNOT_FIND_POST_WITH_ID = "Cannot find a Post with id ";
     private static final String UNHANDLED_ERROR = "500 Unhandled Error";
+    private static final String STREAM_BASE_URL = "http://upstream";
 
     @Mock
     private transient RestTemplate restTemplate;
@@ -50,12 +82,40 @@ class AuditionIntegrationClientTest {
     @Mock
     private transient AuditionLogger logger;
 
-    @InjectMocks
+    private transient ExecutorService executor;
+
+    private transient RestTemplate streamingRestTemplate;
+
+    private transient MockRestServiceServer upstream;
+
+    private transient IntegrationClientProperties clientProperties;
+
     private transient AuditionIntegrationClient auditionIntegrationClient;
 
     @BeforeEach
     void setup() {
-        auditionIntegrationClient = new AuditionIntegrationClient(restTemplate, logger);
+        clientProperties = new IntegrationClientProperties();
+        //comments are fetched per post unless a test opts into the comment index
+        clientProperties.setCommentIndex(false);
+        executor = Executors.newFixedThreadPool(4);
+        streamingRestTemplate = new RestTemplate();
+        upstream = MockRestServiceServer.bindTo(streamingRestTemplate).build();
+        auditionIntegrationClient = createClient(new IntegrationCacheProperties());
+    }
+
+    private AuditionIntegrationClient createClient(final IntegrationCacheProperties cacheProperties) {
+        return new AuditionIntegrationClient(restTemplate, streamingRestTemplate,
+            new ObjectMapper().disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES), logger,
+            new IntegrationCacheFactory(cacheProperties, new SimpleMeterRegistry()), executor,
+            new RequestCoalescer(new IntegrationClientProperties(), new SimpleMeterRegistry()),
+            new UpstreamGuard(clientProperties, new SimpleMeterRegistry(), logger),
+            new RequestHedger(clientProperties, executor, new SimpleMeterRegistry()),
+            new UpstreamRetrier(clientProperties, new SimpleMeterRegistry()), clientProperties);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
     }
 
     @Test
@@ -87,6 +147,22 @@ class AuditionIntegrationClientTest {
         );
     }
 
+    @Test
+    void givenGetPostsPageWhenCalledThenRangeIsSentUpstream() {
+        final List<AuditionPost> expectedPosts = List.of(new AuditionPost(1, 11, TITLE_1, BODY_1, null));
+
+        when(restTemplate.exchange(
+            MOCK_POST_ENDPOINT + "?_start=10&_limit=1",
+            HttpMethod.GET,
+            null,
+            new ParameterizedTypeReference<List<AuditionPost>>() {
+            }
+        )).thenReturn(new ResponseEntity<>(expectedPosts, HttpStatus.OK));
+
+        assertEquals(expectedPosts, auditionIntegrationClient.getPostsPage(10, 1));
+        assertTrue(auditionIntegrationClient.isPaginationPushdown());
+    }
+
     @Test
     void givenGetPostsWhenNoPostsThenReturnEmptyList() {
         final ResponseEntity<List<AuditionPost>> response = new ResponseEntity<>(Collections.emptyList(),
@@ -112,6 +188,59 @@ class AuditionIntegrationClientTest {
         );
     }
 
+    @Test
+    void givenCachingDisabledWhenStreamingPostsThenOnlyRequestedPageIsBound() {
+        final IntegrationCacheProperties cacheProperties = new IntegrationCacheProperties();
+        cacheProperties.setEnabled(false);
+        final AuditionIntegrationClient client = createClient(cacheProperties);
+        ReflectionTestUtils.setField(client, "baseUrl", STREAM_BASE_URL);
+        upstream.expect(requestTo(STREAM_BASE_URL + "/posts"))
+            .andRespond(withSuccess(postsJson(10), MediaType.APPLICATION_JSON));
+
+        final List<AuditionPost> emitted = new ArrayList<>();
+        final int read = client.streamPosts(3, 4, emitted::add);
+
+        assertEquals(List.of(4, 5, 6, 7), emitted.stream().map(AuditionPost::getId).toList());
+        assertEquals(7, read);
+        upstream.verify();
+    }
+
+    @Test
+    void givenCachingDisabledWhenStreamingPastLastPostThenNothingIsEmitted() {
+        final IntegrationCacheProperties cacheProperties = new IntegrationCacheProperties();
+        cacheProperties.setEnabled(false);
+        final AuditionIntegrationClient client = createClient(cacheProperties);
+        ReflectionTestUtils.setField(client, "baseUrl", STREAM_BASE_URL);
+        upstream.expect(requestTo(STREAM_BASE_URL + "/posts"))
+            .andRespond(withSuccess(postsJson(3), MediaType.APPLICATION_JSON));
+
+        final List<AuditionPost> emitted = new ArrayList<>();
+
+        assertEquals(3, client.streamPosts(5, 10, emitted::add));
+        assertTrue(emitted.isEmpty());
+    }
+
+    @Test
+    void givenCachingEnabledWhenStreamingPostsThenCachedListIsPagedWithoutStreaming() {
+        final List<AuditionPost> posts = IntStream.rangeClosed(1, 5)
+            .mapToObj(i -> new AuditionPost(1, i, TITLE_1, BODY_1, null))
+            .toList();
+        when(restTemplate.exchange(
+            MOCK_POST_ENDPOINT,
+            HttpMethod.GET,
+            null,
+            new ParameterizedTypeReference<List<AuditionPost>>() {
+            }
+        )).thenReturn(new ResponseEntity<>(posts, HttpStatus.OK));
+
+        final List<AuditionPost> emitted = new ArrayList<>();
+        final int read = auditionIntegrationClient.streamPosts(3, 10, emitted::add);
+
+        assertEquals(posts.subList(3, 5), emitted);
+        assertEquals(5, read);
+        upstream.verify();
+    }
+
     @Test
     void givenGetPostsByIdWhenHasPostThenReturnPost() {
         final AuditionPost expectedPost = new AuditionPost(SOME_ID, SOME_ID, TITLE_1, BODY_1, null);
@@ -197,6 +326,224 @@ class AuditionIntegrationClientTest {
             });
     }
 
+    @Test
+    void givenGetPostsByIdsWhenOneIdIsMissingThenOthersResolveAndDuplicatesAreFetchedOnce() {
+        final List<AuditionComment> auditionComments = List.of(
+            new AuditionComment(SOME_ID, SOME_ID, "Comment", "batch@test.com", "Comment Body"));
+        when(restTemplate.getForObject(
+            MOCK_POST_ENDPOINT + "/" + SOME_ID,
+            AuditionPost.class
+        )).thenReturn(new AuditionPost(SOME_ID, SOME_ID, TITLE_1, BODY_1, null));
+        when(restTemplate.getForObject(
+            MOCK_POST_ENDPOINT + "/" + INVALID_ID,
+            AuditionPost.class
+        )).thenThrow(new HttpClientErrorException(HttpStatusCode.valueOf(HttpStatus.NOT_FOUND.value()), NOT_FOUND));
+        when(restTemplate.exchange(
+            MOCK_POST_ENDPOINT + "/" + SOME_ID + MOCK_COMMENTS_ENDPOINT,
+            HttpMethod.GET,
+            null,
+            new ParameterizedTypeReference<List<AuditionComment>>() {
+            }
+        )).thenReturn(new ResponseEntity<>(auditionComments, HttpStatus.OK));
+
+        final PostBatch batch = auditionIntegrationClient.getPostsByIds(
+            List.of(String.valueOf(INVALID_ID), String.valueOf(SOME_ID), String.valueOf(SOME_ID)), true);
+
+        assertEquals(List.of(new AuditionPost(SOME_ID, SOME_ID, TITLE_1, BODY_1, auditionComments)), batch.posts());
+        assertEquals(List.of(new PostLookupError(String.valueOf(INVALID_ID), 404, RESOURCE_NOT_FOUND,
+            CANNOT_FIND_POST_WITH_ID + INVALID_ID)), batch.errors());
+        verify(restTemplate).getForObject(MOCK_POST_ENDPOINT + "/" + SOME_ID, AuditionPost.class);
+    }
+
+    @Test
+    void givenGetPostsByIdsWhenLookupsTimeOutOrAreRejectedThenOnlyTheirIdsFail() {
+        when(restTemplate.getForObject(MOCK_POST_ENDPOINT + "/" + SOME_ID, AuditionPost.class))
+            .thenReturn(new AuditionPost(SOME_ID, SOME_ID, TITLE_1, BODY_1, null));
+        when(restTemplate.getForObject(MOCK_POST_ENDPOINT + "/2", AuditionPost.class))
+            .thenThrow(new ResourceAccessException("Read timed out", new SocketTimeoutException("Read timed out")));
+        when(restTemplate.getForObject(MOCK_POST_ENDPOINT + "/3", AuditionPost.class))
+            .thenThrow(new UpstreamUnavailableException("Bulkhead full", Duration.ofSeconds(1)));
+
+        final PostBatch batch = auditionIntegrationClient.getPostsByIds(List.of(String.valueOf(SOME_ID), "2", "3"),
+            false);
+
+        assertEquals(List.of(new AuditionPost(SOME_ID, SOME_ID, TITLE_1, BODY_1, null)), batch.posts());
+        assertEquals(List.of(504, 503), batch.errors().stream().map(PostLookupError::status).toList());
+    }
+
+    @Test
+    void givenCommentIndexWhenCommentsAreRequestedForSeveralPostsThenNoPostIsFetchedOnItsOwn() {
+        clientProperties.setCommentIndex(true);
+        final AuditionIntegrationClient client = createClient(new IntegrationCacheProperties());
+        final AuditionComment comment = new AuditionComment(SOME_ID, SOME_ID, "Comment", "index@test.com", BODY_1);
+        when(restTemplate.exchange(
+            MOCK_POST_ENDPOINT,
+            HttpMethod.GET,
+            null,
+            new ParameterizedTypeReference<List<AuditionPost>>() {
+            }
+        )).thenReturn(new ResponseEntity<>(List.of(new AuditionPost(SOME_ID, SOME_ID, TITLE_1, BODY_1, null),
+            new AuditionPost(SOME_ID, INVALID_ID, TITLE_1, BODY_1, null)), HttpStatus.OK));
+        when(restTemplate.exchange(
+            "null" + MOCK_COMMENTS_ENDPOINT,
+            HttpMethod.GET,
+            null,
+            new ParameterizedTypeReference<List<AuditionComment>>() {
+            }
+        )).thenReturn(new ResponseEntity<>(List.of(comment), HttpStatus.OK));
+
+        assertEquals(List.of(comment), client.getCommentsByPostId(String.valueOf(SOME_ID)));
+        assertEquals(List.of(comment), client.getPostWithCommentsById(String.valueOf(SOME_ID)).getComments());
+        assertTrue(client.getCommentsByPostId(String.valueOf(INVALID_ID)).isEmpty());
+        assertEquals(HttpStatus.NOT_FOUND.value(),
+            assertThrows(SystemException.class, () -> client.getCommentsByPostId("3")).getStatusCode());
+        final PostBatch batch = client.getPostsByIds(List.of(String.valueOf(SOME_ID), "3"), true);
+        assertEquals(List.of(comment), batch.posts().get(0).getComments());
+        assertEquals(List.of("3"), batch.errors().stream().map(PostLookupError::id).toList());
+        verify(restTemplate).exchange(
+            "null" + MOCK_COMMENTS_ENDPOINT,
+            HttpMethod.GET,
+            null,
+            new ParameterizedTypeReference<List<AuditionComment>>() {
+            });
+        verify(restTemplate, never()).getForObject(anyString(), eq(AuditionPost.class));
+    }
+
+    @Test
+    void givenRestoredSnapshotWhenPostsAreRequestedThenServedFromItWhileRefreshedInBackground() {
+        final List<AuditionPost> posts = List.of(new AuditionPost(1, 1, TITLE_1, BODY_1, null));
+        when(restTemplate.exchange(
+            MOCK_POST_ENDPOINT,
+            HttpMethod.GET,
+            null,
+            new ParameterizedTypeReference<List<AuditionPost>>() {
+            }
+        )).thenReturn(new ResponseEntity<>(posts, HttpStatus.OK));
+        assertTrue(auditionIntegrationClient.snapshot().isEmpty());
+        auditionIntegrationClient.getPosts();
+
+        final UpstreamSnapshot snapshot = auditionIntegrationClient.snapshot().orElseThrow();
+        final AuditionIntegrationClient restarted = createClient(new IntegrationCacheProperties());
+        restarted.restore(snapshot);
+
+        assertEquals(posts, snapshot.posts());
+        assertEquals(posts, restarted.getPosts());
+        //the initial load and the background refresh of the restored entry
+        verify(restTemplate, timeout(5000).times(2)).exchange(
+            MOCK_POST_ENDPOINT,
+            HttpMethod.GET,
+            null,
+            new ParameterizedTypeReference<List<AuditionPost>>() {
+            });
+    }
+
+    @Test
+    void givenSnapshotWhenRestartedWithPushdownThenPagesAndSinglePostsAreServedWithoutUpstreamCalls() {
+        final List<AuditionPost> posts = List.of(
+            new AuditionPost(1, 1, TITLE_1, BODY_1, null),
+            new AuditionPost(2, 2, "title2", "body2", null));
+        final CountDownLatch refreshReleased = new CountDownLatch(1);
+        //the snapshot loads the whole collection, the background refresh after the restart is held back until the
+        //restored client has answered
+        when(restTemplate.exchange(
+            MOCK_POST_ENDPOINT,
+            HttpMethod.GET,
+            null,
+            new ParameterizedTypeReference<List<AuditionPost>>() {
+            }
+        )).thenReturn(new ResponseEntity<>(posts, HttpStatus.OK)).thenAnswer(invocation -> {
+            assertTrue(refreshReleased.await(5, TimeUnit.SECONDS));
+            return new ResponseEntity<>(posts, HttpStatus.OK);
+        });
+        when(restTemplate.exchange(
+            MOCK_POST_ENDPOINT + "?_start=0&_limit=1",
+            HttpMethod.GET,
+            null,
+            new ParameterizedTypeReference<List<AuditionPost>>() {
+            }
+        )).thenReturn(new ResponseEntity<>(posts.subList(0, 1), HttpStatus.OK));
+        auditionIntegrationClient.getPostsPage(0, 1);
+        final UpstreamSnapshot snapshot = auditionIntegrationClient.snapshot().orElseThrow();
+
+        final AuditionIntegrationClient restarted = createClient(new IntegrationCacheProperties());
+        try {
+            restarted.restore(snapshot);
+
+            assertEquals(posts.subList(0, 1), restarted.getPostsPage(0, 1));
+            assertEquals(posts.subList(1, 2), restarted.getPostsPage(1, 10));
+            assertTrue(restarted.getPostsPage(5, 10).isEmpty());
+            assertEquals(posts.get(1), restarted.getPostById("2"));
+        } finally {
+            refreshReleased.countDown();
+        }
+        //only the page requested before the restart
+        verify(restTemplate).exchange(
+            MOCK_POST_ENDPOINT + "?_start=0&_limit=1",
+            HttpMethod.GET,
+            null,
+            new ParameterizedTypeReference<List<AuditionPost>>() {
+            });
+        verify(restTemplate, never()).getForObject(anyString(), eq(AuditionPost.class));
+    }
+
+    @Test
+    void givenGetPostWithCommentsByIdWhenCalledThenPostAndCommentsAreFetchedConcurrently() {
+        final CountDownLatch commentsRequested = new CountDownLatch(1);
+        final List<AuditionComment> auditionComments = List.of(
+            new AuditionComment(SOME_ID, SOME_ID, "Comment", "test@test.com", "Comment Body"));
+
+        when(restTemplate.getForObject(
+            MOCK_POST_ENDPOINT + "/" + SOME_ID,
+            AuditionPost.class
+        )).thenAnswer(invocation -> {
+            //only completes if the comments request is already in flight
+            assertTrue(commentsRequested.await(5, TimeUnit.SECONDS));
+            return new AuditionPost(SOME_ID, SOME_ID, TITLE_1, BODY_1, null);
+        });
+        when(restTemplate.exchange(
+            MOCK_POST_ENDPOINT + "/" + SOME_ID + MOCK_COMMENTS_ENDPOINT,
+            HttpMethod.GET,
+            null,
+            new ParameterizedTypeReference<List<AuditionComment>>() {
+            }
+        )).thenAnswer(invocation -> {
+            commentsRequested.countDown();
+            return new ResponseEntity<>(auditionComments, HttpStatus.OK);
+        });
+
+        final AuditionPost actualPost = auditionIntegrationClient.getPostWithCommentsById(String.valueOf(SOME_ID));
+
+        assertEquals(auditionComments, actualPost.getComments());
+    }
+
+    @Test
+    void givenGetCommentsByPostIdWhenPostAndCommentsMissingThenPostNotFoundTakesPrecedence() {
+        final CountDownLatch commentsFailed = new CountDownLatch(1);
+
+        when(restTemplate.getForObject(
+            MOCK_POST_ENDPOINT + "/" + INVALID_ID,
+            AuditionPost.class
+        )).thenAnswer(invocation -> {
+            assertTrue(commentsFailed.await(5, TimeUnit.SECONDS));
+            throw new HttpClientErrorException(HttpStatusCode.valueOf(HttpStatus.NOT_FOUND.value()), NOT_FOUND);
+        });
+        when(restTemplate.exchange(
+            MOCK_COMMENTS_ENDPOINT_WITH_QUERY_PARAM + INVALID_ID,
+            HttpMethod.GET,
+            null,
+            new ParameterizedTypeReference<List<AuditionComment>>() {
+            }
+        )).thenAnswer(invocation -> {
+            commentsFailed.countDown();
+            throw new HttpClientErrorException(HttpStatusCode.valueOf(HttpStatus.NOT_FOUND.value()), NOT_FOUND);
+        });
+
+        final SystemException exception = assertThrows(SystemException.class,
+            () -> auditionIntegrationClient.getCommentsByPostId(String.valueOf(INVALID_ID)));
+        assertEquals(404, exception.getStatusCode());
+        assertEquals(CANNOT_FIND_POST_WITH_ID + INVALID_ID, exception.getMessage());
+    }
+
     @Test
     void givenGetPostWithCommentsByIdWhenNonExistentIdThenThrowNotFound() {
         when(restTemplate.getForObject(
@@ -388,4 +735,10 @@ class AuditionIntegrationClientTest {
             new ParameterizedTypeReference<List<AuditionComment>>() {
             });
     }
+
+    private static String postsJson(final int count) {
+        return IntStream.rangeClosed(1, count)
+            .mapToObj(i -> "{\"userId\":1,\"id\":" + i + ",\"title\":\"t\",\"body\":\"b\",\"extra\":{\"n\":[1]}}")
+            .collect(Collectors.joining(",", "[", "]"));
+    }
 }
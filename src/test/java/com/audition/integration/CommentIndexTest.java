@@ -0,0 +1,46 @@
+package com.audition.integration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.audition.model.AuditionComment;
+import com.audition.model.AuditionPost;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class CommentIndexTest {
+
+    private static final AuditionComment FIRST = comment(3, 1);
+    private static final AuditionComment SECOND = comment(1, 2);
+    private static final AuditionComment THIRD = comment(3, 3);
+
+    private static final AuditionPost POST = new AuditionPost(1, 2, "title", "body", null);
+
+    private final transient CommentIndex index = new CommentIndex(
+        List.of(new AuditionPost(1, 3, "title", "body", null), POST), List.of(FIRST, SECOND, THIRD));
+
+    @Test
+    void givenCommentsOfSeveralPostsWhenLookedUpThenEachPostGetsOnlyItsComments() {
+        assertEquals(List.of(SECOND), index.get("1"));
+        assertEquals(List.of(FIRST, THIRD), index.get("3"));
+    }
+
+    @Test
+    void givenPostWithoutCommentsWhenLookedUpThenReturnsEmptyList() {
+        assertTrue(index.get("2").isEmpty());
+        assertTrue(index.get("4").isEmpty());
+        assertTrue(index.get("99999999999").isEmpty());
+        assertTrue(new CommentIndex(List.of(), List.of()).get("1").isEmpty());
+    }
+
+    @Test
+    void givenIndexedPostsWhenPostIsLookedUpThenOnlyKnownIdsAreFound() {
+        assertEquals(POST, index.post("2").orElseThrow());
+        assertTrue(index.post("1").isEmpty());
+        assertTrue(index.post("abc").isEmpty());
+    }
+
+    private static AuditionComment comment(final int postId, final int id) {
+        return new AuditionComment(postId, id, "name" + id, "user" + id + "@test.com", "body" + id);
+    }
+}
@@ -0,0 +1,180 @@
+package com.audition.integration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.audition.common.exception.SystemException;
+import com.audition.configuration.IntegrationClientProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+@SuppressWarnings({"PMD.DoNotUseThreads", "PMD.TooManyMethods"}) //concurrent callers are required
+class RequestCoalescerTest {
+
+    private static final String URL = "http://upstream/posts/1";
+    private static final String VALUE = "value";
+    private static final String COALESCED_METRIC = "audition.upstream.requests.coalesced";
+    private static final int CALLERS = 20;
+
+    private final transient AtomicInteger calls = new AtomicInteger();
+
+    private transient IntegrationClientProperties properties;
+    private transient SimpleMeterRegistry meterRegistry;
+    private transient ExecutorService executor;
+
+    @BeforeEach
+    void setup() {
+        properties = new IntegrationClientProperties();
+        meterRegistry = new SimpleMeterRegistry();
+        executor = Executors.newFixedThreadPool(CALLERS);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @SuppressWarnings("PMD.SignatureDeclareThrowsException")
+    @Test
+    void givenConcurrentIdenticalCallsWhenInFlightThenSingleUpstreamCallIsShared() throws Exception {
+        final RequestCoalescer coalescer = new RequestCoalescer(properties, meterRegistry);
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+
+        final Future<String> leader = executor.submit(() -> coalescer.execute(URL, blockingCall(started, release)));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        final List<Future<String>> followers = submitFollowers(coalescer);
+        awaitCoalesced(CALLERS - 1);
+        release.countDown();
+
+        assertEquals(VALUE, leader.get(5, TimeUnit.SECONDS));
+        for (final Future<String> follower : followers) {
+            assertEquals(VALUE, follower.get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(1, calls.get());
+    }
+
+    @SuppressWarnings("PMD.SignatureDeclareThrowsException")
+    @Test
+    void givenInFlightCallFailsWhenCoalescedThenEveryCallerSeesTheSameException() throws Exception {
+        final RequestCoalescer coalescer = new RequestCoalescer(properties, meterRegistry);
+        final SystemException failure = new SystemException("upstream down", 500);
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+
+        final Future<String> leader = executor.submit(() -> coalescer.execute(URL, () -> {
+            started.countDown();
+            awaitQuietly(release);
+            throw failure;
+        }));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        final Future<String> follower = executor.submit(() -> coalescer.<String>execute(URL, () -> VALUE));
+        awaitCoalesced(1);
+        release.countDown();
+
+        assertSame(failure, assertThrows(Exception.class, () -> leader.get(5, TimeUnit.SECONDS)).getCause());
+        assertSame(failure, assertThrows(Exception.class, () -> follower.get(5, TimeUnit.SECONDS)).getCause());
+    }
+
+    @Test
+    void givenCompletedCallWhenRequestedAgainThenUpstreamIsCalledAgain() {
+        final RequestCoalescer coalescer = new RequestCoalescer(properties, meterRegistry);
+
+        coalescer.execute(URL, this::countedCall);
+        coalescer.execute(URL, this::countedCall);
+
+        assertEquals(2, calls.get());
+        assertEquals(0, meterRegistry.get(COALESCED_METRIC).counter().count());
+        assertEquals(0, meterRegistry.get("audition.upstream.requests.in.flight").gauge().value());
+    }
+
+    @Test
+    void givenCoalescingDisabledWhenCalledThenNoStateIsShared() {
+        properties.setCoalescing(false);
+        final RequestCoalescer coalescer = new RequestCoalescer(properties, meterRegistry);
+
+        assertEquals(VALUE, coalescer.execute(URL, this::countedCall));
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    void givenAsyncCallInFlightWhenRequestedAgainThenFutureIsShared() {
+        final RequestCoalescer coalescer = new RequestCoalescer(properties, meterRegistry);
+        final CompletableFuture<String> upstream = new CompletableFuture<>();
+        final Supplier<CompletableFuture<String>> call = () -> {
+            calls.incrementAndGet();
+            return upstream;
+        };
+
+        final CompletableFuture<String> first = coalescer.executeAsync(URL, call);
+        final CompletableFuture<String> second = coalescer.executeAsync(URL, call);
+        second.cancel(true);
+        upstream.complete(VALUE);
+
+        assertEquals(VALUE, first.join());
+        assertEquals(1, calls.get());
+        assertEquals(1, meterRegistry.get(COALESCED_METRIC).counter().count());
+    }
+
+    @Test
+    void givenAsyncCallThrowsWhenStartedThenKeyIsReleased() {
+        final RequestCoalescer coalescer = new RequestCoalescer(properties, meterRegistry);
+
+        final CompletableFuture<String> failed = coalescer.executeAsync(URL, () -> {
+            throw new IllegalStateException("not started");
+        });
+
+        assertTrue(failed.isCompletedExceptionally());
+        assertEquals(VALUE, coalescer.executeAsync(URL, () -> CompletableFuture.completedFuture(VALUE)).join());
+    }
+
+    private List<Future<String>> submitFollowers(final RequestCoalescer coalescer) {
+        final List<Future<String>> followers = new ArrayList<>();
+        for (int i = 1; i < CALLERS; i++) {
+            followers.add(executor.submit(() -> coalescer.execute(URL, this::countedCall)));
+        }
+        return followers;
+    }
+
+    private Supplier<String> blockingCall(final CountDownLatch started, final CountDownLatch release) {
+        return () -> {
+            started.countDown();
+            awaitQuietly(release);
+            return countedCall();
+        };
+    }
+
+    private String countedCall() {
+        calls.incrementAndGet();
+        return VALUE;
+    }
+
+    private void awaitCoalesced(final int expected) throws InterruptedException {
+        final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (meterRegistry.get(COALESCED_METRIC).counter().count() < expected && System.nanoTime() < deadline) {
+            TimeUnit.MILLISECONDS.sleep(5);
+        }
+    }
+
+    private static void awaitQuietly(final CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,410 @@
+package com.audition.integration.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.audition.configuration.IntegrationCacheProperties;
+import com.github.benmanes.caffeine.cache.Ticker;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.tracing.CurrentTraceContext;
+import io.micrometer.tracing.Tracer;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+@SuppressWarnings("PMD.TooManyMethods") //need the test cases for thorough coverage
+class IntegrationCacheFactoryTest {
+
+    private static final String REGION_NAME = "post";
+    private static final String VALUE = "value";
+    private static final String KEY = "1";
+    private static final String SEEDED = "seeded";
+    private static final String STALE_METRIC = "audition.cache.stale";
+    private static final String REASON_TAG = "reason";
+
+    private final transient AtomicLong nanos = new AtomicLong();
+    private final transient Ticker ticker = nanos::get;
+    private final transient AtomicInteger loads = new AtomicInteger();
+
+    private transient IntegrationCacheProperties properties;
+    private transient SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setup() {
+        properties = new IntegrationCacheProperties();
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @Test
+    void givenCachedEntryWhenRequestedAgainThenLoaderIsNotCalled() {
+        final CacheRegion<String, String> region = createRegion(key -> VALUE + loads.incrementAndGet());
+
+        assertEquals("value1", region.get(KEY));
+        assertEquals("value1", region.get(KEY));
+        assertEquals(1, loads.get());
+        assertEquals(1, meterRegistry.get("cache.gets").tag("result", "hit").functionCounter().count());
+        assertEquals(1, meterRegistry.get("cache.gets").tag("result", "miss").functionCounter().count());
+    }
+
+    @Test
+    void givenTtlElapsedWhenRequestedThenEntryIsReloaded() {
+        properties.getRegions().put(REGION_NAME, region(10, Duration.ofSeconds(5), null));
+        final CacheRegion<String, String> region = createRegion(key -> VALUE + loads.incrementAndGet());
+
+        region.get(KEY);
+        nanos.addAndGet(Duration.ofSeconds(6).toNanos());
+
+        assertEquals("value2", region.get(KEY));
+    }
+
+    @Test
+    void givenRefreshAheadElapsedWhenRequestedThenEntryIsRefreshedBeforeExpiry() {
+        properties.getRegions().put(REGION_NAME, region(10, Duration.ofSeconds(10), Duration.ofSeconds(5)));
+        final CacheRegion<String, String> region = createRegion(key -> VALUE + loads.incrementAndGet());
+
+        region.get(KEY);
+        nanos.addAndGet(Duration.ofSeconds(6).toNanos());
+
+        region.get(KEY);
+
+        assertEquals("value2", region.getIfPresent(KEY).orElseThrow());
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void givenMaximumSizeExceededWhenLoadedThenEntriesAreEvicted() {
+        properties.getRegions().put(REGION_NAME, region(2, Duration.ofMinutes(1), null));
+        final CacheRegion<String, String> region = createRegion(key -> key);
+
+        for (int i = 0; i < 10; i++) {
+            region.get(String.valueOf(i));
+        }
+
+        assertEquals(8, meterRegistry.get("cache.evictions").functionCounter().count());
+    }
+
+    @SuppressWarnings({"PMD.SignatureDeclareThrowsException", "PMD.DoNotUseThreads", "PMD.CloseResource"}) //shut down in finally
+    @Test
+    void givenConcurrentMissesWhenRequestedThenSingleLoadIsShared() throws Exception {
+        final CountDownLatch release = new CountDownLatch(1);
+        final CacheRegion<String, String> region = createRegion(key -> {
+            loads.incrementAndGet();
+            awaitQuietly(release);
+            return VALUE;
+        });
+
+        final ExecutorService executor = Executors.newFixedThreadPool(50);
+        try {
+            final List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < 500; i++) {
+                results.add(executor.submit(() -> region.get(KEY)));
+            }
+            release.countDown();
+            for (final Future<String> result : results) {
+                assertEquals(VALUE, result.get(5, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void givenCachingDisabledWhenRequestedThenLoaderIsAlwaysCalled() {
+        properties.setEnabled(false);
+        final CacheRegion<String, String> region = createRegion(key -> VALUE + loads.incrementAndGet());
+
+        region.get(KEY);
+        region.put(KEY, "ignored");
+
+        assertEquals("value2", region.get(KEY));
+        assertTrue(region.getIfPresent(KEY).isEmpty());
+    }
+
+    @Test
+    void givenAsyncRegionWhenConcurrentMissesThenInFlightLoadIsShared() {
+        final CompletableFuture<String> upstream = new CompletableFuture<>();
+        final AsyncCacheRegion<String, String> region = createAsyncRegion(key -> {
+            loads.incrementAndGet();
+            return upstream;
+        });
+
+        final CompletableFuture<String> first = region.get(KEY);
+        final CompletableFuture<String> second = region.get(KEY);
+        upstream.complete(VALUE);
+
+        assertEquals(VALUE, first.join());
+        assertEquals(VALUE, second.join());
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void givenAsyncRegionWhenLoadFailsThenFailureIsNotCached() {
+        final AsyncCacheRegion<String, String> region = createAsyncRegion(key -> loads.incrementAndGet() == 1
+            ? CompletableFuture.failedFuture(new IllegalStateException("upstream down"))
+            : CompletableFuture.completedFuture(VALUE));
+
+        assertTrue(region.get(KEY).isCompletedExceptionally());
+        assertEquals(VALUE, region.get(KEY).join());
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void givenSeededEntryWhenRefreshedThenServedUntilReloadCompletes() {
+        final CacheRegion<String, String> region = createRegion(key -> VALUE + loads.incrementAndGet());
+
+        region.put(KEY, SEEDED);
+        assertEquals(SEEDED, region.get(KEY));
+        assertEquals(0, loads.get());
+
+        region.refresh(KEY);
+
+        assertEquals("value1", region.get(KEY));
+    }
+
+    @Test
+    void givenAsyncSeededEntryWhenRefreshedThenServedUntilReloadCompletes() {
+        final CompletableFuture<String> upstream = new CompletableFuture<>();
+        final AsyncCacheRegion<String, String> region = createAsyncRegion(key -> {
+            loads.incrementAndGet();
+            return upstream;
+        });
+
+        region.put(KEY, SEEDED);
+        region.refresh(KEY);
+
+        assertEquals(SEEDED, region.get(KEY).join());
+        upstream.complete(VALUE);
+        assertEquals(VALUE, region.getIfPresent(KEY).orElseThrow());
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void givenExpiredEntryWhenUpstreamFailsThenLastKnownGoodValueIsServedAndRequestMarked() {
+        properties.getRegions().put(REGION_NAME, region(10, Duration.ofSeconds(5), null));
+        final CacheRegion<String, String> region = createRegion(key -> {
+            if (loads.incrementAndGet() > 1) {
+                throw new HttpServerErrorException(HttpStatus.SERVICE_UNAVAILABLE);
+            }
+            return VALUE;
+        });
+        final MockHttpServletRequest request = new MockHttpServletRequest();
+
+        region.get(KEY);
+        nanos.addAndGet(Duration.ofSeconds(6).toNanos());
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+        try {
+            assertEquals(VALUE, region.get(KEY));
+        } finally {
+            RequestContextHolder.resetRequestAttributes();
+        }
+
+        final StaleResponse stale = StaleResponse.of(request).orElseThrow();
+        assertEquals(Duration.ofSeconds(6), stale.getAge());
+        assertTrue(stale.isRevalidationFailed());
+        assertEquals(1, meterRegistry.get(STALE_METRIC).tag(REASON_TAG, "error").counter().count());
+    }
+
+    @Test
+    void givenExpiredEntryWhenUpstreamAnswersNotFoundThenErrorIsNotMasked() {
+        properties.getRegions().put(REGION_NAME, region(10, Duration.ofSeconds(5), null));
+        final CacheRegion<String, String> region = createRegion(key -> {
+            if (loads.incrementAndGet() > 1) {
+                throw new HttpClientErrorException(HttpStatus.NOT_FOUND);
+            }
+            return VALUE;
+        });
+
+        region.get(KEY);
+        nanos.addAndGet(Duration.ofSeconds(6).toNanos());
+
+        assertThrows(HttpClientErrorException.class, () -> region.get(KEY));
+    }
+
+    @Test
+    void givenLastKnownGoodValueOlderThanMaxAgeWhenUpstreamFailsThenErrorSurfaces() {
+        properties.getRegions().put(REGION_NAME, region(10, Duration.ofSeconds(5), null));
+        properties.getStale().setMaxAge(Duration.ofSeconds(10));
+        final CacheRegion<String, String> region = createRegion(key -> {
+            if (loads.incrementAndGet() > 1) {
+                throw new HttpServerErrorException(HttpStatus.SERVICE_UNAVAILABLE);
+            }
+            return VALUE;
+        });
+
+        region.get(KEY);
+        nanos.addAndGet(Duration.ofSeconds(11).toNanos());
+
+        assertThrows(HttpServerErrorException.class, () -> region.get(KEY));
+    }
+
+    @Test
+    void givenExpiredEntryWhenReloadedBehindStaleValueThenLoadRunsOnTheCacheLoadPool() throws InterruptedException {
+        properties.getRegions().put(REGION_NAME, region(10, Duration.ofMillis(20), null));
+        final AtomicReference<String> loadThread = new AtomicReference<>();
+        final IntegrationCacheFactory factory = new IntegrationCacheFactory(properties, meterRegistry);
+        try {
+            final CacheRegion<String, String> region = factory.create(REGION_NAME, key -> {
+                loadThread.set(Thread.currentThread().getName());
+                return VALUE;
+            });
+
+            region.get(KEY);
+            Thread.sleep(50);
+
+            assertEquals(VALUE, region.get(KEY));
+            assertTrue(loadThread.get().startsWith("audition-cache-load-"));
+        } finally {
+            factory.destroy();
+        }
+    }
+
+    @SuppressWarnings("PMD.DoNotUseThreads") //the caller has to be a virtual thread
+    @Test
+    void givenVirtualThreadWhenEntryIsMissingThenLoadRunsOnTheCacheLoadPool() throws InterruptedException {
+        final AtomicReference<String> loadThread = new AtomicReference<>();
+        final AtomicReference<String> answer = new AtomicReference<>();
+        final IntegrationCacheFactory factory = new IntegrationCacheFactory(properties, meterRegistry);
+        try {
+            final CacheRegion<String, String> region = factory.create(REGION_NAME, key -> {
+                loadThread.set(Thread.currentThread().getName());
+                return VALUE;
+            });
+
+            Thread.ofVirtual().start(() -> answer.set(region.get(KEY))).join();
+
+            assertEquals(VALUE, answer.get());
+            assertTrue(loadThread.get().startsWith("audition-cache-load-"));
+        } finally {
+            factory.destroy();
+        }
+    }
+
+    @Test
+    void givenTracerWhenEntryIsReloadedBehindStaleValueThenLoadRunsInTheTraceOfTheRequest() {
+        properties.getRegions().put(REGION_NAME, region(10, Duration.ofSeconds(5), null));
+        final AtomicInteger traced = new AtomicInteger();
+        final Tracer tracer = mock(Tracer.class);
+        final CurrentTraceContext currentTraceContext = mock(CurrentTraceContext.class);
+        when(tracer.currentTraceContext()).thenReturn(currentTraceContext);
+        //stands in for the executor that restores the trace context captured on submission
+        when(currentTraceContext.wrap(any(Executor.class))).thenReturn(load -> {
+            traced.incrementAndGet();
+            load.run();
+        });
+        final CacheRegion<String, String> region = new IntegrationCacheFactory(properties, meterRegistry, ticker,
+            Runnable::run, tracer).create(REGION_NAME, key -> VALUE + loads.incrementAndGet());
+
+        region.get(KEY);
+        nanos.addAndGet(Duration.ofSeconds(6).toNanos());
+
+        assertEquals("value2", region.get(KEY));
+        assertTrue(traced.get() > 0);
+    }
+
+    @Test
+    void givenSaturatedLoadPoolWhenEntryHasExpiredThenStaleValueIsServedWithoutLoading() {
+        properties.getRegions().put(REGION_NAME, region(10, Duration.ofSeconds(5), null));
+        final CacheRegion<String, String> region = new IntegrationCacheFactory(properties, meterRegistry, ticker,
+            load -> {
+                throw new RejectedExecutionException("saturated");
+            }).create(REGION_NAME, key -> VALUE + loads.incrementAndGet());
+        final MockHttpServletRequest request = new MockHttpServletRequest();
+
+        region.get(KEY);
+        nanos.addAndGet(Duration.ofSeconds(6).toNanos());
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+        try {
+            assertEquals("value1", region.get(KEY));
+        } finally {
+            RequestContextHolder.resetRequestAttributes();
+        }
+
+        assertEquals(1, loads.get());
+        assertFalse(StaleResponse.of(request).orElseThrow().isRevalidationFailed());
+        assertEquals(1, meterRegistry.get(STALE_METRIC).tag(REASON_TAG, "latency").counter().count());
+    }
+
+    @Test
+    void givenAsyncExpiredEntryWhenUpstreamExceedsLatencyBudgetThenStaleValueIsServedAndReloadCompletes() {
+        properties.getRegions().put(REGION_NAME, region(10, Duration.ofSeconds(5), null));
+        properties.getStale().setLatencyBudget(Duration.ofMillis(10));
+        final CompletableFuture<String> upstream = new CompletableFuture<>();
+        final AsyncCacheRegion<String, String> region = createAsyncRegion(key -> loads.incrementAndGet() == 1
+            ? CompletableFuture.completedFuture(VALUE) : upstream);
+
+        region.get(KEY).join();
+        nanos.addAndGet(Duration.ofSeconds(6).toNanos());
+
+        assertEquals(VALUE, region.get(KEY).orTimeout(5, TimeUnit.SECONDS).join());
+        upstream.complete("value2");
+        assertEquals("value2", region.get(KEY).join());
+        assertEquals(2, loads.get());
+        assertEquals(1, meterRegistry.get(STALE_METRIC).tag(REASON_TAG, "latency").counter().count());
+    }
+
+    @Test
+    void givenStaleServingDisabledWhenUpstreamFailsThenErrorSurfaces() {
+        properties.getStale().setEnabled(false);
+        final AsyncCacheRegion<String, String> region = createAsyncRegion(key -> loads.incrementAndGet() == 1
+            ? CompletableFuture.completedFuture(VALUE)
+            : CompletableFuture.failedFuture(new HttpServerErrorException(HttpStatus.BAD_GATEWAY)));
+
+        region.get(KEY).join();
+        nanos.addAndGet(Duration.ofMinutes(6).toNanos());
+
+        assertTrue(region.get(KEY).isCompletedExceptionally());
+    }
+
+    private AsyncCacheRegion<String, String> createAsyncRegion(final Function<String, CompletableFuture<String>> loader) {
+        return new IntegrationCacheFactory(properties, meterRegistry, ticker, Runnable::run)
+            .createAsync(REGION_NAME, loader);
+    }
+
+    private CacheRegion<String, String> createRegion(final Function<String, String> loader) {
+        return new IntegrationCacheFactory(properties, meterRegistry, ticker, Runnable::run).create(REGION_NAME, loader);
+    }
+
+    private static IntegrationCacheProperties.Region region(final long maximumSize, final Duration ttl,
+        final Duration refreshAhead) {
+        final IntegrationCacheProperties.Region region = new IntegrationCacheProperties.Region();
+        region.setMaximumSize(maximumSize);
+        region.setTtl(ttl);
+        region.setRefreshAhead(refreshAhead);
+        return region;
+    }
+
+    private static void awaitQuietly(final CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
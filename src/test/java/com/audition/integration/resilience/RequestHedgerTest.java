@@ -0,0 +1,296 @@
+package com.audition.integration.resilience;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.audition.configuration.IntegrationClientProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.tracing.CurrentTraceContext;
+import io.micrometer.tracing.TraceContext;
+import io.micrometer.tracing.Tracer;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+class RequestHedgerTest {
+
+    private static final String ENDPOINT = "post";
+    private static final String PRIMARY = "primary";
+    private static final String HEDGE = "hedge";
+    private static final String METRIC = "audition.upstream.hedges";
+    private static final String RESULT_TAG = "result";
+
+    private transient IntegrationClientProperties properties;
+    private transient SimpleMeterRegistry meterRegistry;
+    private transient ExecutorService executor;
+
+    @BeforeEach
+    void setup() {
+        properties = new IntegrationClientProperties();
+        final IntegrationClientProperties.Hedging hedging = properties.getHedging();
+        hedging.setEnabled(true);
+        hedging.setWindowSize(10);
+        hedging.setMinimumSamples(5);
+        hedging.setMinimumDelay(Duration.ofMillis(20));
+        hedging.setBudgetPercent(100);
+        meterRegistry = new SimpleMeterRegistry();
+        executor = Executors.newFixedThreadPool(4);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void givenSlowAttemptWhenHedgeAnswersFirstThenHedgeWinsAndAttemptIsCancelled() {
+        final RequestHedger hedger = warmedUp();
+        final CompletableFuture<String> primary = new CompletableFuture<>();
+        final List<CompletableFuture<String>> attempts = attempts(primary,
+            CompletableFuture.completedFuture(HEDGE));
+
+        assertEquals(HEDGE, hedger.executeAsync(ENDPOINT, () -> attempts.remove(0)).orTimeout(5, TimeUnit.SECONDS)
+            .join());
+        assertTrue(primary.isCancelled());
+        assertEquals(1, count("fired"));
+        assertEquals(1, count("won"));
+    }
+
+    @Test
+    void givenFastAttemptWhenCalledThenNoHedgeIsSent() {
+        final RequestHedger hedger = warmedUp();
+        final AtomicInteger calls = new AtomicInteger();
+
+        assertEquals(PRIMARY, hedger.executeAsync(ENDPOINT, () -> {
+            calls.incrementAndGet();
+            return CompletableFuture.completedFuture(PRIMARY);
+        }).join());
+        assertEquals(1, calls.get());
+        assertEquals(0, count("fired"));
+    }
+
+    @Test
+    void givenTooFewLatenciesWhenAttemptIsSlowThenNoHedgeIsSent() throws InterruptedException {
+        final RequestHedger hedger = new RequestHedger(properties, executor, meterRegistry);
+        final CompletableFuture<String> primary = new CompletableFuture<>();
+        final AtomicInteger calls = new AtomicInteger();
+
+        final CompletableFuture<String> result = hedger.executeAsync(ENDPOINT, () -> {
+            calls.incrementAndGet();
+            return primary;
+        });
+
+        TimeUnit.MILLISECONDS.sleep(100);
+
+        assertFalse(result.isDone());
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    void givenExhaustedBudgetWhenAttemptIsSlowThenItIsAwaitedWithoutHedging() throws InterruptedException {
+        properties.getHedging().setBudgetPercent(0);
+        final RequestHedger hedger = warmedUp();
+        final CompletableFuture<String> primary = new CompletableFuture<>();
+        final AtomicInteger calls = new AtomicInteger();
+
+        final CompletableFuture<String> result = hedger.executeAsync(ENDPOINT, () -> {
+            calls.incrementAndGet();
+            return primary;
+        });
+        TimeUnit.MILLISECONDS.sleep(100);
+        primary.complete(PRIMARY);
+
+        assertEquals(PRIMARY, result.join());
+        assertEquals(1, calls.get());
+        assertEquals(1, count("over_budget"));
+    }
+
+    @Test
+    void givenHedgeFiredWhenOneAttemptFailsThenTheOtherAnswers() {
+        final RequestHedger hedger = warmedUp();
+        final CompletableFuture<String> primary = new CompletableFuture<>();
+        final CompletableFuture<String> hedge = new CompletableFuture<>();
+        final List<CompletableFuture<String>> attempts = attempts(primary, hedge);
+
+        final CompletableFuture<String> result = hedger.executeAsync(ENDPOINT, () -> attempts.remove(0));
+        awaitHedge();
+        hedge.completeExceptionally(new HttpServerErrorException(HttpStatus.BAD_GATEWAY));
+        primary.complete(PRIMARY);
+
+        assertEquals(PRIMARY, result.join());
+        assertEquals(0, count("won"));
+    }
+
+    @Test
+    void givenHedgeFiredWhenBothAttemptsFailThenTheFirstFailureIsReported() {
+        final RequestHedger hedger = warmedUp();
+        final CompletableFuture<String> primary = new CompletableFuture<>();
+        final CompletableFuture<String> hedge = new CompletableFuture<>();
+        final List<CompletableFuture<String>> attempts = attempts(primary, hedge);
+
+        final CompletableFuture<String> result = hedger.executeAsync(ENDPOINT, () -> attempts.remove(0));
+        awaitHedge();
+        primary.completeExceptionally(new HttpServerErrorException(HttpStatus.BAD_GATEWAY));
+        hedge.completeExceptionally(new HttpServerErrorException(HttpStatus.SERVICE_UNAVAILABLE));
+
+        final CompletionException failure = assertThrows(CompletionException.class, result::join);
+        assertEquals(HttpStatus.BAD_GATEWAY, ((HttpServerErrorException) failure.getCause()).getStatusCode());
+    }
+
+    @Test
+    void givenBlockingCallWhenHedgeAnswersFirstThenTheAttemptOnTheCallingThreadIsAborted() {
+        final RequestHedger hedger = warmedUpBlocking(new RequestHedger(properties, executor, meterRegistry));
+        final Thread caller = Thread.currentThread();
+        final List<Thread> primaryThreads = new CopyOnWriteArrayList<>();
+
+        final String result = hedger.execute(ENDPOINT, () -> {
+            if (Thread.currentThread() != caller) {
+                return HEDGE;
+            }
+            primaryThreads.add(Thread.currentThread());
+            //stands in for a transport, aborting the exchange releases the attempt
+            final CountDownLatch aborted = new CountDownLatch(1);
+            AbortableAttempt.register(aborted::countDown);
+            try {
+                aborted.await(5, TimeUnit.SECONDS);
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            throw new IllegalStateException("aborted");
+        });
+
+        assertEquals(HEDGE, result);
+        assertEquals(List.of(caller), primaryThreads);
+        assertEquals(1, count("won"));
+    }
+
+    @Test
+    void givenBlockingCallOfRequestWhenHedgedThenHedgeRunsWithItsAttributesDeadlineAndTrace() {
+        final Tracer tracer = mock(Tracer.class);
+        final CurrentTraceContext currentTraceContext = mock(CurrentTraceContext.class);
+        final TraceContext trace = mock(TraceContext.class);
+        final AtomicReference<Thread> tracedThread = new AtomicReference<>();
+        when(tracer.currentTraceContext()).thenReturn(currentTraceContext);
+        when(currentTraceContext.context()).thenReturn(trace);
+        when(currentTraceContext.maybeScope(trace)).thenAnswer(invocation -> {
+            tracedThread.set(Thread.currentThread());
+            return mock(CurrentTraceContext.Scope.class);
+        });
+        final RequestHedger hedger = warmedUpBlocking(new RequestHedger(properties, executor, meterRegistry, tracer));
+        final Thread caller = Thread.currentThread();
+        final MockHttpServletRequest request = new MockHttpServletRequest();
+        final RequestAttributes attributes = new ServletRequestAttributes(request);
+        final AtomicReference<RequestAttributes> hedgeAttributes = new AtomicReference<>();
+        final AtomicReference<Thread> hedgeThread = new AtomicReference<>();
+        final AtomicBoolean hedgeDeadline = new AtomicBoolean();
+        RequestDeadline.start(request, Duration.ofSeconds(5));
+        RequestContextHolder.setRequestAttributes(attributes);
+        try {
+            assertEquals(HEDGE, hedger.execute(ENDPOINT, () -> {
+                if (Thread.currentThread() != caller) {
+                    hedgeAttributes.set(RequestContextHolder.getRequestAttributes());
+                    hedgeThread.set(Thread.currentThread());
+                    hedgeDeadline.set(RequestDeadline.current().isPresent());
+                    return HEDGE;
+                }
+                final CountDownLatch aborted = new CountDownLatch(1);
+                AbortableAttempt.register(aborted::countDown);
+                try {
+                    aborted.await(5, TimeUnit.SECONDS);
+                } catch (final InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                throw new IllegalStateException("aborted");
+            }));
+        } finally {
+            RequestContextHolder.resetRequestAttributes();
+        }
+
+        assertSame(attributes, hedgeAttributes.get());
+        assertTrue(hedgeDeadline.get());
+        assertSame(hedgeThread.get(), tracedThread.get());
+    }
+
+    @Test
+    void givenSaturatedFanOutWhenLanesMakeHedgedCallsThenEveryCallCompletes() throws InterruptedException,
+        ExecutionException, TimeoutException {
+        //the lanes and the hedges share two threads, as fan-out lookups and hedges once shared the task executor
+        final ExecutorService fanOut = Executors.newFixedThreadPool(2);
+        try {
+            final RequestHedger hedger = warmedUpBlocking(new RequestHedger(properties, fanOut, meterRegistry));
+            final List<CompletableFuture<String>> lanes = new CopyOnWriteArrayList<>();
+            for (int i = 0; i < 6; i++) {
+                lanes.add(CompletableFuture.supplyAsync(() -> hedger.execute(ENDPOINT, () -> {
+                    try {
+                        TimeUnit.MILLISECONDS.sleep(100);
+                    } catch (final InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return PRIMARY;
+                }), fanOut));
+            }
+
+            CompletableFuture.allOf(lanes.toArray(CompletableFuture[]::new)).get(5, TimeUnit.SECONDS);
+
+            lanes.forEach(lane -> assertEquals(PRIMARY, lane.join()));
+        } finally {
+            fanOut.shutdownNow();
+        }
+    }
+
+    private RequestHedger warmedUp() {
+        final RequestHedger hedger = new RequestHedger(properties, executor, meterRegistry);
+        for (int i = 0; i < properties.getHedging().getMinimumSamples(); i++) {
+            hedger.executeAsync(ENDPOINT, () -> CompletableFuture.completedFuture(PRIMARY)).join();
+        }
+        return hedger;
+    }
+
+    private RequestHedger warmedUpBlocking(final RequestHedger hedger) {
+        for (int i = 0; i < properties.getHedging().getMinimumSamples(); i++) {
+            hedger.execute(ENDPOINT, () -> PRIMARY);
+        }
+        return hedger;
+    }
+
+    private void awaitHedge() {
+        final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (count("fired") == 0 && System.nanoTime() < deadline) {
+            Thread.onSpinWait();
+        }
+    }
+
+    private double count(final String result) {
+        return meterRegistry.get(METRIC).tag(RESULT_TAG, result).counter().count();
+    }
+
+    @SafeVarargs
+    private static List<CompletableFuture<String>> attempts(final CompletableFuture<String>... attempts) {
+        return new CopyOnWriteArrayList<>(attempts);
+    }
+}
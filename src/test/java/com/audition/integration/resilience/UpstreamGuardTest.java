@@ -0,0 +1,216 @@
+package com.audition.integration.resilience;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.audition.common.logging.AuditionLogger;
+import com.audition.configuration.IntegrationClientProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+
+class UpstreamGuardTest {
+
+    private static final String ENDPOINT = "post";
+    private static final String VALUE = "value";
+
+    private final transient AtomicLong nanos = new AtomicLong();
+    private final transient AtomicInteger calls = new AtomicInteger();
+
+    private transient IntegrationClientProperties properties;
+    private transient SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setup() {
+        properties = new IntegrationClientProperties();
+        final IntegrationClientProperties.CircuitBreaker circuitBreaker = properties.getCircuitBreaker();
+        circuitBreaker.setWindowSize(4);
+        circuitBreaker.setMinimumCalls(4);
+        circuitBreaker.setHalfOpenCalls(2);
+        circuitBreaker.setOpenDuration(Duration.ofSeconds(10));
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @Test
+    void givenFailureRateReachedWhenCalledThenCallsAreRejectedWithoutReachingUpstream() {
+        final UpstreamGuard guard = createGuard();
+        callTimes(guard, 2, this::succeed);
+        callTimes(guard, 2, this::fail);
+
+        final UpstreamUnavailableException rejected = assertThrows(UpstreamUnavailableException.class,
+            () -> guard.call(ENDPOINT, this::succeed));
+
+        assertEquals(4, calls.get());
+        assertEquals(Duration.ofSeconds(10), rejected.getRetryAfter());
+        assertEquals(1, meterRegistry.get("audition.upstream.rejected").tag("reason", "circuit_open").counter()
+            .count());
+        assertEquals(1, meterRegistry.get("audition.upstream.circuit.transitions").tag("to", "open").counter()
+            .count());
+    }
+
+    @Test
+    void givenOpenCircuitWhenOpenDurationElapsedAndProbesSucceedThenCircuitCloses() {
+        final UpstreamGuard guard = createGuard();
+        callTimes(guard, 4, this::fail);
+        nanos.addAndGet(Duration.ofSeconds(10).toNanos());
+
+        callTimes(guard, 2, this::succeed);
+
+        assertEquals(VALUE, guard.call(ENDPOINT, this::succeed));
+        assertEquals(0, meterRegistry.get("audition.upstream.circuit.state").gauge().value());
+    }
+
+    @Test
+    void givenHalfOpenCircuitWhenProbeFailsThenCircuitOpensAgain() {
+        final UpstreamGuard guard = createGuard();
+        callTimes(guard, 4, this::fail);
+        nanos.addAndGet(Duration.ofSeconds(10).toNanos());
+
+        callTimes(guard, 1, this::succeed);
+        callTimes(guard, 1, this::fail);
+
+        assertThrows(UpstreamUnavailableException.class, () -> guard.call(ENDPOINT, this::succeed));
+        assertEquals(1, meterRegistry.get("audition.upstream.circuit.state").gauge().value());
+    }
+
+    @Test
+    void givenHalfOpenCircuitWhenProbesThrowErrorsThenCircuitOpensAgainInsteadOfStayingHalfOpen() {
+        final UpstreamGuard guard = createGuard();
+        callTimes(guard, 4, this::fail);
+        nanos.addAndGet(Duration.ofSeconds(10).toNanos());
+
+        for (int i = 0; i < 2; i++) {
+            assertThrows(AssertionError.class, () -> guard.call(ENDPOINT, () -> {
+                throw new AssertionError("probe");
+            }));
+        }
+
+        assertEquals(1, meterRegistry.get("audition.upstream.circuit.state").gauge().value());
+        nanos.addAndGet(Duration.ofSeconds(10).toNanos());
+        callTimes(guard, 2, this::succeed);
+        assertEquals(0, meterRegistry.get("audition.upstream.circuit.state").gauge().value());
+    }
+
+    @Test
+    void givenCallStartedWhileClosedWhenItEndsWhileHalfOpenThenItIsNotCountedAsProbe() {
+        final UpstreamGuard guard = createGuard();
+        final CompletableFuture<String> startedWhileClosed = new CompletableFuture<>();
+        final CompletableFuture<String> stale = guard.callAsync(ENDPOINT, () -> startedWhileClosed);
+        callTimes(guard, 4, this::fail);
+        nanos.addAndGet(Duration.ofSeconds(10).toNanos());
+
+        callTimes(guard, 1, this::succeed);
+        startedWhileClosed.completeExceptionally(new HttpServerErrorException(HttpStatus.BAD_GATEWAY));
+        callTimes(guard, 1, this::succeed);
+
+        assertTrue(stale.isCompletedExceptionally());
+        assertEquals(0, meterRegistry.get("audition.upstream.circuit.state").gauge().value());
+    }
+
+    @Test
+    void givenSlowCallRateReachedWhenCalledThenCircuitOpens() {
+        final UpstreamGuard guard = createGuard();
+
+        callTimes(guard, 4, () -> {
+            nanos.addAndGet(Duration.ofSeconds(3).toNanos());
+            return succeed();
+        });
+
+        assertThrows(UpstreamUnavailableException.class, () -> guard.call(ENDPOINT, this::succeed));
+    }
+
+    @Test
+    void givenClientErrorsWhenCalledThenTheyDoNotCountAsFailures() {
+        final UpstreamGuard guard = createGuard();
+
+        callTimes(guard, 8, () -> {
+            calls.incrementAndGet();
+            throw new HttpClientErrorException(HttpStatus.NOT_FOUND);
+        });
+
+        assertEquals(VALUE, guard.call(ENDPOINT, this::succeed));
+    }
+
+    @Test
+    void givenBulkheadFullWhenCalledAsyncThenCallIsRejectedUntilPermitIsReleased() {
+        properties.getBulkhead().setMaxConcurrent(1);
+        final UpstreamGuard guard = createGuard();
+        final CompletableFuture<String> inFlight = new CompletableFuture<>();
+
+        final CompletableFuture<String> first = guard.callAsync(ENDPOINT, () -> inFlight);
+        final CompletableFuture<String> second = guard.callAsync(ENDPOINT, () -> CompletableFuture.completedFuture(
+            VALUE));
+
+        final CompletionException rejected = assertThrows(CompletionException.class, second::join);
+        assertTrue(rejected.getCause() instanceof UpstreamUnavailableException);
+        inFlight.complete(VALUE);
+        assertEquals(VALUE, first.join());
+        assertEquals(VALUE, guard.callAsync(ENDPOINT, () -> CompletableFuture.completedFuture(VALUE)).join());
+        assertEquals(1, meterRegistry.get("audition.upstream.rejected").tag("reason", "bulkhead").counter().count());
+    }
+
+    @Test
+    void givenNonBlockingExecutionWhenMoreCallsThanBlockingLimitAreInFlightThenNoneIsRejected() {
+        properties.setExecution(IntegrationClientProperties.Execution.NON_BLOCKING);
+        final UpstreamGuard guard = createGuard();
+        final CompletableFuture<String> inFlight = new CompletableFuture<>();
+        final int concurrent = properties.getBulkhead().getMaxConcurrent() * 2;
+
+        final List<CompletableFuture<String>> results = new ArrayList<>();
+        for (int i = 0; i < concurrent; i++) {
+            results.add(guard.callAsync(ENDPOINT, () -> inFlight));
+        }
+        inFlight.complete(VALUE);
+
+        results.forEach(result -> assertEquals(VALUE, result.join()));
+    }
+
+    @Test
+    void givenAsyncFailuresWhenFailureRateReachedThenCircuitOpens() {
+        final UpstreamGuard guard = createGuard();
+
+        for (int i = 0; i < 4; i++) {
+            guard.callAsync(ENDPOINT, () -> CompletableFuture.failedFuture(
+                new HttpServerErrorException(HttpStatus.BAD_GATEWAY)));
+        }
+
+        assertTrue(guard.callAsync(ENDPOINT, () -> CompletableFuture.completedFuture(VALUE))
+            .isCompletedExceptionally());
+    }
+
+    private UpstreamGuard createGuard() {
+        return new UpstreamGuard(properties, meterRegistry, new AuditionLogger(), nanos::get);
+    }
+
+    private String succeed() {
+        calls.incrementAndGet();
+        return VALUE;
+    }
+
+    private String fail() {
+        calls.incrementAndGet();
+        throw new HttpServerErrorException(HttpStatus.SERVICE_UNAVAILABLE);
+    }
+
+    private static void callTimes(final UpstreamGuard guard, final int times, final Supplier<String> call) {
+        for (int i = 0; i < times; i++) {
+            try {
+                guard.call(ENDPOINT, call);
+            } catch (final HttpClientErrorException | HttpServerErrorException e) {
+                //the outcome is recorded by the guard
+            }
+        }
+    }
+}
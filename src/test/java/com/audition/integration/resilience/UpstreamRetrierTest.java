@@ -0,0 +1,196 @@
+package com.audition.integration.resilience;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.audition.configuration.IntegrationClientProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+class UpstreamRetrierTest {
+
+    private static final String ENDPOINT = "post";
+    private static final String VALUE = "value";
+    private static final String SKIPPED = "audition.upstream.retries.skipped";
+    private static final String REASON_TAG = "reason";
+
+    private final transient AtomicInteger calls = new AtomicInteger();
+
+    private transient IntegrationClientProperties properties;
+    private transient SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setup() {
+        properties = new IntegrationClientProperties();
+        properties.getRetry().setInitialBackoff(Duration.ofMillis(1));
+        properties.getRetry().setMaxBackoff(Duration.ofMillis(5));
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @AfterEach
+    void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    void givenTransientFailureWhenCalledThenItIsRetriedAndEachAttemptIsCounted() {
+        final UpstreamRetrier retrier = createRetrier();
+
+        assertEquals(VALUE, retrier.call(ENDPOINT, () -> failTimes(1)));
+
+        assertEquals(2, calls.get());
+        assertEquals(1, attempts("1", "failure"));
+        assertEquals(1, attempts("2", "success"));
+    }
+
+    @Test
+    void givenClientErrorWhenCalledThenItIsNotRetried() {
+        final UpstreamRetrier retrier = createRetrier();
+
+        assertThrows(HttpClientErrorException.class, () -> retrier.call(ENDPOINT, () -> {
+            calls.incrementAndGet();
+            throw new HttpClientErrorException(HttpStatus.NOT_FOUND);
+        }));
+
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    void givenRejectedCallWhenCalledThenItIsNotRetried() {
+        final UpstreamRetrier retrier = createRetrier();
+
+        assertThrows(UpstreamUnavailableException.class, () -> retrier.call(ENDPOINT, () -> {
+            calls.incrementAndGet();
+            throw new UpstreamUnavailableException("open", Duration.ofSeconds(1));
+        }));
+
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    void givenPersistentFailureWhenMaxAttemptsReachedThenLastFailureIsThrown() {
+        final UpstreamRetrier retrier = createRetrier();
+
+        assertThrows(HttpServerErrorException.class, () -> retrier.call(ENDPOINT, () -> failTimes(10)));
+
+        assertEquals(3, calls.get());
+        assertEquals(1, skipped("max_attempts"));
+    }
+
+    @Test
+    void givenExpiredRequestDeadlineWhenCallFailsThenItIsNotRetried() {
+        final MockHttpServletRequest request = new MockHttpServletRequest();
+        RequestDeadline.start(request, Duration.ZERO);
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+        final UpstreamRetrier retrier = createRetrier();
+
+        assertThrows(HttpServerErrorException.class, () -> retrier.call(ENDPOINT, () -> failTimes(1)));
+
+        assertEquals(1, calls.get());
+        assertEquals(1, skipped("deadline"));
+    }
+
+    @Test
+    void givenRequestDeadlineShorterThanAnAttemptWhenCallFailsThenItIsNotRetried() {
+        properties.setReadTimeout(Duration.ofSeconds(5));
+        final MockHttpServletRequest request = new MockHttpServletRequest();
+        RequestDeadline.start(request, Duration.ofSeconds(2));
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+        final UpstreamRetrier retrier = createRetrier();
+
+        assertThrows(HttpServerErrorException.class, () -> retrier.call(ENDPOINT, () -> failTimes(1)));
+
+        assertEquals(1, calls.get());
+        assertEquals(1, skipped("deadline"));
+    }
+
+    @Test
+    void givenExpiredRequestDeadlineWhenCallIsCarriedToAnotherThreadThenItIsNotRetried() {
+        final MockHttpServletRequest request = new MockHttpServletRequest();
+        RequestDeadline.start(request, Duration.ZERO);
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+        final UpstreamRetrier retrier = createRetrier();
+
+        final CompletableFuture<String> load = CompletableFuture.supplyAsync(
+            RequestDeadline.carry(() -> retrier.call(ENDPOINT, () -> failTimes(1))));
+
+        final CompletionException failure = assertThrows(CompletionException.class, load::join);
+        assertTrue(failure.getCause() instanceof HttpServerErrorException);
+        assertEquals(1, calls.get());
+        assertEquals(1, skipped("deadline"));
+    }
+
+    @Test
+    void givenExhaustedBudgetWhenCallFailsThenItIsNotRetried() {
+        properties.getRetry().setMaxAttempts(2);
+        properties.getRetry().setBudgetPercent(0);
+        final UpstreamRetrier retrier = createRetrier();
+
+        for (int i = 0; i < 11; i++) {
+            assertThrows(HttpServerErrorException.class, () -> retrier.call(ENDPOINT, () -> failTimes(100)));
+        }
+
+        //the burst of ten retries is spent, the eleventh failure is not retried
+        assertEquals(21, calls.get());
+        assertEquals(1, skipped("budget"));
+    }
+
+    @Test
+    void givenTransientAsyncFailureWhenCalledThenItIsRetried() {
+        final UpstreamRetrier retrier = createRetrier();
+
+        final CompletableFuture<String> result = retrier.callAsync(ENDPOINT, () -> calls.incrementAndGet() == 1
+            ? CompletableFuture.failedFuture(new HttpServerErrorException(HttpStatus.BAD_GATEWAY))
+            : CompletableFuture.completedFuture(VALUE));
+
+        assertEquals(VALUE, result.join());
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    void givenPersistentAsyncFailureWhenMaxAttemptsReachedThenCompletesWithLastFailure() {
+        final UpstreamRetrier retrier = createRetrier();
+
+        final CompletableFuture<String> result = retrier.callAsync(ENDPOINT, () -> {
+            calls.incrementAndGet();
+            return CompletableFuture.failedFuture(new HttpServerErrorException(HttpStatus.BAD_GATEWAY));
+        });
+
+        final CompletionException failure = assertThrows(CompletionException.class, result::join);
+        assertTrue(failure.getCause() instanceof HttpServerErrorException);
+        assertEquals(3, calls.get());
+    }
+
+    private UpstreamRetrier createRetrier() {
+        return new UpstreamRetrier(properties, meterRegistry);
+    }
+
+    private String failTimes(final int failures) {
+        if (calls.incrementAndGet() <= failures) {
+            throw new HttpServerErrorException(HttpStatus.SERVICE_UNAVAILABLE);
+        }
+        return VALUE;
+    }
+
+    private double attempts(final String attempt, final String outcome) {
+        return meterRegistry.get("audition.upstream.attempts").tag("attempt", attempt).tag("outcome", outcome)
+            .counter().count();
+    }
+
+    private double skipped(final String reason) {
+        return meterRegistry.get(SKIPPED).tag(REASON_TAG, reason).counter().count();
+    }
+}
@@ -0,0 +1,123 @@
+package com.audition.integration.snapshot;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.audition.common.logging.AuditionLogger;
+import com.audition.configuration.IntegrationCacheProperties;
+import com.audition.model.AuditionComment;
+import com.audition.model.AuditionPost;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+
+@ExtendWith(MockitoExtension.class)
+class SnapshotStoreTest {
+
+    private static final List<AuditionPost> POSTS = List.of(
+        new AuditionPost(1, 1, "title", "body with ünïcode", null),
+        new AuditionPost(2, 2, null, "body", null));
+    private static final List<AuditionComment> COMMENTS = List.of(
+        new AuditionComment(1, 1, "name", "snapshot@test.com", "comment"));
+
+    @TempDir
+    private transient Path directory;
+
+    @Mock
+    private transient SnapshotSource source;
+
+    @Mock
+    private transient AuditionLogger logger;
+
+    private transient IntegrationCacheProperties properties;
+
+    @BeforeEach
+    void setup() {
+        properties = new IntegrationCacheProperties();
+        properties.getSnapshot().setPath(directory.resolve("nested").resolve("upstream.snapshot"));
+    }
+
+    @Test
+    void givenSavedSnapshotWhenStartedThenSourceIsRestoredFromIt() {
+        when(source.snapshot()).thenReturn(Optional.of(new UpstreamSnapshot(Instant.now(), POSTS, null)));
+        createStore().save();
+
+        final SnapshotStore restarted = createStore();
+        restarted.afterSingletonsInstantiated();
+        restarted.destroy();
+
+        final ArgumentCaptor<UpstreamSnapshot> restored = ArgumentCaptor.forClass(UpstreamSnapshot.class);
+        verify(source).restore(restored.capture());
+        assertEquals(POSTS, restored.getValue().posts());
+        assertNull(restored.getValue().comments());
+    }
+
+    @Test
+    void givenSavedSnapshotWhenLoadedThenPostsAndCommentsRoundTrip() {
+        when(source.snapshot()).thenReturn(Optional.of(new UpstreamSnapshot(Instant.now(), POSTS, COMMENTS)));
+        final SnapshotStore store = createStore();
+        store.save();
+
+        final UpstreamSnapshot loaded = store.load().orElseThrow();
+
+        assertEquals(POSTS, loaded.posts());
+        assertEquals(COMMENTS, loaded.comments());
+    }
+
+    @Test
+    void givenDamagedSnapshotWhenLoadedThenItIsIgnored() throws IOException {
+        when(source.snapshot()).thenReturn(Optional.of(new UpstreamSnapshot(Instant.now(), POSTS, COMMENTS)));
+        final SnapshotStore store = createStore();
+        store.save();
+        final Path path = properties.getSnapshot().getPath();
+        final byte[] bytes = Files.readAllBytes(path);
+        bytes[bytes.length - 1] ^= 1;
+        Files.write(path, bytes);
+
+        assertTrue(store.load().isEmpty());
+        verify(logger).warn(any(), anyString());
+    }
+
+    @Test
+    void givenSnapshotOlderThanMaxAgeWhenLoadedThenItIsIgnored() {
+        final Instant createdAt = Instant.now().minus(Duration.ofHours(2));
+        when(source.snapshot()).thenReturn(Optional.of(new UpstreamSnapshot(createdAt, POSTS, COMMENTS)));
+        final SnapshotStore store = createStore();
+        store.save();
+
+        assertTrue(Files.exists(properties.getSnapshot().getPath()));
+        assertTrue(store.load().isEmpty());
+    }
+
+    @Test
+    void givenCachingDisabledWhenSavedThenNothingIsWritten() {
+        properties.setEnabled(false);
+
+        createStore().save();
+
+        assertTrue(Files.notExists(properties.getSnapshot().getPath()));
+    }
+
+    private SnapshotStore createStore() {
+        final StaticListableBeanFactory beanFactory = new StaticListableBeanFactory(Map.of("source", source));
+        return new SnapshotStore(properties, beanFactory.getBeanProvider(SnapshotSource.class), logger);
+    }
+}
@@ -0,0 +1,168 @@
+package com.audition.performance;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.audition.AuditionApplication;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Stream;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+//drives the four read endpoints at a fixed request rate against the stub upstream and reports latency percentiles,
+//tuned with -Dload.* system properties, e.g. -Dload.rps=500 -Dload.app-args=--integration.cache.enabled=false
+@Tag("benchmark")
+@Slf4j
+@SuppressWarnings({"PMD.DoNotUseThreads", "PMD.ClassNamingConventions", "PMD.ExcessiveImports"}) //paced load generator
+class EndToEndLoadBenchmark {
+
+    private static final int RATE = Integer.getInteger("load.rps", 200);
+    private static final Duration WARM_UP = Duration.parse(System.getProperty("load.warm-up", "PT5S"));
+    private static final Duration MEASUREMENT = Duration.parse(System.getProperty("load.duration", "PT20S"));
+    private static final Duration UPSTREAM_LATENCY = Duration.parse(
+        System.getProperty("load.upstream-latency", "PT0.05S"));
+    private static final int BODY_LENGTH = Integer.getInteger("load.body-length", 200);
+    private static final double ERROR_RATE = Double.parseDouble(System.getProperty("load.error-rate", "0"));
+    private static final String APP_ARGS = System.getProperty("load.app-args", "");
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(10);
+    private static final int POST_COUNT = 100;
+    private static final String POST_ID = "{id}";
+    private static final String LATENCY_METRIC = "load.latency";
+    private static final String ERRORS_METRIC = "load.errors";
+    private static final String ENDPOINT_TAG = "endpoint";
+    private static final List<String> ENDPOINTS = List.of("/posts", "/posts/" + POST_ID,
+        "/posts/" + POST_ID + "/comments", "/comments?postId=" + POST_ID);
+    private static final String USER = "benchmark";
+    private static final String PASSWORD = "benchmark";
+    private static final String AUTHORIZATION = "Basic " + Base64.getEncoder()
+        .encodeToString((USER + ":" + PASSWORD).getBytes(StandardCharsets.UTF_8));
+
+    @SuppressWarnings("PMD.SignatureDeclareThrowsException")
+    @Test
+    void givenTargetRateWhenDrivingAllEndpointsThenEveryRequestIsAnswered() throws Exception {
+        try (StubUpstreamServer upstream = StubUpstreamServer.start(UPSTREAM_LATENCY, POST_COUNT, BODY_LENGTH,
+            ERROR_RATE);
+            ConfigurableApplicationContext application = startApplication(upstream);
+            HttpClient httpClient = HttpClient.newHttpClient()) {
+
+            final String baseUrl = "http://localhost:" + application.getEnvironment().getProperty("local.server.port");
+            drive(httpClient, baseUrl, WARM_UP, new SimpleMeterRegistry());
+
+            final long upstreamBefore = upstream.requestCount();
+            final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+            final LoadResult result = drive(httpClient, baseUrl, MEASUREMENT, meterRegistry);
+            report(meterRegistry, result, upstream.requestCount() - upstreamBefore);
+
+            assertThat(result.answered()).isEqualTo(result.issued());
+        }
+    }
+
+    private static ConfigurableApplicationContext startApplication(final StubUpstreamServer upstream) {
+        //passed as command line arguments so they take precedence over the bundled application.yml
+        final String[] args = Stream.concat(Stream.of(
+                    "--server.port=0",
+                    "--spring.cloud.config.enabled=false",
+                    "--spring.security.user.name=" + USER,
+                    "--spring.security.user.password=" + PASSWORD,
+                    "--integration.client.url=" + upstream.url(),
+                    "--logging.level.root=WARN",
+                    "--logging.level.com.audition.performance=INFO"),
+                Stream.of(APP_ARGS.split("\\s+")).filter(arg -> !arg.isBlank()))
+            .toArray(String[]::new);
+        return new SpringApplicationBuilder(AuditionApplication.class).run(args);
+    }
+
+    private static LoadResult drive(final HttpClient httpClient, final String baseUrl, final Duration duration,
+        final SimpleMeterRegistry meterRegistry) {
+        final Map<String, Timer> latencies = new ConcurrentHashMap<>();
+        final Map<String, Counter> errors = new ConcurrentHashMap<>();
+        for (final String endpoint : ENDPOINTS) {
+            latencies.put(endpoint, Timer.builder(LATENCY_METRIC)
+                .tag(ENDPOINT_TAG, endpoint)
+                .publishPercentiles(0.5, 0.99, 0.999)
+                .percentilePrecision(3)
+                .distributionStatisticBufferLength(1)
+                .distributionStatisticExpiry(duration.plus(REQUEST_TIMEOUT).multipliedBy(2))
+                .register(meterRegistry));
+            errors.put(endpoint, Counter.builder(ERRORS_METRIC).tag(ENDPOINT_TAG, endpoint).register(meterRegistry));
+        }
+
+        final long interval = TimeUnit.SECONDS.toNanos(1) / RATE;
+        final long requests = duration.toNanos() / interval;
+        final List<CompletableFuture<Boolean>> responses = new ArrayList<>((int) requests);
+        final long start = System.nanoTime();
+        for (long i = 0; i < requests; i++) {
+            final long scheduled = start + i * interval;
+            LockSupport.parkNanos(scheduled - System.nanoTime());
+
+            final String endpoint = ENDPOINTS.get((int) (i % ENDPOINTS.size()));
+            final String postId = String.valueOf(ThreadLocalRandom.current().nextInt(1, POST_COUNT + 1));
+            final HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + endpoint.replace(POST_ID, postId)))
+                .header("Authorization", AUTHORIZATION)
+                .timeout(REQUEST_TIMEOUT)
+                .GET()
+                .build();
+            responses.add(httpClient.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                .handle((response, failure) -> {
+                    //measured from the scheduled start so a stalled server is not hidden by the pacing
+                    latencies.get(endpoint).record(System.nanoTime() - scheduled, TimeUnit.NANOSECONDS);
+                    if (failure != null || response.statusCode() >= 400) {
+                        errors.get(endpoint).increment();
+                    }
+                    return failure == null;
+                }));
+        }
+        CompletableFuture.allOf(responses.toArray(CompletableFuture[]::new)).join();
+        final double elapsedSeconds = (System.nanoTime() - start) / (double) TimeUnit.SECONDS.toNanos(1);
+
+        final long answered = responses.stream().filter(CompletableFuture::join).count();
+        return new LoadResult(requests, answered, answered / elapsedSeconds);
+    }
+
+    @SuppressWarnings("PMD.GuardLogStatement") //guarded once for the whole report
+    private static void report(final SimpleMeterRegistry meterRegistry, final LoadResult result,
+        final long upstreamRequests) {
+        if (!log.isInfoEnabled()) {
+            return;
+        }
+        log.info("target {} req/s, achieved {} req/s, {} of {} requests answered, {} upstream requests",
+            RATE, Math.round(result.throughput()), result.answered(), result.issued(), upstreamRequests);
+        for (final String endpoint : ENDPOINTS) {
+            final HistogramSnapshot snapshot = meterRegistry.get(LATENCY_METRIC).tag(ENDPOINT_TAG, endpoint).timer()
+                .takeSnapshot();
+            final ValueAtPercentile[] percentiles = snapshot.percentileValues();
+            log.info("{} count={} errors={} p50={} ms p99={} ms p999={} ms max={} ms", endpoint, snapshot.count(),
+                Math.round(meterRegistry.get(ERRORS_METRIC).tag(ENDPOINT_TAG, endpoint).counter().count()),
+                millis(percentiles[0]), millis(percentiles[1]), millis(percentiles[2]),
+                Math.round(snapshot.max(TimeUnit.MILLISECONDS)));
+        }
+    }
+
+    private static String millis(final ValueAtPercentile percentile) {
+        return String.format("%.1f", percentile.value(TimeUnit.MILLISECONDS));
+    }
+
+    private record LoadResult(long issued, long answered, double throughput) {
+    }
+}
@@ -0,0 +1,168 @@
+package com.audition.performance;
+
+import com.audition.model.AuditionComment;
+import com.audition.model.AuditionPost;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.IntStream;
+
+//in-process stand-in for the upstream, serving synthetic posts and comments after a fixed delay
+//with bodies of a configurable length and a configurable share of 500 responses
+@SuppressWarnings({"PMD.DoNotUseThreads", "PMD.TooManyMethods"}) //serves each request on its own virtual thread
+public final class StubUpstreamServer implements AutoCloseable {
+
+    private static final Pattern POST_PATH = Pattern.compile("^/posts/(\\d+)$");
+    private static final Pattern POST_COMMENTS_PATH = Pattern.compile("^/posts/(\\d+)/comments$");
+    private static final String POSTS_PATH = "/posts";
+    private static final String COMMENTS_PATH = "/comments";
+    private static final Pattern POST_ID_QUERY = Pattern.compile("postId=(\\d+)");
+    private static final Pattern RANGE_QUERY = Pattern.compile("_start=(\\d+)&_limit=(\\d+)");
+    private static final int COMMENTS_PER_POST = 5;
+
+    private final transient HttpServer server;
+    private final transient ExecutorService executor;
+    private final transient Duration latency;
+    private final transient int bodyLength;
+    private final transient double errorRate;
+    private final transient LongAdder requests = new LongAdder();
+    private final transient ObjectMapper objectMapper = new ObjectMapper();
+    private final transient int postCount;
+    private final transient byte[] postsBody;
+    private final transient byte[] commentsBody;
+
+    private StubUpstreamServer(final Duration latency, final int postCount, final int bodyLength,
+        final double errorRate) throws IOException {
+        this.latency = latency;
+        this.bodyLength = bodyLength;
+        this.errorRate = errorRate;
+        this.postCount = postCount;
+        this.postsBody = objectMapper.writeValueAsBytes(IntStream.rangeClosed(1, postCount)
+            .mapToObj(this::post)
+            .toList());
+        this.commentsBody = objectMapper.writeValueAsBytes(IntStream.rangeClosed(1, postCount)
+            .mapToObj(this::comments)
+            .flatMap(List::stream)
+            .toList());
+        this.executor = Executors.newVirtualThreadPerTaskExecutor();
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 1024);
+        this.server.setExecutor(executor);
+        this.server.createContext("/", this::handle);
+        this.server.start();
+    }
+
+    public static StubUpstreamServer start(final Duration latency, final int postCount) throws IOException {
+        return start(latency, postCount, 0, 0);
+    }
+
+    //bodyLength pads the body text of every post and comment, errorRate is the share of requests answered with 500
+    public static StubUpstreamServer start(final Duration latency, final int postCount, final int bodyLength,
+        final double errorRate) throws IOException {
+        return new StubUpstreamServer(latency, postCount, bodyLength, errorRate);
+    }
+
+    public long requestCount() {
+        return requests.sum();
+    }
+
+    public String url() {
+        return "http://" + server.getAddress().getHostString() + ":" + server.getAddress().getPort();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private void handle(final HttpExchange exchange) throws IOException {
+        try (exchange) {
+            requests.increment();
+            sleep(latency);
+            if (ThreadLocalRandom.current().nextDouble() < errorRate) {
+                exchange.sendResponseHeaders(500, -1);
+                return;
+            }
+            final String path = exchange.getRequestURI().getPath();
+            final String query = exchange.getRequestURI().getQuery();
+
+            final Matcher post = POST_PATH.matcher(path);
+            final Matcher postComments = POST_COMMENTS_PATH.matcher(path);
+            if (POSTS_PATH.equals(path)) {
+                respondPosts(exchange, query);
+            } else if (post.matches()) {
+                respond(exchange, objectMapper.writeValueAsBytes(post(Integer.parseInt(post.group(1)))));
+            } else if (postComments.matches()) {
+                respond(exchange, objectMapper.writeValueAsBytes(comments(Integer.parseInt(postComments.group(1)))));
+            } else if (COMMENTS_PATH.equals(path) && query == null) {
+                respond(exchange, commentsBody);
+            } else if (COMMENTS_PATH.equals(path) && POST_ID_QUERY.matcher(query).find()) {
+                final Matcher postId = POST_ID_QUERY.matcher(query);
+                postId.find();
+                respond(exchange, objectMapper.writeValueAsBytes(comments(Integer.parseInt(postId.group(1)))));
+            } else {
+                exchange.sendResponseHeaders(404, -1);
+            }
+        }
+    }
+
+    private void respondPosts(final HttpExchange exchange, final String query) throws IOException {
+        final Matcher range = RANGE_QUERY.matcher(query == null ? "" : query);
+        if (range.find()) {
+            respond(exchange, objectMapper.writeValueAsBytes(
+                posts(Integer.parseInt(range.group(1)), Integer.parseInt(range.group(2)))));
+        } else {
+            respond(exchange, postsBody);
+        }
+    }
+
+    private static void respond(final HttpExchange exchange, final byte[] body) throws IOException {
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, body.length);
+        try (OutputStream outputStream = exchange.getResponseBody()) {
+            outputStream.write(body);
+        }
+    }
+
+    private AuditionPost post(final int id) {
+        return new AuditionPost(id % 10 + 1, id, "Post title " + id, body("Post body " + id), null);
+    }
+
+    //the range query of json-server, posts start to start + limit
+    private List<AuditionPost> posts(final int start, final int limit) {
+        return IntStream.rangeClosed(start + 1, Math.min(postCount, start + limit))
+            .mapToObj(this::post)
+            .toList();
+    }
+
+    private List<AuditionComment> comments(final int postId) {
+        return IntStream.range(0, COMMENTS_PER_POST)
+            .mapToObj(i -> new AuditionComment(postId, postId * COMMENTS_PER_POST + i, "Comment " + i,
+                "user" + i + "@test.com", body("Comment body " + i)))
+            .toList();
+    }
+
+    private String body(final String text) {
+        return text + "x".repeat(Math.max(0, bodyLength - text.length()));
+    }
+
+    private static void sleep(final Duration duration) {
+        try {
+            Thread.sleep(duration);
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package com.audition.performance;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import com.audition.AuditionApplication;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+//reports GET /posts/{id} throughput with platform and virtual request threads against a slow upstream, the two are
+//only compared when the platform run was capped by its request threads rather than by the cpu
+@Tag("benchmark")
+@Slf4j
+@SuppressWarnings({"PMD.DoNotUseThreads", "PMD.ClassNamingConventions"}) //load from virtual threads, not a unit test
+class VirtualThreadThroughputBenchmark {
+
+    private static final Duration UPSTREAM_LATENCY = Duration.ofMillis(500);
+    private static final Duration WARM_UP = Duration.ofSeconds(3);
+    private static final Duration MEASUREMENT = Duration.ofSeconds(10);
+    private static final int CONCURRENT_CLIENTS = 400;
+    private static final int PLATFORM_THREADS = 200;
+    //a platform run within this share of its thread bound counts as capped by it
+    private static final double THREAD_BOUND_SHARE = 0.9;
+    //two runs of ten seconds on a shared host differ by a few percent without any change
+    private static final double MARGIN = 1.2;
+    private static final int POST_COUNT = 100;
+    private static final String USER = "benchmark";
+    private static final String PASSWORD = "benchmark";
+    private static final String AUTHORIZATION = "Basic " + Base64.getEncoder()
+        .encodeToString((USER + ":" + PASSWORD).getBytes(StandardCharsets.UTF_8));
+
+    @SuppressWarnings("PMD.SignatureDeclareThrowsException")
+    @Test
+    void givenSlowUpstreamWhenPlatformThreadsAreTheBoundThenVirtualThreadsGoPastIt() throws Exception {
+        try (StubUpstreamServer upstream = StubUpstreamServer.start(UPSTREAM_LATENCY, POST_COUNT)) {
+            final double platformThroughput = measureThroughput(upstream, false);
+            final double virtualThroughput = measureThroughput(upstream, true);
+            //every platform request thread waits out the upstream latency once per request
+            final double threadBound = PLATFORM_THREADS * 1000.0 / UPSTREAM_LATENCY.toMillis();
+
+            if (log.isInfoEnabled()) {
+                log.info("GET /posts/{id} with {} ms upstream latency and {} concurrent clients: "
+                        + "platform threads {} req/s (bound {} req/s), virtual threads {} req/s",
+                    UPSTREAM_LATENCY.toMillis(), CONCURRENT_CLIENTS, Math.round(platformThroughput),
+                    Math.round(threadBound), Math.round(virtualThroughput));
+            }
+
+            //a cpu bound host serves both modes at the same rate, there is nothing to compare
+            assumeTrue(platformThroughput >= threadBound * THREAD_BOUND_SHARE,
+                "the platform run did not reach its request thread bound");
+            assertThat(virtualThroughput).isGreaterThan(platformThroughput * MARGIN);
+        }
+    }
+
+    @SuppressWarnings("PMD.SignatureDeclareThrowsException")
+    private static double measureThroughput(final StubUpstreamServer upstream, final boolean virtualThreads)
+        throws Exception {
+        //passed as command line arguments so they take precedence over the bundled application.yml
+        try (ConfigurableApplicationContext application = new SpringApplicationBuilder(AuditionApplication.class)
+            .run(
+                "--server.port=0",
+                "--spring.cloud.config.enabled=false",
+                "--spring.security.user.name=" + USER,
+                "--spring.security.user.password=" + PASSWORD,
+                "--spring.threads.virtual.enabled=" + virtualThreads,
+                "--server.tomcat.threads.max=" + PLATFORM_THREADS,
+                "--integration.client.url=" + upstream.url(),
+                "--integration.client.pool.max-total=" + CONCURRENT_CLIENTS,
+                "--integration.client.pool.max-per-route=" + CONCURRENT_CLIENTS,
+                //every request must reach the upstream for the comparison to be meaningful
+                "--integration.cache.enabled=false",
+                //the bulkhead would cap both modes at the same number of upstream calls in flight
+                "--integration.client.bulkhead.enabled=false",
+                //nor may requests be shed before they reach a request thread
+                "--inbound.limiter.enabled=false",
+                "--logging.level.root=WARN")) {
+
+            final String baseUrl = "http://localhost:" + application.getEnvironment().getProperty("local.server.port");
+            runLoad(baseUrl, WARM_UP);
+            return runLoad(baseUrl, MEASUREMENT) / (double) MEASUREMENT.toSeconds();
+        }
+    }
+
+    @SuppressWarnings("PMD.SignatureDeclareThrowsException")
+    private static long runLoad(final String baseUrl, final Duration duration) throws Exception {
+        final LongAdder completed = new LongAdder();
+        final long deadline = System.nanoTime() + duration.toNanos();
+
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor();
+            HttpClient httpClient = HttpClient.newBuilder().executor(clients).build()) {
+            final List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < CONCURRENT_CLIENTS; i++) {
+                futures.add(clients.submit(() -> {
+                    while (System.nanoTime() < deadline) {
+                        final HttpRequest request = HttpRequest.newBuilder(URI.create(
+                                baseUrl + "/posts/" + ThreadLocalRandom.current().nextInt(1, POST_COUNT + 1)))
+                            .header("Authorization", AUTHORIZATION)
+                            .GET()
+                            .build();
+                        if (send(httpClient, request)) {
+                            completed.increment();
+                        }
+                    }
+                    return null;
+                }));
+            }
+            for (final Future<?> future : futures) {
+                future.get();
+            }
+        }
+        return completed.sum();
+    }
+
+    private static boolean send(final HttpClient httpClient, final HttpRequest request)
+        throws InterruptedException {
+        try {
+            return httpClient.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200;
+        } catch (final IOException e) {
+            //connections dropped under overload count as failed requests rather than aborting the run
+            return false;
+        }
+    }
+}
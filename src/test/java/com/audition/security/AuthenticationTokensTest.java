@@ -0,0 +1,70 @@
+package com.audition.security;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.provisioning.InMemoryUserDetailsManager;
+
+class AuthenticationTokensTest {
+
+    private static final String USERNAME = "user";
+    private static final Instant NOW = Instant.parse("2024-05-01T10:00:00Z");
+
+    private transient InMemoryUserDetailsManager users;
+    private transient AuthenticationProperties.Token properties;
+
+    @BeforeEach
+    void setup() {
+        users = new InMemoryUserDetailsManager(User.withUsername(USERNAME).password("{noop}password").roles("USER")
+            .build());
+        properties = new AuthenticationProperties.Token();
+        properties.setSecret("secret");
+    }
+
+    @Test
+    void givenIssuedTokenWhenVerifiedThenUserIsAuthenticated() {
+        final AuthenticationTokens tokens = tokensAt(NOW);
+
+        final String token = tokens.issue(USERNAME).orElseThrow();
+
+        assertEquals(USERNAME, tokens.verify(token).orElseThrow().getName());
+    }
+
+    @Test
+    void givenExpiredTokenWhenVerifiedThenItIsRejected() {
+        final String token = tokensAt(NOW).issue(USERNAME).orElseThrow();
+
+        assertTrue(tokensAt(NOW.plus(properties.getTtl()).plus(Duration.ofSeconds(1))).verify(token).isEmpty());
+    }
+
+    @Test
+    void givenTamperedTokenWhenVerifiedThenItIsRejected() {
+        final AuthenticationTokens tokens = tokensAt(NOW);
+        final String token = tokens.issue(USERNAME).orElseThrow();
+        final String[] parts = token.split("\\.");
+
+        assertTrue(tokens.verify(parts[0] + "." + (Long.parseLong(parts[1]) + 3600) + "." + parts[2]).isEmpty());
+        assertTrue(tokens.verify("not-a-token").isEmpty());
+    }
+
+    @Test
+    void givenChangedPasswordWhenVerifiedThenEarlierTokenIsRejected() {
+        final AuthenticationTokens tokens = tokensAt(NOW);
+        final String token = tokens.issue(USERNAME).orElseThrow();
+
+        users.updateUser(User.withUsername(USERNAME).password("{noop}changed").roles("USER").build());
+
+        assertTrue(tokens.verify(token).isEmpty());
+    }
+
+    private AuthenticationTokens tokensAt(final Instant now) {
+        return new AuthenticationTokens(properties, users, Clock.fixed(now, ZoneOffset.UTC));
+    }
+}
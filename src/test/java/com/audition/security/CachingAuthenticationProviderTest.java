@@ -0,0 +1,97 @@
+package com.audition.security;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.crypto.password.NoOpPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.provisioning.InMemoryUserDetailsManager;
+
+class CachingAuthenticationProviderTest {
+
+    private static final String USERNAME = "user";
+    private static final String PASSWORD = "password";
+
+    private final transient AtomicInteger passwordChecks = new AtomicInteger();
+
+    private transient CacheInvalidatingUserDetailsManager users;
+    private transient CachingAuthenticationProvider provider;
+
+    @BeforeEach
+    void setup() {
+        final AuthenticationCache cache = new AuthenticationCache(new AuthenticationProperties.Cache(),
+            new SimpleMeterRegistry());
+        users = new CacheInvalidatingUserDetailsManager(new InMemoryUserDetailsManager(
+            User.withUsername(USERNAME).password(PASSWORD).roles("USER").build()), cache);
+        final DaoAuthenticationProvider dao = new DaoAuthenticationProvider(countingEncoder());
+        dao.setUserDetailsService(users);
+        provider = new CachingAuthenticationProvider(dao, cache);
+    }
+
+    @Test
+    void givenAuthenticatedCredentialsWhenPresentedAgainThenPasswordIsNotCheckedAgain() {
+        final Authentication first = provider.authenticate(credentials(PASSWORD));
+        final Authentication second = provider.authenticate(credentials(PASSWORD));
+
+        assertSame(first, second);
+        assertEquals(1, passwordChecks.get());
+    }
+
+    @Test
+    void givenWrongPasswordWhenPresentedAgainThenEachAttemptIsChecked() {
+        assertThrows(BadCredentialsException.class, () -> provider.authenticate(credentials("wrong")));
+        assertThrows(BadCredentialsException.class, () -> provider.authenticate(credentials("wrong")));
+
+        assertEquals(2, passwordChecks.get());
+    }
+
+    @Test
+    void givenCachedAuthenticationWhenPasswordChangesThenOldPasswordIsRejected() {
+        provider.authenticate(credentials(PASSWORD));
+
+        users.updateUser(User.withUsername(USERNAME).password("changed").roles("USER").build());
+
+        assertThrows(BadCredentialsException.class, () -> provider.authenticate(credentials(PASSWORD)));
+        assertEquals(USERNAME, provider.authenticate(credentials("changed")).getName());
+    }
+
+    @Test
+    void givenCachedAuthenticationWhenUserIsDeletedThenCredentialsAreRejected() {
+        provider.authenticate(credentials(PASSWORD));
+
+        users.deleteUser(USERNAME);
+
+        assertThrows(BadCredentialsException.class, () -> provider.authenticate(credentials(PASSWORD)));
+    }
+
+    private static UsernamePasswordAuthenticationToken credentials(final String password) {
+        return UsernamePasswordAuthenticationToken.unauthenticated(USERNAME, password);
+    }
+
+    @SuppressWarnings("deprecation") //plain text passwords keep the test about caching rather than hashing
+    private PasswordEncoder countingEncoder() {
+        final PasswordEncoder encoder = NoOpPasswordEncoder.getInstance();
+        return new PasswordEncoder() {
+            @Override
+            public String encode(final CharSequence rawPassword) {
+                return encoder.encode(rawPassword);
+            }
+
+            @Override
+            public boolean matches(final CharSequence rawPassword, final String encodedPassword) {
+                passwordChecks.incrementAndGet();
+                return encoder.matches(rawPassword, encodedPassword);
+            }
+        };
+    }
+}
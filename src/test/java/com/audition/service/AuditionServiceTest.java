@@ -1,13 +1,22 @@
 package com.audition.service;
 
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import com.audition.common.exception.SystemException;
 import com.audition.integration.AuditionIntegrationClient;
 import com.audition.model.AuditionComment;
 import com.audition.model.AuditionPost;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.stream.IntStream;
@@ -15,6 +24,8 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
@@ -23,7 +34,7 @@ import org.springframework.http.HttpStatusCode;
 import org.springframework.web.client.HttpClientErrorException;
 
 @ExtendWith(MockitoExtension.class)
-@SuppressWarnings("PMD.TooManyMethods") //need the test cases for thorough coverage
+@SuppressWarnings({"PMD.TooManyMethods", "PMD.ExcessiveImports"}) //need the test cases for thorough coverage
 class AuditionServiceTest {
 
     private static final int SOME_ID = 1;
@@ -176,6 +187,112 @@ class AuditionServiceTest {
         assertEquals("Offset Param cannot be greater than amount of Posts: " + invalidOffset, exception.getDetail());
     }
 
+    @Test
+    void givenStreamPostsWhenOffsetBeyondUpstreamPostsThenThrowBadRequest() {
+        when(auditionIntegrationClient.streamPosts(eq(1000), eq(100), any())).thenReturn(1000);
+
+        final SystemException exception = assertThrows(SystemException.class,
+            () -> auditionService.streamPosts(1000, 100, post -> {
+            }));
+
+        assertEquals(HttpStatus.BAD_REQUEST.value(), exception.getStatusCode());
+    }
+
+    @Test
+    void givenPaginationPushdownWhenGetPostsThenUpstreamPageIsReturned() {
+        when(auditionIntegrationClient.isPaginationPushdown()).thenReturn(true);
+        givenUpstreamHonoursRange();
+        when(auditionIntegrationClient.getPostsPage(50, 25)).thenReturn(auditionPosts.subList(50, 75));
+
+        assertEquals(auditionPosts.subList(50, 75), auditionService.getPosts(50, 25));
+        verify(auditionIntegrationClient, never()).getPosts();
+    }
+
+    @Test
+    void givenPaginationPushdownWhenUpstreamIgnoresRangeThenPageIsSlicedLocally() {
+        when(auditionIntegrationClient.isPaginationPushdown()).thenReturn(true);
+        when(auditionIntegrationClient.getPostsPage(0, 1)).thenReturn(auditionPosts);
+        when(auditionIntegrationClient.getPosts()).thenReturn(auditionPosts);
+
+        assertEquals(auditionPosts.subList(50, 75), auditionService.getPosts(50, 25));
+        assertEquals(auditionPosts.subList(75, 100), auditionService.getPosts(75, 25));
+        verify(auditionIntegrationClient, never()).getPostsPage(50, 25);
+    }
+
+    @Test
+    void givenPaginationPushdownWhenUpstreamIgnoresRangeAndPostsFitTheLimitThenPageIsSlicedLocally() {
+        final List<AuditionPost> posts = auditionPosts.subList(0, 100);
+        when(auditionIntegrationClient.isPaginationPushdown()).thenReturn(true);
+        when(auditionIntegrationClient.getPostsPage(0, 1)).thenReturn(posts);
+        when(auditionIntegrationClient.getPosts()).thenReturn(posts);
+
+        assertEquals(posts.subList(10, 100), auditionService.getPosts(10, 100));
+    }
+
+    @Test
+    void givenPaginationPushdownWhenUpstreamIgnoresRangeForASinglePostThenPageIsSlicedLocally() {
+        final List<AuditionPost> posts = auditionPosts.subList(0, 1);
+        when(auditionIntegrationClient.isPaginationPushdown()).thenReturn(true);
+        when(auditionIntegrationClient.getPostsPage(anyInt(), anyInt())).thenReturn(posts);
+        when(auditionIntegrationClient.getPosts()).thenReturn(posts);
+
+        final SystemException exception = assertThrows(SystemException.class, () -> auditionService.getPosts(1, 10));
+
+        assertEquals(HttpStatus.BAD_REQUEST.value(), exception.getStatusCode());
+    }
+
+    @Test
+    void givenPaginationPushdownWhenOffsetBeyondUpstreamPostsThenThrowBadRequest() {
+        when(auditionIntegrationClient.isPaginationPushdown()).thenReturn(true);
+        when(auditionIntegrationClient.getPostsPage(1000, 100)).thenReturn(Collections.emptyList());
+        givenUpstreamHonoursRange();
+
+        final SystemException exception = assertThrows(SystemException.class,
+            () -> auditionService.streamPosts(1000, 100, post -> {
+            }));
+
+        assertEquals(HttpStatus.BAD_REQUEST.value(), exception.getStatusCode());
+    }
+
+    @Test
+    void givenPaginationPushdownWhenNoUpstreamPostsThenReturnEmptyResult() {
+        when(auditionIntegrationClient.isPaginationPushdown()).thenReturn(true);
+        when(auditionIntegrationClient.getPostsPage(anyInt(), anyInt())).thenReturn(Collections.emptyList());
+
+        assertTrue(auditionService.getPosts(10, 100).isEmpty());
+    }
+
+    @Test
+    void givenGetPostsAfterWhenFollowingNextCursorThenPagesAreOrderedById() {
+        final List<AuditionPost> unordered = new ArrayList<>(auditionPosts);
+        Collections.reverse(unordered);
+        when(auditionIntegrationClient.getPosts()).thenReturn(unordered);
+
+        final PostPage first = auditionService.getPostsAfter("", 600);
+        final PostPage last = auditionService.getPostsAfter(first.next(), 600);
+
+        assertEquals(auditionPosts.subList(0, 600), first.posts());
+        assertEquals(auditionPosts.subList(600, 1000), last.posts());
+        assertNull(last.next());
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"not a cursor", "aWQ6", "eDox"})
+    void givenGetPostsAfterWhenCursorInvalidThenThrowBadRequest(final String cursor) {
+        final SystemException exception = assertThrows(SystemException.class,
+            () -> auditionService.getPostsAfter(cursor, 100));
+
+        assertEquals(HttpStatus.BAD_REQUEST.value(), exception.getStatusCode());
+    }
+
+    @Test
+    void givenStreamPostsWhenNoUpstreamPostsThenCompletesWithoutError() {
+        when(auditionIntegrationClient.streamPosts(eq(10), eq(100), any())).thenReturn(0);
+
+        assertDoesNotThrow(() -> auditionService.streamPosts(10, 100, post -> {
+        }));
+    }
+
     @Test
     void givenGetPostByIdWhenValidIdThenReturnSinglePost() {
         final AuditionPost expectedPost = new AuditionPost(SOME_ID, SOME_ID, "Sample Post 1", "Sample Body 1",
@@ -313,4 +430,9 @@ class AuditionServiceTest {
         assertEquals(UNHANDLED_ERROR, exception.getMessage());
         assertEquals(UNHANDLED_ERROR, exception.getDetail());
     }
+
+    private void givenUpstreamHonoursRange() {
+        when(auditionIntegrationClient.getPostsPage(0, 1)).thenReturn(auditionPosts.subList(0, 1));
+        when(auditionIntegrationClient.getPostsPage(1, 1)).thenReturn(auditionPosts.subList(1, 2));
+    }
 }
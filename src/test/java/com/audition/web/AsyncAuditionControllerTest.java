@@ -0,0 +1,142 @@
+package com.audition.web;
+
+import static org.hamcrest.Matchers.hasSize;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.audition.common.exception.SystemException;
+import com.audition.common.logging.AuditionLogger;
+import com.audition.model.AuditionComment;
+import com.audition.model.AuditionPost;
+import com.audition.service.AsyncAuditionService;
+import com.audition.service.PostPage;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+@WebMvcTest(value = AsyncAuditionController.class, properties = "integration.client.execution=non-blocking")
+@WithMockUser(username = "default", password = "defaultpassword")
+class AsyncAuditionControllerTest {
+
+    private static final String SOME_ID = "1";
+    private static final String TITLE = "title1";
+
+    @Autowired
+    private transient MockMvc mockMvc;
+
+    @MockBean
+    private transient AsyncAuditionService auditionService;
+
+    @MockBean
+    @SuppressWarnings("PMD.UnusedPrivateField")
+    private transient AuditionLogger auditionLogger;
+
+    @SuppressWarnings({"PMD.SignatureDeclareThrowsException", "PMD.AvoidDuplicateLiterals"})
+    @Test
+    void givenGetPostsWhenFutureCompletesThenReturnsPosts() throws Exception {
+        when(auditionService.getPosts(0, 100)).thenReturn(CompletableFuture.completedFuture(
+            List.of(new AuditionPost(1, 1, TITLE, "body1", null))));
+
+        final MvcResult result = mockMvc.perform(get("/posts"))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$", hasSize(1)))
+            .andExpect(jsonPath("$[0].title").value(TITLE))
+            .andExpect(header().exists(HttpHeaders.ETAG));
+
+        verify(auditionService).getPosts(0, 100);
+    }
+
+    @SuppressWarnings("PMD.SignatureDeclareThrowsException")
+    @Test
+    void givenGetPostsWithCursorWhenLastPageThenNoNextLink() throws Exception {
+        when(auditionService.getPostsAfter("aWQ6MQ", 100)).thenReturn(CompletableFuture.completedFuture(
+            new PostPage(List.of(new AuditionPost(1, 2, TITLE, "body2", null)), null)));
+
+        final MvcResult result = mockMvc.perform(get("/posts").param("after", "aWQ6MQ"))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$[0].id").value(2))
+            .andExpect(header().doesNotExist(HttpHeaders.LINK));
+
+        verify(auditionService, never()).getPosts(anyInt(), anyInt());
+    }
+
+    @SuppressWarnings("PMD.SignatureDeclareThrowsException")
+    @Test
+    void givenGetPostsWithCursorAndIdsThenThrowBadRequest() throws Exception {
+        mockMvc.perform(get("/posts").param("after", "").param("ids", "1"))
+            .andExpect(status().isBadRequest());
+
+        verify(auditionService, never()).getPostsAfter(any(), anyInt());
+        verify(auditionService, never()).getPostsByIds(any(), anyBoolean());
+    }
+
+    @SuppressWarnings("PMD.SignatureDeclareThrowsException")
+    @Test
+    void givenGetPostsWhenLimitExceedsMaxThenThrowBadRequestWithoutStartingAsync() throws Exception {
+        mockMvc.perform(get("/posts").param("limit", "501"))
+            .andExpect(status().isBadRequest());
+
+        verify(auditionService, never()).getPosts(anyInt(), anyInt());
+    }
+
+    @SuppressWarnings("PMD.SignatureDeclareThrowsException")
+    @Test
+    void givenGetPostByIdWhenFutureFailsWithSystemExceptionThenReturnsProblemDetail() throws Exception {
+        when(auditionService.getPostById(SOME_ID)).thenReturn(CompletableFuture.failedFuture(
+            new SystemException("Cannot find a Post with id 1", SystemException.RESOURCE_NOT_FOUND_STR,
+                HttpStatus.NOT_FOUND.value())));
+
+        final MvcResult result = mockMvc.perform(get("/posts/1"))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+            .andExpect(status().isNotFound())
+            .andExpect(jsonPath("$.title").value(SystemException.RESOURCE_NOT_FOUND_STR));
+
+        verify(auditionService).getPostById(SOME_ID);
+    }
+
+    @SuppressWarnings("PMD.SignatureDeclareThrowsException")
+    @Test
+    void givenGetCommentsWhenFutureCompletesThenReturnsComments() throws Exception {
+        when(auditionService.getCommentsByPostId(SOME_ID)).thenReturn(CompletableFuture.completedFuture(
+            List.of(new AuditionComment(1, 1, "name", "test@test.com", "body"))));
+
+        final MvcResult result = mockMvc.perform(get("/comments").param("postId", SOME_ID))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$[0].email").value("test@test.com"));
+
+        verify(auditionService).getCommentsByPostId(SOME_ID);
+    }
+}
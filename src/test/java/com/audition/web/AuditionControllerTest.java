@@ -3,13 +3,21 @@ package com.audition.web;
 import static org.hamcrest.Matchers.hasItem;
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.startsWith;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
 import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -17,9 +25,13 @@ import com.audition.common.exception.SystemException;
 import com.audition.common.logging.AuditionLogger;
 import com.audition.model.AuditionComment;
 import com.audition.model.AuditionPost;
+import com.audition.model.PostBatch;
+import com.audition.model.PostLookupError;
 import com.audition.service.AuditionService;
+import com.audition.service.PostPage;
 import java.util.Collections;
 import java.util.List;
+import java.util.function.Consumer;
 import java.util.stream.IntStream;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -29,6 +41,7 @@ import org.junit.jupiter.params.provider.ValueSource;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
@@ -71,14 +84,65 @@ class AuditionControllerTest {
     void givenGetPostsWhenDefaultParamsThenReturnFirst100Results() throws Exception {
         final List<AuditionPost> paginatedPostsResponse = auditionPosts.subList(0, 100);
 
-        when(auditionService.getPosts(0, 100)).thenReturn(paginatedPostsResponse);
+        givenStreamedPosts(0, 100, paginatedPostsResponse);
 
         mockMvc.perform(get(MOCK_POSTS_ENDPOINT))
             .andExpect(status().isOk())
             .andExpect(content().contentType(MediaType.APPLICATION_JSON))
             .andExpect(jsonPath("$", hasSize(100)));
 
-        verify(auditionService).getPosts(0, 100);
+        verify(auditionService).streamPosts(eq(0), eq(100), any());
+    }
+
+    @SuppressWarnings("PMD.SignatureDeclareThrowsException")
+    @Test
+    void givenGetPostsWithCursorWhenMorePostsThenNextPageIsLinked() throws Exception {
+        when(auditionService.getPostsAfter("", 2)).thenReturn(new PostPage(auditionPosts.subList(0, 2), "aWQ6MQ"));
+
+        mockMvc.perform(get(MOCK_POSTS_ENDPOINT + "?after=&limit=2"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$", hasSize(2)))
+            .andExpect(header().string(HttpHeaders.LINK,
+                "<http://localhost/posts?limit=2&after=aWQ6MQ>; rel=\"next\""));
+
+        verify(auditionService, never()).streamPosts(anyInt(), anyInt(), any());
+    }
+
+    @SuppressWarnings("PMD.SignatureDeclareThrowsException")
+    @Test
+    void givenGetPostsWithIdsWhenOneIsMissingThenPartialResultIsReturned() throws Exception {
+        when(auditionService.getPostsByIds(List.of("1", "7"), true)).thenReturn(new PostBatch(
+            auditionPosts.subList(1, 2),
+            List.of(new PostLookupError("7", 404, SystemException.RESOURCE_NOT_FOUND_STR,
+                "Cannot find a Post with id 7"))));
+
+        mockMvc.perform(get(MOCK_POSTS_ENDPOINT).param("ids", "1,7").param("comments", "true"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.posts[0].title").value(SAMPLE_POST))
+            .andExpect(jsonPath("$.errors[0].id").value("7"))
+            .andExpect(jsonPath("$.errors[0].status").value(404));
+
+        verify(auditionService).getPostsByIds(List.of("1", "7"), true);
+    }
+
+    @SuppressWarnings("PMD.SignatureDeclareThrowsException")
+    @Test
+    void givenGetPostsWithCursorAndIdsThenThrowBadRequest() throws Exception {
+        mockMvc.perform(get(MOCK_POSTS_ENDPOINT).param("after", "").param("ids", "1"))
+            .andExpect(status().isBadRequest());
+
+        verify(auditionService, never()).getPostsAfter(any(), anyInt());
+        verify(auditionService, never()).getPostsByIds(any(), anyBoolean());
+    }
+
+    @SuppressWarnings("PMD.SignatureDeclareThrowsException")
+    @Test
+    void givenGetPostsWithIdsWhenTooManyIdsThenThrowBadRequest() throws Exception {
+        mockMvc.perform(get(MOCK_POSTS_ENDPOINT)
+                .param("ids", IntStream.rangeClosed(1, 201).mapToObj(String::valueOf).toArray(String[]::new)))
+            .andExpect(status().isBadRequest());
+
+        verify(auditionService, never()).getPostsByIds(any(), anyBoolean());
     }
 
     @SuppressWarnings("PMD.SignatureDeclareThrowsException")
@@ -89,7 +153,7 @@ class AuditionControllerTest {
                 .param(LIMIT, limitParam))
             .andExpect(status().isBadRequest());
 
-        verify(auditionService, never()).getPosts(anyInt(), anyInt());
+        verify(auditionService, never()).streamPosts(anyInt(), anyInt(), any());
     }
 
     @SuppressWarnings("PMD.SignatureDeclareThrowsException")
@@ -100,7 +164,7 @@ class AuditionControllerTest {
                 .param(OFFSET, offsetParam))
             .andExpect(status().isBadRequest());
 
-        verify(auditionService, never()).getPosts(anyInt(), anyInt());
+        verify(auditionService, never()).streamPosts(anyInt(), anyInt(), any());
     }
 
     @SuppressWarnings("PMD.SignatureDeclareThrowsException")
@@ -110,7 +174,7 @@ class AuditionControllerTest {
                 .param(LIMIT, "501"))
             .andExpect(status().isBadRequest());
 
-        verify(auditionService, never()).getPosts(anyInt(), anyInt());
+        verify(auditionService, never()).streamPosts(anyInt(), anyInt(), any());
     }
 
     @SuppressWarnings({"PMD.SignatureDeclareThrowsException", "PMD.AvoidDuplicateLiterals"})
@@ -121,7 +185,7 @@ class AuditionControllerTest {
     void givenGetPostsPaginatedResponse0to500() throws Exception {
         final List<AuditionPost> paginatedPostsResponse = auditionPosts.subList(0, 500);
 
-        when(auditionService.getPosts(0, 500)).thenReturn(paginatedPostsResponse);
+        givenStreamedPosts(0, 500, paginatedPostsResponse);
 
         mockMvc.perform(get(MOCK_POSTS_ENDPOINT)
                 .param(LIMIT, "500"))
@@ -132,7 +196,7 @@ class AuditionControllerTest {
             .andExpect(jsonPath("$[*].userId", hasItem(auditionPosts.get(499).getUserId())))
             .andExpect(jsonPath("$[*].userId", not(hasItem(auditionPosts.get(500).getUserId()))));
 
-        verify(auditionService).getPosts(0, 500);
+        verify(auditionService).streamPosts(eq(0), eq(500), any());
     }
 
     @SuppressWarnings("PMD.SignatureDeclareThrowsException")
@@ -144,7 +208,7 @@ class AuditionControllerTest {
         final List<AuditionPost> paginatedPostsResponse = auditionPosts.subList(50,
             Math.min(50 + 200, auditionPosts.size()));
 
-        when(auditionService.getPosts(50, 200)).thenReturn(paginatedPostsResponse);
+        givenStreamedPosts(50, 200, paginatedPostsResponse);
 
         mockMvc.perform(get(MOCK_POSTS_ENDPOINT)
                 .param(LIMIT, "200")
@@ -157,7 +221,7 @@ class AuditionControllerTest {
             .andExpect(jsonPath("$[*].userId", not(hasItem(auditionPosts.get(49).getUserId()))))
             .andExpect(jsonPath("$[*].userId", not(hasItem(auditionPosts.get(250).getUserId()))));
 
-        verify(auditionService).getPosts(50, 200);
+        verify(auditionService).streamPosts(eq(50), eq(200), any());
     }
 
     @SuppressWarnings("PMD.SignatureDeclareThrowsException")
@@ -169,7 +233,7 @@ class AuditionControllerTest {
         final List<AuditionPost> paginatedPostsResponse = auditionPosts.subList(50,
             Math.min(50 + 100, auditionPosts.size()));
 
-        when(auditionService.getPosts(50, 100)).thenReturn(paginatedPostsResponse);
+        givenStreamedPosts(50, 100, paginatedPostsResponse);
 
         mockMvc.perform(get(MOCK_POSTS_ENDPOINT)
                 .param(OFFSET, "50"))
@@ -181,7 +245,7 @@ class AuditionControllerTest {
             .andExpect(jsonPath("$[*].userId", not(hasItem(auditionPosts.get(49).getUserId()))))
             .andExpect(jsonPath("$[*].userId", not(hasItem(auditionPosts.get(150).getUserId()))));
 
-        verify(auditionService).getPosts(50, 100);
+        verify(auditionService).streamPosts(eq(50), eq(100), any());
     }
 
     @SuppressWarnings("PMD.SignatureDeclareThrowsException")
@@ -193,7 +257,7 @@ class AuditionControllerTest {
         final List<AuditionPost> paginatedPostsResponse = auditionPosts.subList(50,
             Math.min(50 + 500, auditionPosts.size()));
 
-        when(auditionService.getPosts(50, 500)).thenReturn(paginatedPostsResponse);
+        givenStreamedPosts(50, 500, paginatedPostsResponse);
 
         mockMvc.perform(get(MOCK_POSTS_ENDPOINT)
                 .param(OFFSET, "50")
@@ -206,7 +270,7 @@ class AuditionControllerTest {
             .andExpect(jsonPath("$[*].userId", not(hasItem(auditionPosts.get(49).getUserId()))))
             .andExpect(jsonPath("$[*].userId", not(hasItem(auditionPosts.get(550).getUserId()))));
 
-        verify(auditionService).getPosts(50, 500);
+        verify(auditionService).streamPosts(eq(50), eq(500), any());
     }
 
     @SuppressWarnings("PMD.SignatureDeclareThrowsException")
@@ -218,7 +282,7 @@ class AuditionControllerTest {
         final List<AuditionPost> paginatedPostsResponse = auditionPosts.subList(50,
             Math.min(50 + 25, auditionPosts.size()));
 
-        when(auditionService.getPosts(50, 25)).thenReturn(paginatedPostsResponse);
+        givenStreamedPosts(50, 25, paginatedPostsResponse);
 
         mockMvc.perform(get(MOCK_POSTS_ENDPOINT)
                 .param(OFFSET, "50")
@@ -231,7 +295,7 @@ class AuditionControllerTest {
             .andExpect(jsonPath("$[*].userId", not(hasItem(auditionPosts.get(49).getUserId()))))
             .andExpect(jsonPath("$[*].userId", not(hasItem(auditionPosts.get(75).getUserId()))));
 
-        verify(auditionService).getPosts(50, 25);
+        verify(auditionService).streamPosts(eq(50), eq(25), any());
     }
 
     @SuppressWarnings("PMD.SignatureDeclareThrowsException")
@@ -243,7 +307,7 @@ class AuditionControllerTest {
         final List<AuditionPost> paginatedPostsResponse = auditionPosts.subList(250,
             Math.min(250 + 500, auditionPosts.size()));
 
-        when(auditionService.getPosts(250, 500)).thenReturn(paginatedPostsResponse);
+        givenStreamedPosts(250, 500, paginatedPostsResponse);
 
         mockMvc.perform(get(MOCK_POSTS_ENDPOINT)
                 .param(OFFSET, "250")
@@ -256,7 +320,32 @@ class AuditionControllerTest {
             .andExpect(jsonPath("$[*].userId", not(hasItem(auditionPosts.get(249).getUserId()))))
             .andExpect(jsonPath("$[*].userId", not(hasItem(auditionPosts.get(750).getUserId()))));
 
-        verify(auditionService).getPosts(250, 500);
+        verify(auditionService).streamPosts(eq(250), eq(500), any());
+    }
+
+    @SuppressWarnings("PMD.SignatureDeclareThrowsException")
+    @Test
+    void givenGetPostsWhenNoPostsThenReturnEmptyArray() throws Exception {
+        mockMvc.perform(get(MOCK_POSTS_ENDPOINT))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+            .andExpect(content().json("[]"));
+
+        verify(auditionService).streamPosts(eq(0), eq(100), any());
+    }
+
+    @SuppressWarnings("PMD.SignatureDeclareThrowsException")
+    @Test
+    void givenGetPostsWhenOffsetBeyondPostsThenThrowBadRequest() throws Exception {
+        doThrow(new SystemException("Offset Param cannot be greater than amount of Posts: 5000", "Bad Request",
+            HttpStatus.BAD_REQUEST.value())).when(auditionService).streamPosts(eq(5000), eq(100), any());
+
+        mockMvc.perform(get(MOCK_POSTS_ENDPOINT)
+                .param(OFFSET, "5000"))
+            .andExpect(status().isBadRequest())
+            .andExpect(jsonPath("$.title").value("Bad Request"));
+
+        verify(auditionService).streamPosts(eq(5000), eq(100), any());
     }
 
     @SuppressWarnings("PMD.SignatureDeclareThrowsException")
@@ -277,6 +366,41 @@ class AuditionControllerTest {
         verify(auditionService).getPostById("1");
     }
 
+    @SuppressWarnings("PMD.SignatureDeclareThrowsException")
+    @Test
+    void givenGetPostByIdWhenIfNoneMatchesEtagThenReturnNotModified() throws Exception {
+        when(auditionService.getPostById("1")).thenReturn(new AuditionPost(1, 1, SAMPLE_POST, SAMPLE_BODY,
+            Collections.emptyList()));
+
+        final String etag = mockMvc.perform(get(MOCK_POSTS_ENDPOINT + "/1"))
+            .andExpect(status().isOk())
+            .andExpect(header().string(HttpHeaders.ETAG, startsWith("\"")))
+            .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-cache, private"))
+            .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(get(MOCK_POSTS_ENDPOINT + "/1").header(HttpHeaders.IF_NONE_MATCH, etag))
+            .andExpect(status().isNotModified())
+            .andExpect(content().string(""));
+
+        verify(auditionService, times(2)).getPostById("1");
+    }
+
+    @SuppressWarnings("PMD.SignatureDeclareThrowsException")
+    @Test
+    void givenGetPostsWhenStreamedThenNoEtagIsComputedAndBodyIsAlwaysWritten() throws Exception {
+        givenStreamedPosts(0, 100, auditionPosts.subList(0, 100));
+
+        mockMvc.perform(get(MOCK_POSTS_ENDPOINT))
+            .andExpect(status().isOk())
+            .andExpect(header().doesNotExist(HttpHeaders.ETAG));
+
+        mockMvc.perform(get(MOCK_POSTS_ENDPOINT).header(HttpHeaders.IF_NONE_MATCH, "\"0123456789\""))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$", hasSize(100)));
+
+        verify(auditionService, times(2)).streamPosts(eq(0), eq(100), any());
+    }
+
     @SuppressWarnings("PMD.SignatureDeclareThrowsException")
     @Test
     void givenGetPostsByIdWhenNonExistentIdThenThrowNotFound() throws Exception {
@@ -418,4 +542,12 @@ class AuditionControllerTest {
 
         verify(auditionService, never()).getPostWithCommentsById(anyString());
     }
+
+    @SuppressWarnings("unchecked")
+    private void givenStreamedPosts(final int offset, final int limit, final List<AuditionPost> posts) {
+        doAnswer(invocation -> {
+            posts.forEach(invocation.getArgument(2, Consumer.class));
+            return null;
+        }).when(auditionService).streamPosts(eq(offset), eq(limit), any());
+    }
 }
@@ -9,9 +9,13 @@ import static org.mockito.Mockito.verify;
 
 import com.audition.common.exception.SystemException;
 import com.audition.common.logging.AuditionLogger;
+import com.audition.integration.resilience.UpstreamUnavailableException;
+import java.time.Duration;
 import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ProblemDetail;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.HttpRequestMethodNotSupportedException;
 
 class ExceptionControllerAdviceTest {
@@ -49,4 +53,20 @@ class ExceptionControllerAdviceTest {
         assertEquals("Request method 'Method not allowed' is not supported", problemDetailResult.getDetail());
         verify(mockLogger).logStandardProblemDetail(any(), eq(problemDetailResult), eq(exception));
     }
+
+    @Test
+    void givenUpstreamUnavailableExceptionWhenHandledThenServiceUnavailableWithRetryAfter() {
+        final AuditionLogger mockLogger = mock(AuditionLogger.class);
+        final ExceptionControllerAdvice advice = new ExceptionControllerAdvice(mockLogger);
+
+        final UpstreamUnavailableException exception = new UpstreamUnavailableException(
+            "Upstream calls for post are suspended", Duration.ofMillis(2500));
+
+        final ResponseEntity<ProblemDetail> response = advice.handleUpstreamUnavailableException(exception);
+
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, response.getStatusCode());
+        assertEquals("3", response.getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+        assertEquals("Upstream calls for post are suspended", response.getBody().getDetail());
+        verify(mockLogger).logStandardProblemDetail(any(), eq(response.getBody()), eq(exception));
+    }
 }
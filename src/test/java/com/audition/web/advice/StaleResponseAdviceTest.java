@@ -0,0 +1,61 @@
+package com.audition.web.advice;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import com.audition.integration.cache.StaleResponse;
+import java.time.Duration;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.http.server.ServletServerHttpResponse;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+class StaleResponseAdviceTest {
+
+    private static final String WARNING = "Warning";
+
+    private final transient StaleResponseAdvice advice = new StaleResponseAdvice();
+    private final transient MockHttpServletRequest request = new MockHttpServletRequest();
+    private final transient MockHttpServletResponse response = new MockHttpServletResponse();
+
+    @Test
+    void givenFreshResponseWhenBodyIsWrittenThenNoHeadersAreAdded() {
+        final ServletServerHttpResponse serverResponse = new ServletServerHttpResponse(response);
+
+        final Object body = new Object();
+        assertSame(body, advice.beforeBodyWrite(body, null, MediaType.APPLICATION_JSON,
+            MappingJackson2HttpMessageConverter.class, new ServletServerHttpRequest(request), serverResponse));
+
+        assertNull(serverResponse.getHeaders().getFirst(HttpHeaders.AGE));
+        assertNull(serverResponse.getHeaders().getFirst(WARNING));
+    }
+
+    @Test
+    void givenValueServedWhileUpstreamWasSlowWhenBodyIsWrittenThenAgeAndStaleWarningAreAdded() {
+        StaleResponse.mark(request, Duration.ofSeconds(30), false);
+        StaleResponse.mark(request, Duration.ofSeconds(90), false);
+        final ServletServerHttpResponse serverResponse = new ServletServerHttpResponse(response);
+
+        advice.beforeBodyWrite(new Object(), null, MediaType.APPLICATION_JSON,
+            MappingJackson2HttpMessageConverter.class, new ServletServerHttpRequest(request), serverResponse);
+
+        assertEquals("90", serverResponse.getHeaders().getFirst(HttpHeaders.AGE));
+        assertEquals("110 - \"Response is Stale\"", serverResponse.getHeaders().getFirst(WARNING));
+    }
+
+    @Test
+    void givenValueServedAfterUpstreamFailedWhenWrittenByHandlerThenRevalidationFailedWarningIsAdded() {
+        StaleResponse.mark(request, Duration.ofSeconds(5), false);
+        StaleResponse.mark(request, Duration.ofSeconds(2), true);
+
+        StaleResponseAdvice.addHeaders(request, response);
+
+        assertEquals("5", response.getHeader(HttpHeaders.AGE));
+        assertEquals("111 - \"Revalidation Failed\"", response.getHeader(WARNING));
+    }
+}